@@ -0,0 +1,148 @@
+package lk.ac.pdn.sms.config;
+
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Named, bounded executors for background work. Each workload gets its own pool so a
+ * burst of emails can't starve PDF rendering or activity logging. When a pool's queue
+ * is full the submitting thread runs the task itself, which slows callers down instead
+ * of piling up unbounded work.
+ *
+ * Sizes are configured per pool, e.g. app.async.email.core-size / max-size / queue-capacity.
+ * Setting app.async.virtual-threads=true switches every pool to virtual threads on JDK 21+,
+ * bounded by the pool's max-size as a concurrency limit.
+ */
+@Configuration
+public class AsyncConfig implements AsyncConfigurer {
+
+    public static final String EMAIL_EXECUTOR = "emailExecutor";
+    public static final String PDF_EXECUTOR = "pdfExecutor";
+    public static final String LOGGING_EXECUTOR = "loggingExecutor";
+    public static final String PACKET_EXECUTOR = "packetExecutor";
+
+    private final Environment env;
+
+    @Value("${app.async.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    private final Map<String, AsyncTaskExecutor> executors = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> callerRunsCounts = new LinkedHashMap<>();
+
+    public AsyncConfig(Environment env) {
+        this.env = env;
+    }
+
+    @Bean(name = EMAIL_EXECUTOR)
+    public AsyncTaskExecutor emailExecutor() {
+        return createExecutor("email", 2, 4, 500);
+    }
+
+    @Bean(name = PDF_EXECUTOR)
+    public AsyncTaskExecutor pdfExecutor() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        return createExecutor("pdf", Math.max(1, cpus / 2), cpus, 100);
+    }
+
+    @Bean(name = LOGGING_EXECUTOR)
+    public AsyncTaskExecutor loggingExecutor() {
+        return createExecutor("logging", 1, 2, 1000);
+    }
+
+    // Coordinates bulk PDF packet jobs one at a time; the rendering itself runs on the pdf pool
+    @Bean(name = PACKET_EXECUTOR)
+    public AsyncTaskExecutor packetExecutor() {
+        return createExecutor("packet", 1, 1, 20);
+    }
+
+    // Plain @Async methods (no qualifier) are notification work, so they share the email pool
+    @Override
+    public Executor getAsyncExecutor() {
+        return emailExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) ->
+                System.err.println("Async task " + method.getName() + " failed: " + ex.getMessage());
+    }
+
+    /**
+     * Point-in-time view of every pool: active threads, queue depth and how often
+     * callers had to run tasks themselves because the queue was full.
+     */
+    public Map<String, Map<String, Object>> getExecutorStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        executors.forEach((name, executor) -> {
+            Map<String, Object> pool = new LinkedHashMap<>();
+            if (executor instanceof ThreadPoolTaskExecutor) {
+                ThreadPoolExecutor tpe = ((ThreadPoolTaskExecutor) executor).getThreadPoolExecutor();
+                pool.put("mode", "platform");
+                pool.put("activeCount", tpe.getActiveCount());
+                pool.put("poolSize", tpe.getPoolSize());
+                pool.put("maxPoolSize", tpe.getMaximumPoolSize());
+                pool.put("queueDepth", tpe.getQueue().size());
+                pool.put("queueRemainingCapacity", tpe.getQueue().remainingCapacity());
+                pool.put("completedTasks", tpe.getCompletedTaskCount());
+                pool.put("callerRuns", callerRunsCounts.get(name).get());
+            } else {
+                SimpleAsyncTaskExecutor simple = (SimpleAsyncTaskExecutor) executor;
+                pool.put("mode", "virtual");
+                pool.put("concurrencyLimit", simple.getConcurrencyLimit());
+                pool.put("throttleActive", simple.isThrottleActive());
+            }
+            stats.put(name, pool);
+        });
+        return stats;
+    }
+
+    private AsyncTaskExecutor createExecutor(String name, int defaultCore, int defaultMax, int defaultQueue) {
+        int core = env.getProperty("app.async." + name + ".core-size", Integer.class, defaultCore);
+        int max = Math.max(core, env.getProperty("app.async." + name + ".max-size", Integer.class, defaultMax));
+        int queue = env.getProperty("app.async." + name + ".queue-capacity", Integer.class, defaultQueue);
+
+        AsyncTaskExecutor executor;
+        if (virtualThreads && Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor simple = new SimpleAsyncTaskExecutor(name + "-vt-");
+            simple.setVirtualThreads(true);
+            simple.setConcurrencyLimit(max);
+            executor = simple;
+        } else {
+            if (virtualThreads) {
+                System.err.println("app.async.virtual-threads requires JDK 21+, using platform threads for " + name);
+            }
+            AtomicLong callerRuns = new AtomicLong();
+            callerRunsCounts.put(name, callerRuns);
+            ThreadPoolExecutor.CallerRunsPolicy callerRunsPolicy = new ThreadPoolExecutor.CallerRunsPolicy();
+
+            ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+            pool.setThreadNamePrefix(name + "-");
+            pool.setCorePoolSize(core);
+            pool.setMaxPoolSize(max);
+            pool.setQueueCapacity(queue);
+            pool.setRejectedExecutionHandler((task, tpe) -> {
+                callerRuns.incrementAndGet();
+                callerRunsPolicy.rejectedExecution(task, tpe);
+            });
+            pool.setWaitForTasksToCompleteOnShutdown(true);
+            pool.setAwaitTerminationSeconds(30);
+            executor = pool;
+        }
+
+        executors.put(name, executor);
+        return executor;
+    }
+}
@@ -0,0 +1,121 @@
+package lk.ac.pdn.sms.config;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessagePreparator;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the SMTP server. Accepted messages are counted and the most
+ * recent ones kept for inspection, so notification code can be exercised and measured
+ * without a real mail server. An optional per-message delay simulates SMTP round trips.
+ */
+public class InMemoryMailSender implements JavaMailSender {
+
+    private final Session session = Session.getInstance(new Properties());
+    private final AtomicLong received = new AtomicLong();
+    private final Deque<Object> recent = new ArrayDeque<>();
+    private final int retain;
+    private final long latencyMillis;
+
+    public InMemoryMailSender(int retain, long latencyMillis) {
+        this.retain = retain;
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public MimeMessage createMimeMessage() {
+        return new MimeMessage(session);
+    }
+
+    @Override
+    public MimeMessage createMimeMessage(InputStream contentStream) throws MailException {
+        try {
+            return new MimeMessage(session, contentStream);
+        } catch (Exception e) {
+            throw new MailParseException(e);
+        }
+    }
+
+    @Override
+    public void send(MimeMessage... mimeMessages) throws MailException {
+        for (MimeMessage message : mimeMessages) {
+            accept(message);
+        }
+    }
+
+    @Override
+    public void send(MimeMessagePreparator... mimeMessagePreparators) throws MailException {
+        for (MimeMessagePreparator preparator : mimeMessagePreparators) {
+            MimeMessage message = createMimeMessage();
+            try {
+                preparator.prepare(message);
+            } catch (Exception e) {
+                throw new MailPreparationException(e);
+            }
+            accept(message);
+        }
+    }
+
+    @Override
+    public void send(SimpleMailMessage... simpleMessages) throws MailException {
+        for (SimpleMailMessage message : simpleMessages) {
+            accept(message);
+        }
+    }
+
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    public synchronized List<Object> getRecentMessages() {
+        return new ArrayList<>(recent);
+    }
+
+    public synchronized void reset() {
+        received.set(0);
+        recent.clear();
+    }
+
+    // Waits until at least the given number of messages has arrived; returns false on timeout
+    public boolean awaitCount(long count, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (received.get() < count) {
+            if (System.nanoTime() > deadline) return false;
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    private void accept(Object message) {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (retain > 0) {
+            synchronized (this) {
+                recent.addLast(message);
+                while (recent.size() > retain) {
+                    recent.removeFirst();
+                }
+            }
+        }
+        received.incrementAndGet();
+    }
+}
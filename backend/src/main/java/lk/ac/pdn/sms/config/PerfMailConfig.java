@@ -0,0 +1,25 @@
+package lk.ac.pdn.sms.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Under the "perf" profile all outgoing mail goes to an in-memory sink instead of SMTP,
+ * so the notification path can be load-tested offline.
+ */
+@Configuration
+@Profile("perf")
+public class PerfMailConfig {
+
+    @Bean
+    @Primary
+    public InMemoryMailSender inMemoryMailSender(
+            @Value("${app.perf.mail.retain:100}") int retain,
+            @Value("${app.perf.mail.latency-ms:0}") long latencyMillis) {
+        System.out.println("➤ perf profile: outgoing mail is captured in memory (latency " + latencyMillis + " ms)");
+        return new InMemoryMailSender(retain, latencyMillis);
+    }
+}
@@ -0,0 +1,99 @@
+package lk.ac.pdn.sms.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lk.ac.pdn.sms.entity.AdminUser;
+import lk.ac.pdn.sms.service.RateLimiter;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies RateLimiter to /api requests. Runs after authentication so admin traffic is
+ * charged to the admin's own budget; anonymous traffic is charged per client address to
+ * the budget of the endpoint class it hits. Refused requests get 429 with Retry-After.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    // Reverse proxies in front of the app that append to X-Forwarded-For; 0 ignores the header
+    private final int trustedProxies;
+
+    public RateLimitFilter(RateLimiter rateLimiter, int trustedProxies) {
+        this.rateLimiter = rateLimiter;
+        this.trustedProxies = trustedProxies;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return "OPTIONS".equals(request.getMethod()) || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean admin = auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken);
+
+        RateLimiter.EndpointClass endpointClass = admin ? RateLimiter.EndpointClass.ADMIN : classify(request);
+        String clientKey = admin ? adminKey(auth) : clientAddress(request);
+
+        long waitNanos = rateLimiter.tryAcquire(endpointClass, clientKey);
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            response.setStatus(429);
+            response.setHeader("Retry-After", String.valueOf(retryAfter));
+            response.setContentType("application/json");
+            response.getWriter().write("{\"message\":\"Too many requests, please retry later\",\"retryAfterSeconds\":"
+                    + retryAfter + "}");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static RateLimiter.EndpointClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith("/api/validation/")) return RateLimiter.EndpointClass.VALIDATION;
+        if (path.startsWith("/api/auth/")) return RateLimiter.EndpointClass.AUTH;
+        if ("POST".equals(request.getMethod())
+                && (path.equals("/api/societies/register")
+                || path.equals("/api/renewals/submit")
+                || path.equals("/api/events/request"))) {
+            return RateLimiter.EndpointClass.SUBMISSION;
+        }
+        return RateLimiter.EndpointClass.PUBLIC;
+    }
+
+    private static String adminKey(Authentication auth) {
+        Object principal = auth.getPrincipal();
+        if (principal instanceof AdminUser) return "admin:" + ((AdminUser) principal).getId();
+        if (principal instanceof OidcUser) return "admin:" + ((OidcUser) principal).getEmail();
+        if (principal instanceof OAuth2User) return "admin:" + ((OAuth2User) principal).getAttribute("email");
+        return "admin:" + auth.getName();
+    }
+
+    // The X-Forwarded-For hop added by the outermost trusted proxy, counted from the right.
+    // Hops to its left were written by the client and can change on every request.
+    private String clientAddress(HttpServletRequest request) {
+        if (trustedProxies > 0) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                String[] hops = forwarded.split(",");
+                // Fewer hops than proxies: the request did not come through all of them
+                if (hops.length >= trustedProxies) {
+                    String hop = hops[hops.length - trustedProxies].trim();
+                    if (!hop.isEmpty()) return hop;
+                }
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -1,5 +1,7 @@
 package lk.ac.pdn.sms.config;
 
+import lk.ac.pdn.sms.service.RateLimiter;
+import lk.ac.pdn.sms.service.TokenService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,7 +9,10 @@ import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -22,11 +27,30 @@ public class SecurityConfig {
     @Value("${app.frontend-url:http://localhost:5173}")
     private String frontendUrl;
 
+    // "session" (default): HttpSession per admin; "token": stateless bearer tokens, see TokenService
+    @Value("${app.auth.session-mode:session}")
+    private String sessionMode;
+
+    @Value("${app.rate-limit.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+
+    // How many proxies append to X-Forwarded-For before a request reaches the app
+    @Value("${app.rate-limit.trusted-proxies:1}")
+    private int trustedProxies;
+
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, TokenService tokenService,
+                                           RateLimiter rateLimiter) throws Exception {
+        boolean stateless = "token".equalsIgnoreCase(sessionMode);
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session.sessionCreationPolicy(
+                        stateless ? SessionCreationPolicy.STATELESS : SessionCreationPolicy.IF_REQUIRED))
+                // Bearer tokens are honoured in both modes; only token mode issues them at login
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService), UsernamePasswordAuthenticationFilter.class)
+                // After authentication is known, so admins are limited on their own budget
+                .addFilterAfter(new RateLimitFilter(rateLimiter, trustForwardedFor ? trustedProxies : 0), AnonymousAuthenticationFilter.class)
                 .authorizeHttpRequests(authz -> authz
                         // --- PUBLIC ACCESS (Crucial for Forms) ---
                         .requestMatchers(HttpMethod.GET, "/api/societies/**").permitAll()
@@ -55,6 +79,8 @@ public class SecurityConfig {
                 )
                 .logout(logout -> logout
                         .logoutUrl("/api/auth/logout")
+                        .addLogoutHandler((request, response, authentication) ->
+                                tokenService.revoke(TokenAuthenticationFilter.bearerToken(request)))
                         .permitAll()
                 );
 
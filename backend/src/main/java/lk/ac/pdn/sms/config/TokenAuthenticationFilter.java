@@ -0,0 +1,62 @@
+package lk.ac.pdn.sms.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lk.ac.pdn.sms.entity.AdminUser;
+import lk.ac.pdn.sms.service.TokenService;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Authenticates "Authorization: Bearer" access tokens issued by TokenService. The principal
+ * is an AdminUser built from the token's claims, the same shape as a password login, so
+ * AdminService/CurrentAdminService resolve it the same way. Requests without a valid token
+ * are passed on unauthenticated.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public TokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    public static String bearerToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) return null;
+        return header.substring(BEARER.length()).trim();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = bearerToken(request);
+        Map<String, Object> claims = token != null ? tokenService.verify(token, TokenService.ACCESS) : null;
+        if (claims != null) {
+            AdminUser admin = new AdminUser();
+            admin.setId(Long.valueOf((String) claims.get("sub")));
+            admin.setEmail((String) claims.get("email"));
+            admin.setName((String) claims.get("name"));
+            admin.setRole(AdminUser.Role.valueOf((String) claims.get("role")));
+            admin.setFaculty((String) claims.get("faculty"));
+
+            UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(admin, null,
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + admin.getRole().name())));
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(auth);
+            SecurityContextHolder.setContext(context);
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -1,20 +1,33 @@
 package lk.ac.pdn.sms.controller;
 
+import lk.ac.pdn.sms.config.AsyncConfig;
 import lk.ac.pdn.sms.dto.AdminUserManagementDto;
 import lk.ac.pdn.sms.dto.ApprovalDto;
+import lk.ac.pdn.sms.dto.AuditLogPageDto;
 import lk.ac.pdn.sms.entity.ActivityLog;
 import lk.ac.pdn.sms.entity.AdminUser;
+import lk.ac.pdn.sms.entity.AuditEvent;
+import lk.ac.pdn.sms.service.ActivityLogAppender;
+import lk.ac.pdn.sms.service.ActivityLogArchiveService;
 import lk.ac.pdn.sms.service.AdminService;
 import lk.ac.pdn.sms.service.ApprovalService;
+import lk.ac.pdn.sms.service.CurrentAdminService;
+import lk.ac.pdn.sms.service.NotificationCoalescer;
+import lk.ac.pdn.sms.service.OfficerConflictIndex;
+import lk.ac.pdn.sms.service.PdfCacheService;
+import lk.ac.pdn.sms.service.RateLimiter;
+import lk.ac.pdn.sms.service.TokenService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -25,11 +38,37 @@ public class AdminController {
 
     private final AdminService adminService;
     private final ApprovalService approvalService;
+    private final AsyncConfig asyncConfig;
+    private final NotificationCoalescer notificationCoalescer;
+    private final ActivityLogAppender activityLogAppender;
+    private final ActivityLogArchiveService activityLogArchiveService;
+    private final PdfCacheService pdfCacheService;
+    private final OfficerConflictIndex officerConflictIndex;
+    private final CurrentAdminService currentAdminService;
+    private final TokenService tokenService;
+    private final RateLimiter rateLimiter;
 
     @Autowired
-    public AdminController(AdminService adminService, ApprovalService approvalService) {
+    public AdminController(AdminService adminService, ApprovalService approvalService,
+                           AsyncConfig asyncConfig, NotificationCoalescer notificationCoalescer,
+                           ActivityLogAppender activityLogAppender,
+                           ActivityLogArchiveService activityLogArchiveService,
+                           PdfCacheService pdfCacheService,
+                           OfficerConflictIndex officerConflictIndex,
+                           CurrentAdminService currentAdminService,
+                           TokenService tokenService,
+                           RateLimiter rateLimiter) {
         this.adminService = adminService;
         this.approvalService = approvalService;
+        this.asyncConfig = asyncConfig;
+        this.notificationCoalescer = notificationCoalescer;
+        this.activityLogAppender = activityLogAppender;
+        this.activityLogArchiveService = activityLogArchiveService;
+        this.pdfCacheService = pdfCacheService;
+        this.officerConflictIndex = officerConflictIndex;
+        this.currentAdminService = currentAdminService;
+        this.tokenService = tokenService;
+        this.rateLimiter = rateLimiter;
     }
 
     // --- Core & Dashboard ---
@@ -45,6 +84,13 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getDashboardStats(admin));
     }
 
+    @PostMapping("/notification-digest")
+    public ResponseEntity<AdminUser> updateNotificationDigest(Authentication authentication,
+                                                              @RequestParam AdminUser.DigestMode mode) {
+        AdminUser admin = adminService.getAdminFromAuth(authentication);
+        return ResponseEntity.ok(adminService.updateNotificationDigest(admin, mode));
+    }
+
     // --- Tab: Approvals ---
 
     @GetMapping("/pending-approvals")
@@ -55,15 +101,17 @@ public class AdminController {
 
     @PostMapping("/approve-registration/{id}")
     @PreAuthorize("hasAnyRole('DEAN', 'ASSISTANT_REGISTRAR', 'VICE_CHANCELLOR')")
-    public ResponseEntity<?> approveRegistration(@PathVariable Long id, @RequestBody ApprovalDto dto) {
-        approvalService.processRegistrationApproval(id, dto);
+    public ResponseEntity<?> approveRegistration(@PathVariable Long id, @RequestBody ApprovalDto dto,
+                                                 Authentication authentication) {
+        approvalService.processRegistrationApproval(id, dto, adminService.getAdminFromAuth(authentication));
         return ResponseEntity.ok().build();
     }
 
     @PostMapping("/reject-registration/{id}")
     @PreAuthorize("hasAnyRole('DEAN', 'ASSISTANT_REGISTRAR', 'VICE_CHANCELLOR')")
-    public ResponseEntity<?> rejectRegistration(@PathVariable Long id, @RequestBody ApprovalDto dto) {
-        approvalService.processRegistrationApproval(id, dto);
+    public ResponseEntity<?> rejectRegistration(@PathVariable Long id, @RequestBody ApprovalDto dto,
+                                                Authentication authentication) {
+        approvalService.processRegistrationApproval(id, dto, adminService.getAdminFromAuth(authentication));
         return ResponseEntity.ok().build();
     }
 
@@ -77,6 +125,16 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getAdminSocieties(year, status, pageable));
     }
 
+    // Every office (any society, any year) held by a registration number or email
+    @GetMapping("/officers")
+    public ResponseEntity<Map<String, Object>> findOfficer(
+            @RequestParam(required = false) String regNo,
+            @RequestParam(required = false) String email) {
+        return ResponseEntity.ok(Map.of(
+                "byRegNo", officerConflictIndex.findByRegNo(regNo),
+                "byEmail", officerConflictIndex.findByEmail(email)));
+    }
+
     // --- Tab: Activity Logs ---
 
     @GetMapping("/activity-logs")
@@ -87,6 +145,28 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getActivityLogs(user, action, pageable));
     }
 
+    // Keyset-paged audit search: exact action / user filters over a time range
+    @GetMapping("/audit-logs")
+    public ResponseEntity<AuditLogPageDto> searchAuditLogs(
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String userEmail,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTimestamp,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(adminService.searchAuditLogs(action, userId, userEmail, from, to, beforeTimestamp, beforeId, size));
+    }
+
+    // Structured approval history of one application, oldest first, with field-level changes
+    @GetMapping("/audit-events")
+    public ResponseEntity<List<AuditEvent>> getAuditHistory(
+            @RequestParam AuditEvent.EntityType entityType,
+            @RequestParam Long entityId) {
+        return ResponseEntity.ok(adminService.getAuditHistory(entityType, entityId));
+    }
+
     // --- Tab: Communication ---
 
     @PostMapping("/send-email")
@@ -127,4 +207,60 @@ public class AdminController {
     public ResponseEntity<List<ApprovalDto>> getMonitoringApplications() {
         return ResponseEntity.ok(approvalService.getMonitoringApplications());
     }
-}
\ No newline at end of file
+
+    // --- System Health ---
+
+    @GetMapping("/system/async-executors")
+    @PreAuthorize("hasAnyRole('ASSISTANT_REGISTRAR', 'STUDENT_SERVICE')")
+    public ResponseEntity<Map<String, Map<String, Object>>> getAsyncExecutorStats() {
+        return ResponseEntity.ok(asyncConfig.getExecutorStats());
+    }
+
+    @GetMapping("/system/notification-coalescing")
+    @PreAuthorize("hasAnyRole('ASSISTANT_REGISTRAR', 'STUDENT_SERVICE')")
+    public ResponseEntity<Map<String, Object>> getNotificationCoalescingStats() {
+        return ResponseEntity.ok(notificationCoalescer.getStats());
+    }
+
+    @GetMapping("/system/activity-log-appender")
+    @PreAuthorize("hasAnyRole('ASSISTANT_REGISTRAR', 'STUDENT_SERVICE')")
+    public ResponseEntity<Map<String, Object>> getActivityLogAppenderStats() {
+        return ResponseEntity.ok(activityLogAppender.getStats());
+    }
+
+    @GetMapping("/system/activity-log-partitions")
+    @PreAuthorize("hasAnyRole('ASSISTANT_REGISTRAR', 'STUDENT_SERVICE')")
+    public ResponseEntity<Map<String, Object>> getActivityLogPartitions() {
+        return ResponseEntity.ok(activityLogArchiveService.getStatus());
+    }
+
+    @GetMapping("/system/pdf-cache")
+    @PreAuthorize("hasAnyRole('ASSISTANT_REGISTRAR', 'STUDENT_SERVICE')")
+    public ResponseEntity<Map<String, Object>> getPdfCacheStats() {
+        return ResponseEntity.ok(pdfCacheService.getStats());
+    }
+
+    @GetMapping("/system/officer-index")
+    @PreAuthorize("hasAnyRole('ASSISTANT_REGISTRAR', 'STUDENT_SERVICE')")
+    public ResponseEntity<Map<String, Object>> getOfficerIndexStats() {
+        return ResponseEntity.ok(officerConflictIndex.getStats());
+    }
+
+    @GetMapping("/system/admin-resolution")
+    @PreAuthorize("hasAnyRole('ASSISTANT_REGISTRAR', 'STUDENT_SERVICE')")
+    public ResponseEntity<Map<String, Object>> getAdminResolutionStats() {
+        return ResponseEntity.ok(currentAdminService.getStats());
+    }
+
+    @GetMapping("/system/tokens")
+    @PreAuthorize("hasAnyRole('ASSISTANT_REGISTRAR', 'STUDENT_SERVICE')")
+    public ResponseEntity<Map<String, Object>> getTokenStats() {
+        return ResponseEntity.ok(tokenService.getStats());
+    }
+
+    @GetMapping("/system/rate-limits")
+    @PreAuthorize("hasAnyRole('ASSISTANT_REGISTRAR', 'STUDENT_SERVICE')")
+    public ResponseEntity<Map<String, Object>> getRateLimitStats() {
+        return ResponseEntity.ok(rateLimiter.getStats());
+    }
+}
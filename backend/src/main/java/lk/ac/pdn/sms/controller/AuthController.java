@@ -5,7 +5,9 @@ import jakarta.servlet.http.HttpSession;
 import lk.ac.pdn.sms.dto.LoginRequest;
 import lk.ac.pdn.sms.entity.AdminUser;
 import lk.ac.pdn.sms.repository.AdminUserRepository;
+import lk.ac.pdn.sms.service.TokenService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -17,6 +19,7 @@ import org.springframework.security.web.context.HttpSessionSecurityContextReposi
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
@@ -27,6 +30,12 @@ public class AuthController {
     @Autowired
     private AdminUserRepository adminUserRepository;
 
+    @Autowired
+    private TokenService tokenService;
+
+    @Value("${app.auth.session-mode:session}")
+    private String sessionMode;
+
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         System.out.println("--- LOGIN ATTEMPT ---");
@@ -70,6 +79,14 @@ public class AuthController {
             }
         }
 
+        // 5a. Stateless mode: no session, the client sends the access token as a Bearer header
+        if ("token".equalsIgnoreCase(sessionMode)) {
+            Map<String, Object> body = new LinkedHashMap<>(tokenService.issue(user));
+            body.put("user", user);
+            System.out.println("--- LOGIN SUCCESSFUL (token): " + user.getName() + " ---");
+            return ResponseEntity.ok(body);
+        }
+
         // 5. Success - Set Session Manually (Most Reliable Method)
         SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + user.getRole().name());
         Authentication auth = new UsernamePasswordAuthenticationToken(user, null, Collections.singletonList(authority));
@@ -86,6 +103,15 @@ public class AuthController {
         return ResponseEntity.ok(user);
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody Map<String, String> request) {
+        try {
+            return ResponseEntity.ok(tokenService.refresh(request.get("refreshToken")));
+        } catch (TokenService.TokenException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", e.getMessage()));
+        }
+    }
+
     @PostMapping("/logout")
     public ResponseEntity<?> logout(HttpServletRequest request) {
         SecurityContextHolder.clearContext();
@@ -5,14 +5,18 @@ import lk.ac.pdn.sms.dto.ApprovalDto;
 import lk.ac.pdn.sms.dto.ApplicantDetailsDto;
 import lk.ac.pdn.sms.entity.EventPermission;
 import lk.ac.pdn.sms.service.EventPermissionService;
+import lk.ac.pdn.sms.service.PdfCacheService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.security.Principal;
@@ -27,6 +31,9 @@ public class EventPermissionController {
     @Autowired
     private EventPermissionService eventService;
 
+    @Autowired
+    private PdfCacheService pdfCacheService;
+
     @PostMapping("/request")
     public ResponseEntity<EventPermission> requestPermission(@Valid @RequestBody EventPermissionDto dto) {
         return ResponseEntity.ok(eventService.createEventRequest(dto));
@@ -61,12 +68,20 @@ public class EventPermissionController {
     }
 
     @GetMapping("/download/{id}")
-    public ResponseEntity<byte[]> downloadPDF(@PathVariable Long id) {
-        byte[] pdfBytes = eventService.generateEventPDF(id);
+    public ResponseEntity<StreamingResponseBody> downloadPDF(@PathVariable Long id, WebRequest request) {
+        EventPermission event = eventService.getEventById(id);
+        String etag = PdfCacheService.etag(pdfCacheService.versionOf(PdfCacheService.DocumentType.EVENT, event));
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        // No Content-Length: the document is written straight to the response (chunked)
+        StreamingResponseBody body = out -> eventService.writeEventPDF(event, out);
         return ResponseEntity.ok()
+                .eTag(etag)
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=event_permission.pdf")
                 .contentType(MediaType.APPLICATION_PDF)
-                .body(pdfBytes);
+                .body(body);
     }
 
     @GetMapping("/admin/pending")
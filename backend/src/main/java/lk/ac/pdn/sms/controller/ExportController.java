@@ -0,0 +1,106 @@
+package lk.ac.pdn.sms.controller;
+
+import lk.ac.pdn.sms.dto.PdfPacketRequestDto;
+import lk.ac.pdn.sms.service.ExportService;
+import lk.ac.pdn.sms.service.PdfPacketService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Bulk extracts for auditors, streamed straight to the response
+@RestController
+@RequestMapping("/api/admin/export")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+@PreAuthorize("hasAnyRole('ASSISTANT_REGISTRAR', 'STUDENT_SERVICE')")
+public class ExportController {
+
+    private final ExportService exportService;
+    private final PdfPacketService pdfPacketService;
+
+    public ExportController(ExportService exportService, PdfPacketService pdfPacketService) {
+        this.exportService = exportService;
+        this.pdfPacketService = pdfPacketService;
+    }
+
+    @GetMapping("/activity-logs")
+    public ResponseEntity<StreamingResponseBody> exportActivityLogs(
+            @RequestParam(defaultValue = "CSV") ExportService.Format format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String userEmail,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> exportService.exportActivityLogs(format, gzip, action, userEmail, from, to, out);
+        return download("activity-logs", format, gzip, body);
+    }
+
+    @GetMapping("/applications")
+    public ResponseEntity<StreamingResponseBody> exportApplications(
+            @RequestParam ExportService.ApplicationType type,
+            @RequestParam(defaultValue = "CSV") ExportService.Format format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String faculty,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> exportService.exportApplications(type, format, gzip, status, faculty, from, to, out);
+        return download(type.name().toLowerCase() + "-applications", format, gzip, body);
+    }
+
+    // --- PDF packets (background ZIP jobs) ---
+
+    @PostMapping("/pdf-packets")
+    public ResponseEntity<Map<String, Object>> startPdfPacket(@RequestBody PdfPacketRequestDto request,
+                                                              Authentication authentication) {
+        return ResponseEntity.accepted().body(pdfPacketService.startExport(request, authentication.getName()));
+    }
+
+    @GetMapping("/pdf-packets")
+    public ResponseEntity<List<Map<String, Object>>> getPdfPackets() {
+        return ResponseEntity.ok(pdfPacketService.getJobs());
+    }
+
+    @GetMapping("/pdf-packets/{jobId}")
+    public ResponseEntity<Map<String, Object>> getPdfPacket(@PathVariable String jobId) {
+        return ResponseEntity.ok(pdfPacketService.getJobStatus(jobId));
+    }
+
+    // Returned as a file resource so Spring answers Range requests (206) and downloads can resume
+    @GetMapping("/pdf-packets/{jobId}/download")
+    public ResponseEntity<Resource> downloadPdfPacket(@PathVariable String jobId) {
+        Path file = pdfPacketService.getPacketFile(jobId);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"pdf-packet-" + jobId + ".zip\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .eTag("\"" + jobId + "\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(new FileSystemResource(file));
+    }
+
+    private ResponseEntity<StreamingResponseBody> download(String name, ExportService.Format format, boolean gzip,
+                                                           StreamingResponseBody body) {
+        String extension = format == ExportService.Format.CSV ? ".csv" : ".ndjson";
+        MediaType type = format == ExportService.Format.CSV
+                ? MediaType.parseMediaType("text/csv; charset=UTF-8")
+                : MediaType.parseMediaType("application/x-ndjson");
+        String filename = name + "-" + LocalDate.now() + extension + (gzip ? ".gz" : "");
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : type)
+                .body(body);
+    }
+}
@@ -0,0 +1,70 @@
+package lk.ac.pdn.sms.controller;
+
+import lk.ac.pdn.sms.service.EmailBenchmarkService;
+import lk.ac.pdn.sms.service.PdfBenchmarkService;
+import lk.ac.pdn.sms.service.ValidationBenchmarkService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Only registered under the "perf" profile; never active in production
+@RestController
+@RequestMapping("/api/admin/perf")
+@Profile("perf")
+@PreAuthorize("hasRole('ASSISTANT_REGISTRAR')")
+public class PerfController {
+
+    private final EmailBenchmarkService emailBenchmarkService;
+    private final PdfBenchmarkService pdfBenchmarkService;
+    private final ValidationBenchmarkService validationBenchmarkService;
+
+    public PerfController(EmailBenchmarkService emailBenchmarkService, PdfBenchmarkService pdfBenchmarkService,
+                          ValidationBenchmarkService validationBenchmarkService) {
+        this.emailBenchmarkService = emailBenchmarkService;
+        this.pdfBenchmarkService = pdfBenchmarkService;
+        this.validationBenchmarkService = validationBenchmarkService;
+    }
+
+    @PostMapping("/email/notifications")
+    public ResponseEntity<Map<String, Object>> benchmarkNotifications(
+            @RequestParam(defaultValue = "1000") int count,
+            @RequestParam(defaultValue = "200") int rate) throws InterruptedException {
+        return ResponseEntity.ok(emailBenchmarkService.runNotificationBenchmark(count, rate));
+    }
+
+    @PostMapping("/email/bulk")
+    public ResponseEntity<Map<String, Object>> benchmarkBulk(
+            @RequestParam(defaultValue = "10") int batches,
+            @RequestParam(defaultValue = "100") int recipients,
+            @RequestParam(defaultValue = "2") int rate) throws InterruptedException {
+        return ResponseEntity.ok(emailBenchmarkService.runBulkBenchmark(batches, recipients, rate));
+    }
+
+    @PostMapping("/email/render")
+    public ResponseEntity<Map<String, Object>> benchmarkRender(
+            @RequestParam(defaultValue = "10000") int count,
+            @RequestParam(defaultValue = "2") int warmup) {
+        return ResponseEntity.ok(emailBenchmarkService.runRenderBenchmark(count, warmup));
+    }
+
+    @PostMapping("/pdf")
+    public ResponseEntity<Map<String, Object>> benchmarkPdf(
+            @RequestParam(defaultValue = "REGISTRATION") PdfBenchmarkService.DocumentType type,
+            @RequestParam(defaultValue = "200") int count,
+            @RequestParam(defaultValue = "50") int members,
+            @RequestParam(defaultValue = "20") int warmup) throws IOException {
+        return ResponseEntity.ok(pdfBenchmarkService.runPdfBenchmark(type, count, members, warmup));
+    }
+
+    @PostMapping("/validation")
+    public ResponseEntity<Map<String, Object>> benchmarkValidation(
+            @RequestParam(defaultValue = "100000") int corpus,
+            @RequestParam(defaultValue = "42") long seed,
+            @RequestParam(defaultValue = "20") int iterations) {
+        return ResponseEntity.ok(validationBenchmarkService.runValidationBenchmark(corpus, seed, iterations));
+    }
+}
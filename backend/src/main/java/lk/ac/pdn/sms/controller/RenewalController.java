@@ -3,15 +3,19 @@ package lk.ac.pdn.sms.controller;
 import lk.ac.pdn.sms.dto.SocietyRenewalDto;
 import lk.ac.pdn.sms.dto.ApprovalDto;
 import lk.ac.pdn.sms.entity.SocietyRenewal;
+import lk.ac.pdn.sms.service.PdfCacheService;
 import lk.ac.pdn.sms.service.RenewalService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.security.Principal;
@@ -25,6 +29,9 @@ public class RenewalController {
     @Autowired
     private RenewalService renewalService;
 
+    @Autowired
+    private PdfCacheService pdfCacheService;
+
     @PostMapping("/submit")
     public ResponseEntity<SocietyRenewal> submitRenewal(@Valid @RequestBody SocietyRenewalDto renewalDto) {
         SocietyRenewal renewal = renewalService.submitRenewal(renewalDto);
@@ -100,13 +107,19 @@ public class RenewalController {
     }
 
     @GetMapping("/download/{id}")
-    public ResponseEntity<byte[]> downloadRenewalPDF(@PathVariable Long id) {
-        byte[] pdfBytes = renewalService.generateRenewalPDF(id);
+    public ResponseEntity<StreamingResponseBody> downloadRenewalPDF(@PathVariable Long id, WebRequest request) {
+        SocietyRenewal renewal = renewalService.getRenewalById(id);
+        String etag = PdfCacheService.etag(pdfCacheService.versionOf(PdfCacheService.DocumentType.RENEWAL, renewal));
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
 
+        StreamingResponseBody body = out -> renewalService.writeRenewalPDF(renewal, out);
         return ResponseEntity.ok()
+                .eTag(etag)
                 .header("Content-Type", "application/pdf")
                 .header("Content-Disposition", "attachment; filename=renewal-application.pdf")
-                .body(pdfBytes);
+                .body(body);
     }
 
     @GetMapping("/statistics")
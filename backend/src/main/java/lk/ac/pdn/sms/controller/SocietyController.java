@@ -5,16 +5,20 @@ import lk.ac.pdn.sms.entity.Society;
 import lk.ac.pdn.sms.entity.SocietyRegistration;
 import lk.ac.pdn.sms.service.SocietyService;
 import lk.ac.pdn.sms.service.PDFService;
+import lk.ac.pdn.sms.service.PdfCacheService;
+import lk.ac.pdn.sms.service.PdfDocumentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
-import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -28,6 +32,9 @@ public class SocietyController {
     @Autowired
     private PDFService pdfService;
 
+    @Autowired
+    private PdfDocumentService pdfDocumentService;
+
     // --- PUBLIC ENDPOINTS ---
 
     @GetMapping("/public")
@@ -68,16 +75,20 @@ public class SocietyController {
     // --- DOWNLOADS ---
 
     @GetMapping("/registration/download/{id}")
-    public ResponseEntity<byte[]> downloadRegistrationPDF(@PathVariable Long id) {
-        try {
-            SocietyRegistration registration = societyService.getRegistrationById(id);
-            byte[] pdfBytes = pdfService.generateRegistrationPDF(registration);
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=registration_" + id + ".pdf")
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(pdfBytes);
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().build();
+    public ResponseEntity<StreamingResponseBody> downloadRegistrationPDF(@PathVariable Long id, WebRequest request) {
+        // Reads only the application row; the member lists are loaded only if the PDF has to be rendered
+        PdfDocumentService.LoadedDocument document = pdfDocumentService.load(PdfCacheService.DocumentType.REGISTRATION, id);
+        String etag = PdfCacheService.etag(document.getVersion());
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
         }
+
+        // No Content-Length: the document is written straight to the response (chunked)
+        StreamingResponseBody body = out -> pdfDocumentService.write(document, out);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=registration_" + id + ".pdf")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(body);
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,21 @@
 package lk.ac.pdn.sms.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lk.ac.pdn.sms.dto.EventPermissionDto;
+import lk.ac.pdn.sms.dto.SocietyRegistrationDto;
+import lk.ac.pdn.sms.dto.SocietyRenewalDto;
+import lk.ac.pdn.sms.service.BulkValidationService;
 import lk.ac.pdn.sms.service.EmailValidationService;
+import lk.ac.pdn.sms.service.FormValidationService;
+import lk.ac.pdn.sms.service.OfficerConflictIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +28,15 @@ public class ValidationController {
     @Autowired
     private EmailValidationService emailValidationService;
 
+    @Autowired
+    private FormValidationService formValidationService;
+
+    @Autowired
+    private BulkValidationService bulkValidationService;
+
+    @Autowired
+    private OfficerConflictIndex officerConflictIndex;
+
     @PostMapping("/email")
     public ResponseEntity<Map<String, Object>> validateEmail(@RequestBody Map<String, String> request) {
         String email = request.get("email");
@@ -36,9 +56,10 @@ public class ValidationController {
         String mobile = request.get("mobile");
         
         Map<String, Object> response = new HashMap<>();
-        response.put("isValid", emailValidationService.isValidMobile(mobile));
+        boolean valid = emailValidationService.isValidMobile(mobile);
+        response.put("isValid", valid);
         
-        if (!emailValidationService.isValidMobile(mobile)) {
+        if (!valid) {
             response.put("error", "Invalid Sri Lankan mobile number format (e.g., 0771234567)");
         }
         
@@ -50,9 +71,10 @@ public class ValidationController {
         String regNo = request.get("regNo");
         
         Map<String, Object> response = new HashMap<>();
-        response.put("isValid", emailValidationService.isValidRegistrationNumber(regNo));
+        boolean valid = emailValidationService.isValidRegistrationNumber(regNo);
+        response.put("isValid", valid);
         
-        if (!emailValidationService.isValidRegistrationNumber(regNo)) {
+        if (!valid) {
             response.put("error", "Registration number must contain both letters and numbers");
         }
         
@@ -73,4 +95,58 @@ public class ValidationController {
         
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    // Same check for very large lists: the body is read and answered incrementally as NDJSON
+    @PostMapping(value = "/bulk-emails/stream", produces = "application/x-ndjson")
+    public void validateBulkEmailsStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        try {
+            bulkValidationService.validateEmails(request.getInputStream(), response.getOutputStream());
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            // Malformed body; once results have been streamed the missing summary line tells the client
+            if (response.isCommitted()) throw e;
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // --- Whole-form validation: every field and cross-field rule in one request ---
+
+    @PostMapping("/forms/registration")
+    public ResponseEntity<Map<String, Object>> validateRegistrationForm(@RequestBody SocietyRegistrationDto dto) {
+        return ResponseEntity.ok(formValidationService.validateRegistration(dto));
+    }
+
+    @PostMapping("/forms/renewal")
+    public ResponseEntity<Map<String, Object>> validateRenewalForm(@RequestBody SocietyRenewalDto dto) {
+        return ResponseEntity.ok(formValidationService.validateRenewal(dto));
+    }
+
+    @PostMapping("/forms/event")
+    public ResponseEntity<Map<String, Object>> validateEventForm(@RequestBody EventPermissionDto dto) {
+        return ResponseEntity.ok(formValidationService.validateEvent(dto));
+    }
+
+    // Is this person already an official of another society this year? (regNo and/or email)
+    @PostMapping("/officer-conflicts")
+    public ResponseEntity<Map<String, Object>> validateOfficerConflicts(@RequestBody Map<String, String> request) {
+        String yearParam = request.get("year");
+        int year = LocalDate.now().getYear();
+        if (yearParam != null && !yearParam.isBlank()) {
+            try {
+                year = Integer.parseInt(yearParam.trim());
+            } catch (NumberFormatException e) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("message", "year must be a number");
+                return ResponseEntity.badRequest().body(error);
+            }
+        }
+        List<OfficerConflictIndex.Holding> conflicts = officerConflictIndex.findConflicts(
+                request.get("regNo"), request.get("email"), request.get("societyName"), year);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("hasConflict", !conflicts.isEmpty());
+        response.put("conflicts", conflicts);
+        return ResponseEntity.ok(response);
+    }
+}
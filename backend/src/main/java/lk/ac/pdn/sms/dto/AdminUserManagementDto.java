@@ -3,6 +3,7 @@ package lk.ac.pdn.sms.dto;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import lk.ac.pdn.sms.entity.AdminUser.DigestMode;
 import lk.ac.pdn.sms.entity.AdminUser.Role;
 import lombok.Data;
 
@@ -21,4 +22,7 @@ public class AdminUserManagementDto {
 
     // Required only if the role is DEAN
     private String faculty;
+
+    // Optional, defaults to IMMEDIATE
+    private DigestMode notificationDigest;
 }
\ No newline at end of file
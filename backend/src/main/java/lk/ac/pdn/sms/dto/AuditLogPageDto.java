@@ -0,0 +1,24 @@
+package lk.ac.pdn.sms.dto;
+
+import lk.ac.pdn.sms.entity.ActivityLog;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogPageDto {
+
+    private List<ActivityLog> items;
+    private boolean hasMore;
+
+    // Pass these back as beforeTimestamp / beforeId to fetch the next (older) page
+    private LocalDateTime nextBeforeTimestamp;
+    private Long nextBeforeId;
+}
@@ -0,0 +1,18 @@
+package lk.ac.pdn.sms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+// One notification's worth of content; several can be merged into a single email
+@Data
+@AllArgsConstructor
+public class NotificationSection {
+    private String subject;
+    private String recipientName;
+    private List<String> paragraphs;
+    private Map<String, Object> details;
+    private String closing;
+}
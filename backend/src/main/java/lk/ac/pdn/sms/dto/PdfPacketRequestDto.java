@@ -0,0 +1,25 @@
+package lk.ac.pdn.sms.dto;
+
+import lk.ac.pdn.sms.service.PdfCacheService;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PdfPacketRequestDto {
+
+    // Defaults to registrations and renewals
+    private List<PdfCacheService.DocumentType> types;
+
+    // Registration year, renewal year or event year; null for all years
+    private Integer year;
+
+    // Status name shared by every application type, e.g. "APPROVED" (the default)
+    private String status;
+}
@@ -8,7 +8,12 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "activity_logs")
+@Table(name = "activity_logs", indexes = {
+        @Index(name = "idx_logs_ts_id", columnList = "timestamp, id"),
+        @Index(name = "idx_logs_action_ts_id", columnList = "action, timestamp, id"),
+        @Index(name = "idx_logs_user_id_ts_id", columnList = "user_id, timestamp, id"),
+        @Index(name = "idx_logs_user_name_ts_id", columnList = "user_name, timestamp, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -7,6 +7,7 @@ import lombok.AllArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
 @Table(name = "admin_users")
@@ -24,6 +25,11 @@ public class AdminUser {
     @Column(unique = true, nullable = false)
     private String email;
 
+    // canonicalize(email), kept in step on every write; OAuth login looks admins up by this
+    @JsonIgnore
+    @Column(name = "canonical_email", unique = true)
+    private String canonicalEmail;
+
     @JsonIgnore
     private String password; // This field was missing/transient in previous errors
 
@@ -36,6 +42,11 @@ public class AdminUser {
     @Column(name = "is_active")
     private Boolean isActive = true;
 
+    // How "Action Required" emails are delivered to this approver
+    @Enumerated(EnumType.STRING)
+    @Column(name = "notification_digest")
+    private DigestMode notificationDigest = DigestMode.IMMEDIATE;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -46,14 +57,33 @@ public class AdminUser {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        canonicalEmail = canonicalize(email);
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        canonicalEmail = canonicalize(email);
+    }
+
+    /**
+     * Trimmed and lower-cased, with googlemail.com folded into gmail.com (Google treats the
+     * two as the same mailbox and may report either).
+     */
+    public static String canonicalize(String email) {
+        if (email == null) return null;
+        String clean = email.trim().toLowerCase(Locale.ROOT);
+        if (clean.endsWith("@googlemail.com")) {
+            clean = clean.substring(0, clean.length() - "googlemail.com".length()) + "gmail.com";
+        }
+        return clean.isEmpty() ? null : clean;
     }
 
     public enum Role {
         DEAN, ASSISTANT_REGISTRAR, VICE_CHANCELLOR, STUDENT_SERVICE, PREMISES_OFFICER
     }
+
+    public enum DigestMode {
+        IMMEDIATE, HOURLY, DAILY
+    }
 }
\ No newline at end of file
@@ -0,0 +1,138 @@
+package lk.ac.pdn.sms.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "audit_events", indexes = {
+        @Index(name = "idx_audit_entity", columnList = "entity_type, entity_id, created_at"),
+        @Index(name = "idx_audit_action", columnList = "action_code, created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Stored as a SMALLINT code rather than the enum name
+    @Convert(converter = ActionConverter.class)
+    @Column(name = "action_code", nullable = false)
+    private Action action;
+
+    @Convert(converter = EntityTypeConverter.class)
+    @Column(name = "entity_type", nullable = false)
+    private EntityType entityType;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    @Column(name = "actor_name")
+    private String actorName;
+
+    // Changed fields only, as {"field":[old,new],...}
+    @Column(columnDefinition = "TEXT")
+    private String changes;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) createdAt = LocalDateTime.now();
+    }
+
+    // Codes are persisted: never renumber or reuse them, only append
+    public enum Action {
+        REGISTRATION_SUBMITTED(1),
+        REGISTRATION_APPROVED_DEAN(2),
+        REGISTRATION_APPROVED_AR(3),
+        REGISTRATION_APPROVED_VC(4),
+        REGISTRATION_REJECTED(5),
+        RENEWAL_SUBMITTED(10),
+        RENEWAL_APPROVED_DEAN(11),
+        RENEWAL_APPROVED_AR(12),
+        RENEWAL_APPROVED_VC(13),
+        RENEWAL_REJECTED(14),
+        EVENT_SUBMITTED(20),
+        EVENT_APPROVED_DEAN(21),
+        EVENT_APPROVED_PREMISES(22),
+        EVENT_APPROVED_AR(23),
+        EVENT_APPROVED_VC(24),
+        EVENT_REJECTED(25);
+
+        private final short code;
+
+        Action(int code) {
+            this.code = (short) code;
+        }
+
+        public short getCode() {
+            return code;
+        }
+
+        public static Action fromCode(short code) {
+            for (Action action : values()) {
+                if (action.code == code) return action;
+            }
+            throw new IllegalArgumentException("Unknown audit action code: " + code);
+        }
+    }
+
+    public enum EntityType {
+        REGISTRATION(1),
+        RENEWAL(2),
+        EVENT_PERMISSION(3);
+
+        private final byte code;
+
+        EntityType(int code) {
+            this.code = (byte) code;
+        }
+
+        public byte getCode() {
+            return code;
+        }
+
+        public static EntityType fromCode(byte code) {
+            for (EntityType type : values()) {
+                if (type.code == code) return type;
+            }
+            throw new IllegalArgumentException("Unknown audit entity type code: " + code);
+        }
+    }
+
+    @Converter
+    public static class ActionConverter implements AttributeConverter<Action, Short> {
+        @Override
+        public Short convertToDatabaseColumn(Action action) {
+            return action != null ? action.getCode() : null;
+        }
+
+        @Override
+        public Action convertToEntityAttribute(Short code) {
+            return code != null ? Action.fromCode(code) : null;
+        }
+    }
+
+    @Converter
+    public static class EntityTypeConverter implements AttributeConverter<EntityType, Byte> {
+        @Override
+        public Byte convertToDatabaseColumn(EntityType type) {
+            return type != null ? type.getCode() : null;
+        }
+
+        @Override
+        public EntityType convertToEntityAttribute(Byte code) {
+            return code != null ? EntityType.fromCode(code) : null;
+        }
+    }
+}
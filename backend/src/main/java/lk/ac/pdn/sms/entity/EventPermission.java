@@ -1,5 +1,6 @@
 package lk.ac.pdn.sms.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -106,6 +107,13 @@ public class EventPermission {
     @Column(columnDefinition = "TEXT")
     private String rejectionReason;
 
+    // Bumped by Hibernate on every update; the PDF cache uses it as the document version.
+    // Optimistic lock: a concurrent stale write fails.
+    @Version
+    @JsonIgnore
+    @Column(name = "row_version", columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long rowVersion;
+
     @PrePersist
     protected void onCreate() {
         submittedDate = LocalDateTime.now();
@@ -0,0 +1,60 @@
+package lk.ac.pdn.sms.entity;
+
+/**
+ * Normalized forms of officials' registration numbers and emails, as stored in Society's
+ * *_reg_no_key / *_email_key columns and used for lookups. Both scan the input once without
+ * regex; values that are already normalized are returned as-is, so the common case
+ * allocates nothing. Blank input gives null.
+ */
+public final class OfficialKeys {
+
+    private OfficialKeys() {
+    }
+
+    /** Upper case with whitespace and '/' removed: "s/20/001" and "S20 001" give "S20001". */
+    public static String regNo(String regNo) {
+        if (regNo == null) return null;
+        int length = regNo.length();
+        int i = 0;
+        while (i < length) {
+            char c = regNo.charAt(i);
+            if (isDropped(c) || Character.toUpperCase(c) != c) break;
+            i++;
+        }
+        if (i == length) return length == 0 ? null : regNo;
+
+        char[] out = new char[length];
+        regNo.getChars(0, i, out, 0);
+        int n = i;
+        for (; i < length; i++) {
+            char c = regNo.charAt(i);
+            if (!isDropped(c)) out[n++] = Character.toUpperCase(c);
+        }
+        return n == 0 ? null : new String(out, 0, n);
+    }
+
+    /** Trimmed and lower-cased. */
+    public static String email(String email) {
+        if (email == null) return null;
+        int start = 0;
+        int end = email.length();
+        while (start < end && email.charAt(start) <= ' ') start++;
+        while (end > start && email.charAt(end - 1) <= ' ') end--;
+        if (start == end) return null;
+
+        int i = start;
+        while (i < end && Character.toLowerCase(email.charAt(i)) == email.charAt(i)) i++;
+        if (i == end) return start == 0 && end == email.length() ? email : email.substring(start, end);
+
+        char[] out = new char[end - start];
+        for (int j = start; j < end; j++) {
+            out[j - start] = Character.toLowerCase(email.charAt(j));
+        }
+        return new String(out);
+    }
+
+    // '/' and the characters regex \s matches, which the old replaceAll("[\\s/]", "") removed
+    private static boolean isDropped(char c) {
+        return c == '/' || c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
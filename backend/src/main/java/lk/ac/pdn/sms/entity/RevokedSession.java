@@ -0,0 +1,23 @@
+package lk.ac.pdn.sms.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A token session ended by logout or refresh token reuse; kept until its refresh tokens expire
+@Entity
+@Table(name = "revoked_sessions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedSession {
+    @Id
+    @Column(length = 36)
+    private String sid;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
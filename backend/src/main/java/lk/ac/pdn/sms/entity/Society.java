@@ -11,6 +11,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "societies")
 @IdClass(SocietyId.class) // Uses the composite key
+@EntityListeners(SocietyListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -74,6 +75,33 @@ public class Society {
     private String seniorTreasurerName;
     private String seniorTreasurerEmail;
 
+    // Normalized copies of the officials' reg numbers and emails (see OfficialKeys), kept in
+    // step with the columns above on every write, for applicant verification
+    @Column(name = "president_reg_no_key")
+    private String presidentRegNoKey;
+    @Column(name = "president_email_key")
+    private String presidentEmailKey;
+    @Column(name = "vice_president_reg_no_key")
+    private String vicePresidentRegNoKey;
+    @Column(name = "vice_president_email_key")
+    private String vicePresidentEmailKey;
+    @Column(name = "secretary_reg_no_key")
+    private String secretaryRegNoKey;
+    @Column(name = "secretary_email_key")
+    private String secretaryEmailKey;
+    @Column(name = "joint_secretary_reg_no_key")
+    private String jointSecretaryRegNoKey;
+    @Column(name = "joint_secretary_email_key")
+    private String jointSecretaryEmailKey;
+    @Column(name = "junior_treasurer_reg_no_key")
+    private String juniorTreasurerRegNoKey;
+    @Column(name = "junior_treasurer_email_key")
+    private String juniorTreasurerEmailKey;
+    @Column(name = "editor_reg_no_key")
+    private String editorRegNoKey;
+    @Column(name = "editor_email_key")
+    private String editorEmailKey;
+
     private LocalDate registeredDate;
 
     @Column(name = "created_at")
@@ -87,12 +115,30 @@ public class Society {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
         if (this.registeredDate == null) this.registeredDate = LocalDate.now();
+        refreshOfficialKeys();
         // Year must be set by service/controller before saving
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        refreshOfficialKeys();
+    }
+
+    // Managed instances whose keys don't change are not dirtied, so calling this is cheap
+    public void refreshOfficialKeys() {
+        presidentRegNoKey = OfficialKeys.regNo(presidentRegNo);
+        presidentEmailKey = OfficialKeys.email(presidentEmail);
+        vicePresidentRegNoKey = OfficialKeys.regNo(vicePresidentRegNo);
+        vicePresidentEmailKey = OfficialKeys.email(vicePresidentEmail);
+        secretaryRegNoKey = OfficialKeys.regNo(secretaryRegNo);
+        secretaryEmailKey = OfficialKeys.email(secretaryEmail);
+        jointSecretaryRegNoKey = OfficialKeys.regNo(jointSecretaryRegNo);
+        jointSecretaryEmailKey = OfficialKeys.email(jointSecretaryEmail);
+        juniorTreasurerRegNoKey = OfficialKeys.regNo(juniorTreasurerRegNo);
+        juniorTreasurerEmailKey = OfficialKeys.email(juniorTreasurerEmail);
+        editorRegNoKey = OfficialKeys.regNo(editorRegNo);
+        editorEmailKey = OfficialKeys.email(editorEmail);
     }
 
     public enum SocietyStatus {
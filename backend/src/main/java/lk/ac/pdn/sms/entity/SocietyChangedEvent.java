@@ -0,0 +1,24 @@
+package lk.ac.pdn.sms.entity;
+
+/**
+ * Published by SocietyListener whenever a societies row is inserted, updated or deleted, so
+ * services can keep derived state current without the entity depending on them.
+ */
+public class SocietyChangedEvent {
+
+    private final Society society;
+    private final boolean removed;
+
+    public SocietyChangedEvent(Society society, boolean removed) {
+        this.society = society;
+        this.removed = removed;
+    }
+
+    public Society getSociety() {
+        return society;
+    }
+
+    public boolean isRemoved() {
+        return removed;
+    }
+}
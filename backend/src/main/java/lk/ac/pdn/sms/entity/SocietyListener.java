@@ -0,0 +1,31 @@
+package lk.ac.pdn.sms.entity;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA listener on Society that turns writes into SocietyChangedEvents. Hibernate creates it
+ * through Spring, which supplies the publisher. Listeners that must only see committed
+ * changes use @TransactionalEventListener.
+ */
+public class SocietyListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    public SocietyListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Society society) {
+        publisher.publishEvent(new SocietyChangedEvent(society, false));
+    }
+
+    @PostRemove
+    public void removed(Society society) {
+        publisher.publishEvent(new SocietyChangedEvent(society, true));
+    }
+}
@@ -1,5 +1,6 @@
 package lk.ac.pdn.sms.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -130,6 +131,13 @@ public class SocietyRegistration {
     @Column(columnDefinition = "TEXT")
     private String vcComment;
 
+    // Bumped by Hibernate on every update (and on changes to the owned member lists); the
+    // PDF cache uses it as the document version. Optimistic lock: a concurrent stale write fails.
+    @Version
+    @JsonIgnore
+    @Column(name = "row_version", columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long rowVersion;
+
     @PrePersist
     protected void onCreate() {
         submittedDate = LocalDateTime.now();
@@ -1,5 +1,6 @@
 package lk.ac.pdn.sms.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -114,6 +115,13 @@ public class SocietyRenewal {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Bumped by Hibernate on every update; the PDF cache uses it as the document version.
+    // Optimistic lock: a concurrent stale write fails.
+    @Version
+    @JsonIgnore
+    @Column(name = "row_version", columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long rowVersion;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
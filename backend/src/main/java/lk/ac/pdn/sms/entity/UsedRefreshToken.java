@@ -0,0 +1,26 @@
+package lk.ac.pdn.sms.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A refresh token that has been exchanged once; presenting it again is a reuse
+@Entity
+@Table(name = "used_refresh_tokens")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsedRefreshToken {
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(length = 36, nullable = false)
+    private String sid;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -4,16 +4,42 @@ import lk.ac.pdn.sms.entity.ActivityLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface ActivityLogRepository extends JpaRepository<ActivityLog, Long> {
     
-    Page<ActivityLog> findByUserNameContaining(String userName, Pageable pageable);
+    // Exact matches only: a leading-wildcard LIKE cannot use the activity_logs indexes
+    Page<ActivityLog> findByUserName(String userName, Pageable pageable);
     
-    Page<ActivityLog> findByActionContaining(String action, Pageable pageable);
+    Page<ActivityLog> findByAction(String action, Pageable pageable);
     
-    Page<ActivityLog> findByUserNameContainingAndActionContaining(String userName, String action, Pageable pageable);
+    Page<ActivityLog> findByUserNameAndAction(String userName, String action, Pageable pageable);
     
     Page<ActivityLog> findByUserId(Long userId, Pageable pageable);
-}
\ No newline at end of file
+
+    List<ActivityLog> findTop500ByOrderByTimestampDescIdDesc();
+
+    // Keyset page over (timestamp, id) descending: rows strictly older than the
+    // (beforeTs, beforeId) cursor and no older than :from. Filters are exact matches
+    // so the composite indexes on activity_logs can serve them.
+    @Query("SELECT l FROM ActivityLog l WHERE " +
+            "(:action IS NULL OR l.action = :action) AND " +
+            "(:userId IS NULL OR l.userId = :userId) AND " +
+            "(:userName IS NULL OR l.userName = :userName) AND " +
+            "l.timestamp >= :from AND " +
+            "(l.timestamp < :beforeTs OR (l.timestamp = :beforeTs AND l.id < :beforeId)) " +
+            "ORDER BY l.timestamp DESC, l.id DESC")
+    List<ActivityLog> searchPage(@Param("action") String action,
+                                 @Param("userId") Long userId,
+                                 @Param("userName") String userName,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("beforeTs") LocalDateTime beforeTs,
+                                 @Param("beforeId") Long beforeId,
+                                 Pageable pageable);
+}
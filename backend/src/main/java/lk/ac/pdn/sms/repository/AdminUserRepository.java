@@ -11,6 +11,13 @@ import java.util.Optional;
 public interface AdminUserRepository extends JpaRepository<AdminUser, Long> {
     
     Optional<AdminUser> findByEmail(String email);
+
+    Optional<AdminUser> findFirstByEmailIgnoreCase(String email);
+
+    // Login lookup: pass AdminUser.canonicalize(email); unique index on canonical_email
+    Optional<AdminUser> findByCanonicalEmail(String canonicalEmail);
+
+    boolean existsByCanonicalEmail(String canonicalEmail);
     
     List<AdminUser> findByRole(AdminUser.Role role);
     
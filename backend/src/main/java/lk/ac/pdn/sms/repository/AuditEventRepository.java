@@ -0,0 +1,13 @@
+package lk.ac.pdn.sms.repository;
+
+import lk.ac.pdn.sms.entity.AuditEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AuditEventRepository extends JpaRepository<AuditEvent, Long> {
+
+    List<AuditEvent> findByEntityTypeAndEntityIdOrderByCreatedAtAscIdAsc(AuditEvent.EntityType entityType, Long entityId);
+}
@@ -29,4 +29,9 @@ public interface EventPermissionRepository extends JpaRepository<EventPermission
 
     // Added Missing Count Method
     long countByStatus(EventPermission.EventStatus status);
-}
\ No newline at end of file
+
+    @Query("SELECT e.id FROM EventPermission e WHERE e.status = :status "
+            + "AND (:year IS NULL OR EXTRACT(YEAR FROM e.eventDate) = :year) ORDER BY e.id")
+    List<Long> findIdsByStatusAndYear(@Param("status") EventPermission.EventStatus status,
+                                      @Param("year") Integer year);
+}
@@ -0,0 +1,45 @@
+package lk.ac.pdn.sms.repository;
+
+import lk.ac.pdn.sms.entity.AdminUser;
+import lk.ac.pdn.sms.entity.PendingNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PendingNotificationRepository extends JpaRepository<PendingNotification, Long> {
+
+    List<PendingNotification> findByDigestModeOrderByRecipientEmailAscCreatedAtAsc(AdminUser.DigestMode digestMode);
+
+    long countByDigestMode(AdminUser.DigestMode digestMode);
+
+    /**
+     * Claims every unclaimed item of the mode created before {@code cutoff}, and items whose
+     * claim is older than {@code staleBefore} (a run that died mid-way). A single UPDATE, so
+     * two nodes running the same digest never claim the same row.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PendingNotification p SET p.claimedBy = :token, p.claimedAt = :now " +
+            "WHERE p.digestMode = :mode AND p.createdAt < :cutoff " +
+            "AND (p.claimedBy IS NULL OR p.claimedAt < :staleBefore)")
+    int claim(@Param("mode") AdminUser.DigestMode mode,
+              @Param("cutoff") LocalDateTime cutoff,
+              @Param("token") String token,
+              @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    List<PendingNotification> findByClaimedByOrderByRecipientEmailAscCreatedAtAsc(String claimedBy);
+
+    // Hands items back to the next run after a failed send
+    @Modifying
+    @Transactional
+    @Query("UPDATE PendingNotification p SET p.claimedBy = NULL, p.claimedAt = NULL WHERE p.claimedBy = :token AND p.id IN :ids")
+    int release(@Param("token") String token, @Param("ids") List<Long> ids);
+}
@@ -0,0 +1,26 @@
+package lk.ac.pdn.sms.repository;
+
+import lk.ac.pdn.sms.entity.RevokedSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RevokedSessionRepository extends JpaRepository<RevokedSession, String> {
+
+    // Revoking an already revoked session is a no-op; its row already outlives the session's tokens
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO revoked_sessions (sid, expires_at) VALUES (:sid, :expiresAt)", nativeQuery = true)
+    int revoke(@Param("sid") String sid, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedSession r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -29,4 +29,9 @@ public interface SocietyRegistrationRepository extends JpaRepository<SocietyRegi
     // Added missing method
     Optional<SocietyRegistration> findTopBySocietyNameAndStatusOrderByApprovedDateDesc(
             String societyName, SocietyRegistration.ApprovalStage status);
-}
\ No newline at end of file
+
+    // Ids only, for bulk PDF packets; a null year means every year
+    @Query("SELECT r.id FROM SocietyRegistration r WHERE r.status = :status AND (:year IS NULL OR r.year = :year) ORDER BY r.id")
+    List<Long> findIdsByStatusAndYear(@Param("status") SocietyRegistration.ApprovalStage status,
+                                      @Param("year") Integer year);
+}
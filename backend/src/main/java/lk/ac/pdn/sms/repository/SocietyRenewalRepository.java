@@ -31,4 +31,8 @@ public interface SocietyRenewalRepository extends JpaRepository<SocietyRenewal,
 
     Optional<SocietyRenewal> findTopBySocietyNameAndStatusOrderByApprovedDateDesc(
             String societyName, SocietyRenewal.RenewalStatus status);
-}
\ No newline at end of file
+
+    @Query("SELECT r.id FROM SocietyRenewal r WHERE r.status = :status AND (:year IS NULL OR r.renewalYear = :year) ORDER BY r.id")
+    List<Long> findIdsByStatusAndYear(@Param("status") SocietyRenewal.RenewalStatus status,
+                                      @Param("year") Integer year);
+}
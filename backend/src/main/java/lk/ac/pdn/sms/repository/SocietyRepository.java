@@ -37,4 +37,19 @@ public interface SocietyRepository extends JpaRepository<Society, SocietyId> {
                          @Param("status") Society.SocietyStatus status,
                          @Param("year") Integer year,
                          Pageable pageable);
-}
\ No newline at end of file
+
+    // Applicant verification against the society's latest record, on the normalized *_key columns.
+    // position is lower case: president, vice president, secretary, joint secretary, junior treasurer, editor
+    @Query("SELECT COUNT(s) > 0 FROM Society s WHERE s.societyName = :societyName " +
+            "AND s.year = (SELECT MAX(s2.year) FROM Society s2 WHERE s2.societyName = :societyName) AND (" +
+            "(:position = 'president' AND s.presidentRegNoKey = :regNoKey AND s.presidentEmailKey = :emailKey) OR " +
+            "(:position = 'vice president' AND s.vicePresidentRegNoKey = :regNoKey AND s.vicePresidentEmailKey = :emailKey) OR " +
+            "(:position = 'secretary' AND s.secretaryRegNoKey = :regNoKey AND s.secretaryEmailKey = :emailKey) OR " +
+            "(:position = 'joint secretary' AND s.jointSecretaryRegNoKey = :regNoKey AND s.jointSecretaryEmailKey = :emailKey) OR " +
+            "(:position = 'junior treasurer' AND s.juniorTreasurerRegNoKey = :regNoKey AND s.juniorTreasurerEmailKey = :emailKey) OR " +
+            "(:position = 'editor' AND s.editorRegNoKey = :regNoKey AND s.editorEmailKey = :emailKey))")
+    boolean isOfficial(@Param("societyName") String societyName,
+                       @Param("position") String position,
+                       @Param("regNoKey") String regNoKey,
+                       @Param("emailKey") String emailKey);
+}
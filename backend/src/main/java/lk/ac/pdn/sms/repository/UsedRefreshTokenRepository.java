@@ -0,0 +1,30 @@
+package lk.ac.pdn.sms.repository;
+
+import lk.ac.pdn.sms.entity.UsedRefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface UsedRefreshTokenRepository extends JpaRepository<UsedRefreshToken, String> {
+
+    /**
+     * Records the token as used. Returns 0 if it already was, on any node: the primary key
+     * makes the first exchange win even when two instances see the same token at once.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO used_refresh_tokens (jti, sid, expires_at) VALUES (:jti, :sid, :expiresAt)",
+            nativeQuery = true)
+    int markUsed(@Param("jti") String jti, @Param("sid") String sid, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UsedRefreshToken u WHERE u.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
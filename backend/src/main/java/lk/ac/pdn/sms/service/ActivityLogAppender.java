@@ -0,0 +1,193 @@
+package lk.ac.pdn.sms.service;
+
+import jakarta.annotation.PreDestroy;
+import lk.ac.pdn.sms.config.AsyncConfig;
+import lk.ac.pdn.sms.entity.AdminUser;
+import lk.ac.pdn.sms.repository.AdminUserRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Takes activity log entries off the request path. Entries go into a bounded in-memory
+ * buffer and a background flusher writes them to activity_logs as multi-row inserts.
+ * User ids are resolved from a cached email -> id map instead of one query per entry.
+ *
+ * When the buffer is full the overflow policy decides what happens: DROP discards the
+ * entry (counted in the stats), SYNC writes it immediately on the caller's thread.
+ */
+@Service
+public class ActivityLogAppender {
+
+    public enum OverflowPolicy { DROP, SYNC }
+
+    private static final long USER_CACHE_TTL_MILLIS = 5 * 60 * 1000L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AdminUserRepository adminUserRepository;
+    private final AsyncTaskExecutor loggingExecutor;
+    private final BlockingQueue<Entry> buffer;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong syncWrites = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile Map<String, Long> userIdsByEmail = Map.of();
+    private volatile long userIdsLoadedAt;
+
+    public ActivityLogAppender(JdbcTemplate jdbcTemplate,
+                               AdminUserRepository adminUserRepository,
+                               @Qualifier(AsyncConfig.LOGGING_EXECUTOR) AsyncTaskExecutor loggingExecutor,
+                               @Value("${app.activity-log.buffer-size:10000}") int bufferSize,
+                               @Value("${app.activity-log.batch-size:200}") int batchSize,
+                               @Value("${app.activity-log.overflow:SYNC}") OverflowPolicy overflowPolicy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.adminUserRepository = adminUserRepository;
+        this.loggingExecutor = loggingExecutor;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Buffers an entry. If {@code resolveUserId} is set and {@code userId} is null, the id
+     * is looked up from {@code userName} (an admin email) when the entry is flushed.
+     */
+    public void append(Long userId, String userName, String action, String target, boolean resolveUserId) {
+        Entry entry = new Entry(userId, userName, action, target, LocalDateTime.now(), resolveUserId);
+        appended.incrementAndGet();
+        if (buffer.offer(entry)) return;
+
+        if (overflowPolicy == OverflowPolicy.SYNC) {
+            syncWrites.incrementAndGet();
+            write(List.of(entry));
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    // Forces the email -> id cache to reload on the next flush (e.g. after a new admin is added)
+    public void invalidateUserCache() {
+        userIdsLoadedAt = 0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.activity-log.flush-interval-ms:500}")
+    public void scheduleFlush() {
+        if (buffer.isEmpty() || !flushing.compareAndSet(false, true)) return;
+        loggingExecutor.execute(() -> {
+            try {
+                drain();
+            } finally {
+                flushing.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        drain();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("overflowPolicy", overflowPolicy);
+        stats.put("bufferDepth", buffer.size());
+        stats.put("bufferRemainingCapacity", buffer.remainingCapacity());
+        stats.put("appended", appended.get());
+        stats.put("written", written.get());
+        stats.put("dropped", dropped.get());
+        stats.put("syncWrites", syncWrites.get());
+        stats.put("failed", failed.get());
+        return stats;
+    }
+
+    private synchronized void drain() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    // One INSERT ... VALUES (...), (...) statement per batch
+    private void write(List<Entry> batch) {
+        Map<String, Long> userIds = userIds();
+        StringBuilder sql = new StringBuilder("INSERT INTO activity_logs (user_id, user_name, action, target, timestamp) VALUES ");
+        Object[] args = new Object[batch.size() * 5];
+        int i = 0;
+        for (Entry entry : batch) {
+            if (i > 0) sql.append(", ");
+            sql.append("(?, ?, ?, ?, ?)");
+            Long userId = entry.userId;
+            if (userId == null && entry.resolveUserId && entry.userName != null) {
+                userId = userIds.get(entry.userName.trim().toLowerCase());
+            }
+            args[i++] = userId;
+            args[i++] = entry.userName;
+            args[i++] = entry.action;
+            args[i++] = entry.target;
+            args[i++] = Timestamp.valueOf(entry.timestamp);
+        }
+
+        try {
+            jdbcTemplate.update(sql.toString(), args);
+            written.addAndGet(batch.size());
+        } catch (Exception e) {
+            failed.addAndGet(batch.size());
+            System.err.println("Failed to write " + batch.size() + " activity log entries: " + e.getMessage());
+        }
+    }
+
+    private Map<String, Long> userIds() {
+        if (System.currentTimeMillis() - userIdsLoadedAt > USER_CACHE_TTL_MILLIS) {
+            Map<String, Long> ids = new HashMap<>();
+            for (AdminUser user : adminUserRepository.findAll()) {
+                if (user.getEmail() != null) {
+                    ids.put(user.getEmail().trim().toLowerCase(), user.getId());
+                }
+            }
+            userIdsByEmail = ids;
+            userIdsLoadedAt = System.currentTimeMillis();
+        }
+        return userIdsByEmail;
+    }
+
+    private static final class Entry {
+        private final Long userId;
+        private final String userName;
+        private final String action;
+        private final String target;
+        private final LocalDateTime timestamp;
+        private final boolean resolveUserId;
+
+        private Entry(Long userId, String userName, String action, String target,
+                      LocalDateTime timestamp, boolean resolveUserId) {
+            this.userId = userId;
+            this.userName = userName;
+            this.action = action;
+            this.target = target;
+            this.timestamp = timestamp;
+            this.resolveUserId = resolveUserId;
+        }
+    }
+}
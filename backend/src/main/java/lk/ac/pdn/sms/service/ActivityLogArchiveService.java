@@ -0,0 +1,774 @@
+package lk.ac.pdn.sms.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lk.ac.pdn.sms.entity.ActivityLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Month-based retention for activity_logs. The table is RANGE partitioned on
+ * TO_DAYS(timestamp) with one partition per month (p_YYYYMM) and a catch-all p_future.
+ * A nightly job splits p_future so the next few months always have their own partition,
+ * and exports partitions older than the retention period to gzipped NDJSON files
+ * (one log entry per line) before dropping them. Installs whose table predates
+ * partitioning are converted by the same job (app.activity-log.auto-partition).
+ *
+ * Archive files are named activity_logs_&lt;from&gt;_&lt;to&gt;.ndjson.gz (to exclusive) so the
+ * read path can pick the files that overlap a query range without opening the others.
+ * Each file is a series of independently gzipped blocks of app.activity-log.archive-block-rows
+ * entries (still one valid gzip stream), and a sidecar .idx file records each block's offset,
+ * time range and the actions and users it contains. A search decodes only the blocks that can
+ * match, newest first, and stops once the page is full; recently decoded blocks are cached.
+ *
+ * With several instances, maintenance runs on one node at a time under a MySQL named lock
+ * (the others skip that night's run), so archive-dir must be storage every node shares.
+ * Each node re-lists the archive directory every app.activity-log.archive-rescan-seconds to
+ * pick up files written by the others.
+ */
+@Service
+public class ActivityLogArchiveService {
+
+    private static final String TABLE = "activity_logs";
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final String ARCHIVE_PREFIX = TABLE + "_";
+    private static final String ARCHIVE_SUFFIX = ".ndjson.gz";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String MAINTENANCE_LOCK = "activity_logs_maintenance";
+    // A block lists the actions / users it contains only while there are at most this many;
+    // beyond that its set is left empty, meaning "may contain anything"
+    private static final int MAX_BLOCK_VALUES = 64;
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    // MySQL TO_DAYS('1970-01-01'); partition bounds are stored as TO_DAYS values
+    private static final long TO_DAYS_EPOCH = 719528L;
+
+    private final JdbcTemplate jdbcTemplate;
+    // Separate template so archive exports stream row by row instead of buffering a whole month
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Path archiveDir;
+    private final int retentionMonths;
+    private final int monthsAhead;
+    private final boolean autoPartition;
+    private final int blockRows;
+    private final long rescanMillis;
+    private final Map<String, List<ActivityLog>> blockCache;
+
+    private volatile List<ArchiveFile> archives = List.of();
+    private volatile long archivesScannedAt;
+
+    public ActivityLogArchiveService(JdbcTemplate jdbcTemplate,
+                                     DataSource dataSource,
+                                     ObjectMapper objectMapper,
+                                     @Value("${app.activity-log.archive-dir:archives/activity-logs}") String archiveDir,
+                                     @Value("${app.activity-log.retention-months:12}") int retentionMonths,
+                                     @Value("${app.activity-log.partitions-ahead:3}") int monthsAhead,
+                                     @Value("${app.activity-log.auto-partition:true}") boolean autoPartition,
+                                     @Value("${app.activity-log.archive-block-rows:5000}") int blockRows,
+                                     @Value("${app.activity-log.archive-block-cache:8}") int blockCacheSize,
+                                     @Value("${app.activity-log.archive-rescan-seconds:300}") long rescanSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        // MySQL Connector/J only streams result sets when the fetch size is Integer.MIN_VALUE
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.objectMapper = objectMapper;
+        this.archiveDir = Paths.get(archiveDir);
+        this.retentionMonths = Math.max(1, retentionMonths);
+        this.monthsAhead = Math.max(1, monthsAhead);
+        this.autoPartition = autoPartition;
+        this.blockRows = Math.max(100, blockRows);
+        this.rescanMillis = Math.max(1, rescanSeconds) * 1000;
+        int cacheSize = Math.max(0, blockCacheSize);
+        this.blockCache = Collections.synchronizedMap(new LinkedHashMap<String, List<ActivityLog>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<ActivityLog>> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        rescanArchives();
+    }
+
+    // Fresh installs start with p_future only; give the current and next months their own
+    // partitions right away rather than at the first nightly run. Cheap while p_future is small.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void createPartitionsAtStartup() {
+        try {
+            withMaintenanceLock(() -> {
+                List<Partition> partitions = loadPartitions();
+                if (!partitions.isEmpty()) createPartitionsAhead(partitions);
+            });
+        } catch (Exception e) {
+            System.err.println("Could not create activity_logs partitions at startup: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.activity-log.partition-cron:0 30 2 * * *}")
+    public synchronized void maintainPartitions() {
+        try {
+            boolean ran = withMaintenanceLock(() -> {
+                // Another node may have archived since this one last listed the directory
+                rescanArchives();
+                List<Partition> partitions = loadPartitions();
+                if (partitions.isEmpty()) {
+                    if (!autoPartition) {
+                        System.err.println("activity_logs is not partitioned; skipping partition maintenance");
+                        return;
+                    }
+                    partitionTable();
+                    partitions = loadPartitions();
+                    if (partitions.isEmpty()) return;
+                }
+                createPartitionsAhead(partitions);
+                archiveExpiredPartitions(loadPartitions());
+                indexLegacyArchives();
+            });
+            if (!ran) System.out.println("Activity log maintenance is running on another node; skipped here");
+        } catch (Exception e) {
+            System.err.println("Activity log partition maintenance failed: " + e.getMessage());
+        }
+    }
+
+    /** Oldest timestamp still held in the database; anything earlier is only in the archives. */
+    public LocalDateTime getArchivedBefore() {
+        LocalDate upper = null;
+        for (ArchiveFile archive : currentArchives()) {
+            if (upper == null || archive.to.isAfter(upper)) upper = archive.to;
+        }
+        return upper != null ? upper.atStartOfDay() : null;
+    }
+
+    /**
+     * Reads archived entries with {@code from <= timestamp} that sort strictly before the
+     * (beforeTs, beforeId) cursor, newest first, up to {@code limit} rows. Filters match exactly,
+     * as in the live audit search.
+     */
+    public List<ActivityLog> searchArchives(String action, Long userId, String userName,
+                                            LocalDateTime from, LocalDateTime beforeTs, long beforeId, int limit) {
+        Comparator<ActivityLog> newestFirst = Comparator.comparing(ActivityLog::getTimestamp)
+                .thenComparing(ActivityLog::getId).reversed();
+        List<ActivityLog> result = new ArrayList<>();
+
+        List<ArchiveFile> candidates = new ArrayList<>(currentArchives());
+        candidates.sort(Comparator.comparing((ArchiveFile a) -> a.to).reversed());
+        for (ArchiveFile archive : candidates) {
+            if (result.size() >= limit) break;
+            if (!archive.to.atStartOfDay().isAfter(from) || archive.from.atStartOfDay().isAfter(beforeTs)) {
+                continue;
+            }
+            if (archive.blocks != null) {
+                searchBlocks(archive, action, userId, userName, from, beforeTs, beforeId, limit, result);
+                continue;
+            }
+
+            // Not yet indexed (written before block archives): scan the whole file, keeping the
+            // newest `needed` matches. Files never overlap, so once a newer file has filled the
+            // page, older ones are not opened
+            int needed = limit - result.size();
+            PriorityQueue<ActivityLog> top = new PriorityQueue<>(needed + 1, newestFirst.reversed());
+            readArchive(archive.path, log -> {
+                if (!matches(log, action, userId, userName, from, beforeTs, beforeId)) return;
+                top.offer(log);
+                if (top.size() > needed) top.poll();
+            });
+            List<ActivityLog> fromFile = new ArrayList<>(top);
+            fromFile.sort(newestFirst);
+            result.addAll(fromFile);
+        }
+        return result;
+    }
+
+    // Blocks are in ascending (timestamp, id) order and never overlap, so walking them
+    // backwards and each block's rows backwards yields the newest-first order directly
+    private void searchBlocks(ArchiveFile archive, String action, Long userId, String userName,
+                              LocalDateTime from, LocalDateTime beforeTs, long beforeId,
+                              int limit, List<ActivityLog> result) {
+        for (int b = archive.blocks.size() - 1; b >= 0 && result.size() < limit; b--) {
+            Block block = archive.blocks.get(b);
+            if (block.minTs.isAfter(beforeTs) || !block.mayContain(action, userId, userName)) continue;
+            if (block.maxTs.isBefore(from)) break;
+
+            List<ActivityLog> rows = readBlock(archive, block);
+            for (int i = rows.size() - 1; i >= 0 && result.size() < limit; i--) {
+                ActivityLog log = rows.get(i);
+                if (matches(log, action, userId, userName, from, beforeTs, beforeId)) result.add(log);
+            }
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("retentionMonths", retentionMonths);
+        status.put("partitionsAhead", monthsAhead);
+        status.put("archiveDir", archiveDir.toAbsolutePath().toString());
+        List<String> names = new ArrayList<>();
+        for (Partition partition : loadPartitions()) {
+            names.add(partition.name);
+        }
+        status.put("partitions", names);
+        List<String> files = new ArrayList<>();
+        for (ArchiveFile archive : currentArchives()) {
+            files.add(archive.path.getFileName().toString());
+        }
+        status.put("archives", files);
+        status.put("cachedBlocks", blockCache.size());
+        status.put("archivedBefore", getArchivedBefore());
+        return status;
+    }
+
+    // --- Partition management ---
+
+    private void createPartitionsAhead(List<Partition> partitions) {
+        LocalDate highest = null;
+        for (Partition partition : partitions) {
+            if (partition.upperBound != null && (highest == null || partition.upperBound.isAfter(highest))) {
+                highest = partition.upperBound;
+            }
+        }
+
+        YearMonth next = highest != null ? YearMonth.from(highest) : YearMonth.now();
+        YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+        StringBuilder split = new StringBuilder();
+        for (YearMonth month = next; !month.isAfter(last); month = month.plusMonths(1)) {
+            split.append("PARTITION ").append(partitionName(month))
+                    .append(" VALUES LESS THAN (TO_DAYS('").append(month.plusMonths(1).atDay(1)).append("')), ");
+        }
+        if (split.length() == 0) return;
+
+        // p_future is normally empty, so reorganizing it only rewrites the partition definitions
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO ("
+                + split + "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN MAXVALUE)");
+    }
+
+    private void archiveExpiredPartitions(List<Partition> partitions) throws IOException {
+        LocalDate cutoff = YearMonth.now().minusMonths(retentionMonths).atDay(1);
+        // Each archive starts where the previous one ended, so archive ranges never overlap
+        LocalDateTime archivedBefore = getArchivedBefore();
+        LocalDate lower = archivedBefore != null ? archivedBefore.toLocalDate() : LocalDate.of(1970, 1, 1);
+        for (Partition partition : partitions) {
+            if (partition.upperBound == null) break;
+            if (partition.upperBound.isAfter(cutoff)) break;
+            archivePartition(partition, lower);
+            lower = partition.upperBound;
+        }
+    }
+
+    private void archivePartition(Partition partition, LocalDate lower) throws IOException {
+        Files.createDirectories(archiveDir);
+        Path target = archiveDir.resolve(ARCHIVE_PREFIX + lower + "_" + partition.upperBound + ARCHIVE_SUFFIX);
+        Path tmp = archiveDir.resolve(target.getFileName() + ".tmp");
+
+        BlockWriter out = new BlockWriter(tmp);
+        try (out) {
+            streamingJdbcTemplate.query(
+                    "SELECT id, user_id, user_name, action, target, timestamp FROM " + TABLE
+                            + " PARTITION (" + partition.name + ") ORDER BY timestamp, id",
+                    rs -> {
+                        ActivityLog log = new ActivityLog();
+                        log.setId(rs.getLong("id"));
+                        log.setUserId(rs.getObject("user_id") != null ? rs.getLong("user_id") : null);
+                        log.setUserName(rs.getString("user_name"));
+                        log.setAction(rs.getString("action"));
+                        log.setTarget(rs.getString("target"));
+                        Timestamp ts = rs.getTimestamp("timestamp");
+                        log.setTimestamp(ts != null ? ts.toLocalDateTime() : null);
+                        try {
+                            out.write(log);
+                        } catch (IOException e) {
+                            throw new RuntimeException("Failed to write activity log archive " + tmp, e);
+                        }
+                    });
+        }
+        long exported = out.rows;
+
+        Long expected = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + TABLE + " PARTITION (" + partition.name + ")", Long.class);
+        if (expected == null || expected != exported) {
+            Files.deleteIfExists(tmp);
+            throw new RuntimeException("Archive of " + partition.name + " wrote " + exported
+                    + " rows but the partition holds " + expected + "; partition kept");
+        }
+
+        install(tmp, target, out.blocks);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + partition.name);
+rescanArchives();
+        System.out.println("Archived " + exported + " activity log entries from " + partition.name + " to " + target);
+    }
+
+    /**
+     * Runs the task while this node holds the maintenance lock, a MySQL named lock, so only one
+     * node creates, archives or drops partitions at a time. Returns false without running it
+     * when another node holds the lock. The lock lives on a connection kept for the duration;
+     * the task itself uses the pool as usual.
+     */
+    private boolean withMaintenanceLock(MaintenanceTask task) {
+        Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!queryBoolean(connection, "SELECT GET_LOCK('" + MAINTENANCE_LOCK + "', 0)")) return false;
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e.getMessage(), e);
+            } finally {
+                try (Statement st = connection.createStatement()) {
+                    st.execute("DO RELEASE_LOCK('" + MAINTENANCE_LOCK + "')");
+                }
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+
+    private interface MaintenanceTask {
+        void run() throws Exception;
+    }
+
+    /**
+     * Converts an unpartitioned activity_logs (installs created before partitioning) in one
+     * ALTER: the primary key gains timestamp, as MySQL requires, foreign keys are dropped
+     * (partitioned InnoDB tables cannot have them), and every month from the oldest entry
+     * to partitions-ahead gets its own partition. This rebuilds the table, which is why it
+     * runs from the nightly job, under the maintenance lock.
+     */
+    private void partitionTable() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (queryBoolean(connection, "SELECT COUNT(*) FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() "
+                    + "AND TABLE_NAME = '" + TABLE + "' AND PARTITION_NAME IS NOT NULL")) {
+                return null;
+            }
+            if (queryBoolean(connection, "SELECT COUNT(*) FROM " + TABLE + " WHERE timestamp IS NULL")) {
+                System.err.println("activity_logs has entries without a timestamp; fix them before it can be partitioned");
+                return null;
+            }
+
+            StringBuilder alter = new StringBuilder("ALTER TABLE ").append(TABLE);
+            List<String> foreignKeys = new ArrayList<>();
+            try (Statement st = connection.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT CONSTRAINT_NAME FROM information_schema.TABLE_CONSTRAINTS "
+                         + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '" + TABLE + "' AND CONSTRAINT_TYPE = 'FOREIGN KEY'")) {
+                while (rs.next()) foreignKeys.add(rs.getString(1));
+            }
+            for (String foreignKey : foreignKeys) {
+                alter.append(" DROP FOREIGN KEY `").append(foreignKey).append("`,");
+            }
+            alter.append(" MODIFY timestamp DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,")
+                    .append(" DROP PRIMARY KEY, ADD PRIMARY KEY (id, timestamp)")
+                    .append(" PARTITION BY RANGE (TO_DAYS(timestamp)) (");
+
+            YearMonth first = YearMonth.now();
+            try (Statement st = connection.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT MIN(timestamp) FROM " + TABLE)) {
+                Timestamp oldest = rs.next() ? rs.getTimestamp(1) : null;
+                if (oldest != null) first = YearMonth.from(oldest.toLocalDateTime());
+            }
+            YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+            for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+                alter.append("PARTITION ").append(partitionName(month))
+                        .append(" VALUES LESS THAN (TO_DAYS('").append(month.plusMonths(1).atDay(1)).append("')), ");
+            }
+            alter.append("PARTITION ").append(FUTURE_PARTITION).append(" VALUES LESS THAN MAXVALUE)");
+
+            System.out.println("Partitioning activity_logs by month from " + first + "; this rebuilds the table");
+            try (Statement st = connection.createStatement()) {
+                st.execute(alter.toString());
+            }
+            System.out.println("activity_logs partitioned");
+            return null;
+        });
+    }
+
+    // True when the first column of the first row is a non-zero number
+    private static boolean queryBoolean(Connection connection, String sql) throws SQLException {
+        try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() && rs.getLong(1) != 0;
+        }
+    }
+
+    private List<Partition> loadPartitions() {
+        return jdbcTemplate.query(
+                "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                        "ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, rowNum) -> {
+                    String description = rs.getString("PARTITION_DESCRIPTION");
+                    LocalDate upper = description == null || "MAXVALUE".equalsIgnoreCase(description)
+                            ? null
+                            : LocalDate.ofEpochDay(Long.parseLong(description.trim()) - TO_DAYS_EPOCH);
+                    return new Partition(rs.getString("PARTITION_NAME"), upper);
+                },
+                TABLE);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "p" + month.format(PARTITION_MONTH);
+    }
+
+    // --- Archive reading ---
+
+    private void rescanArchives() {
+        archives = scanArchives();
+        archivesScannedAt = System.currentTimeMillis();
+    }
+
+    // Picks up archives written by other nodes into the shared directory
+    private List<ArchiveFile> currentArchives() {
+        if (System.currentTimeMillis() - archivesScannedAt > rescanMillis) rescanArchives();
+        return archives;
+    }
+
+    private List<ArchiveFile> scanArchives() {
+        List<ArchiveFile> found = new ArrayList<>();
+        if (!Files.isDirectory(archiveDir)) return found;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(archiveDir, ARCHIVE_PREFIX + "*" + ARCHIVE_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String[] range = name.substring(ARCHIVE_PREFIX.length(), name.length() - ARCHIVE_SUFFIX.length()).split("_");
+                if (range.length != 2) continue;
+                try {
+                    found.add(new ArchiveFile(file, LocalDate.parse(range[0]), LocalDate.parse(range[1]), readIndex(file)));
+                } catch (Exception e) {
+                    System.err.println("Ignoring unrecognised archive file " + name);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to list activity log archives: " + e.getMessage());
+        }
+        return found;
+    }
+
+    // Rewrites archives from before the block format (a single gzip stream, no index) so
+    // searches stop scanning them whole. Their rows are already in (timestamp, id) order.
+    private void indexLegacyArchives() throws IOException {
+        boolean changed = false;
+        for (ArchiveFile archive : archives) {
+            if (archive.blocks != null) continue;
+            Path tmp = archive.path.resolveSibling(archive.path.getFileName() + ".tmp");
+            BlockWriter out = new BlockWriter(tmp);
+            try (out) {
+                readArchive(archive.path, log -> {
+                    try {
+                        out.write(log);
+                    } catch (IOException e) {
+                        throw new RuntimeException("Failed to write activity log archive " + tmp, e);
+                    }
+                });
+            }
+            install(tmp, archive.path, out.blocks);
+            changed = true;
+            System.out.println("Indexed activity log archive " + archive.path.getFileName() + ": "
+                    + out.blocks.size() + " blocks");
+        }
+        if (changed) {
+            blockCache.clear();
+            rescanArchives();
+        }
+    }
+
+    // The archive is moved into place before its index: an archive without an index is
+    // still readable (and is indexed again), an index beside the wrong file is not
+    private void install(Path tmp, Path target, List<Block> blocks) throws IOException {
+        Path index = indexPath(target);
+        Path indexTmp = index.resolveSibling(index.getFileName() + ".tmp");
+        List<Map<String, Object>> entries = new ArrayList<>(blocks.size());
+        for (Block block : blocks) entries.add(block.toMap());
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("version", 1);
+        content.put("blocks", entries);
+        Files.write(indexTmp, objectMapper.writeValueAsBytes(content));
+
+        Files.deleteIfExists(index);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(indexTmp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Null when the archive has no usable index yet; it is then (re)indexed by the nightly job
+    private List<Block> readIndex(Path archive) {
+        Path index = indexPath(archive);
+        if (!Files.exists(index)) return null;
+        try {
+            List<Block> blocks = new ArrayList<>();
+            for (JsonNode node : objectMapper.readTree(index.toFile()).path("blocks")) {
+                blocks.add(Block.fromNode(node));
+            }
+            return blocks;
+        } catch (Exception e) {
+            System.err.println("Ignoring unreadable archive index " + index.getFileName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Path indexPath(Path archive) {
+        return archive.resolveSibling(archive.getFileName() + INDEX_SUFFIX);
+    }
+
+    private List<ActivityLog> readBlock(ArchiveFile archive, Block block) {
+        String key = archive.path + "@" + block.offset;
+        List<ActivityLog> cached = blockCache.get(key);
+        if (cached != null) return cached;
+
+        byte[] bytes = new byte[block.length];
+        try (FileChannel channel = FileChannel.open(archive.path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, block.offset + buffer.position()) < 0) {
+                    throw new IOException("archive is shorter than its index");
+                }
+            }
+            List<ActivityLog> rows = new ArrayList<>(block.rows);
+            readLines(new GZIPInputStream(new ByteArrayInputStream(bytes)), rows::add);
+            blockCache.put(key, rows);
+            return rows;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read activity log archive " + archive.path, e);
+        }
+    }
+
+    private void readArchive(Path file, Consumer<ActivityLog> consumer) {
+        try {
+            readLines(new GZIPInputStream(Files.newInputStream(file)), consumer);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read activity log archive " + file, e);
+        }
+    }
+
+    private void readLines(InputStream gzipped, Consumer<ActivityLog> consumer) throws IOException {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(gzipped, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                consumer.accept(toLog(objectMapper.readTree(line)));
+            }
+        }
+    }
+
+    private static Map<String, Object> toLine(ActivityLog log) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("id", log.getId());
+        line.put("userId", log.getUserId());
+        line.put("userName", log.getUserName());
+        line.put("action", log.getAction());
+        line.put("target", log.getTarget());
+        line.put("timestamp", log.getTimestamp() != null ? log.getTimestamp().toString() : null);
+        return line;
+    }
+
+    private static ActivityLog toLog(JsonNode node) {
+        ActivityLog log = new ActivityLog();
+        log.setId(node.path("id").asLong());
+        log.setUserId(node.hasNonNull("userId") ? node.get("userId").asLong() : null);
+        log.setUserName(node.hasNonNull("userName") ? node.get("userName").asText() : null);
+        log.setAction(node.hasNonNull("action") ? node.get("action").asText() : null);
+        log.setTarget(node.hasNonNull("target") ? node.get("target").asText() : null);
+        log.setTimestamp(node.hasNonNull("timestamp") ? LocalDateTime.parse(node.get("timestamp").asText()) : null);
+        return log;
+    }
+
+    private static boolean matches(ActivityLog log, String action, Long userId, String userName,
+                                   LocalDateTime from, LocalDateTime beforeTs, long beforeId) {
+        if (log.getTimestamp() == null || log.getTimestamp().isBefore(from)) return false;
+        int cmp = log.getTimestamp().compareTo(beforeTs);
+        if (cmp > 0 || (cmp == 0 && log.getId() >= beforeId)) return false;
+        if (action != null && !action.equals(log.getAction())) return false;
+        if (userId != null && !userId.equals(log.getUserId())) return false;
+        return userName == null || userName.equals(log.getUserName());
+    }
+
+    private static final class Partition {
+        private final String name;
+        // Exclusive upper bound; null for the MAXVALUE partition
+        private final LocalDate upperBound;
+
+        private Partition(String name, LocalDate upperBound) {
+            this.name = name;
+            this.upperBound = upperBound;
+        }
+    }
+
+    private static final class ArchiveFile {
+        private final Path path;
+        private final LocalDate from;
+        private final LocalDate to;
+        // In file order; null until the archive has been indexed
+        private final List<Block> blocks;
+
+        private ArchiveFile(Path path, LocalDate from, LocalDate to, List<Block> blocks) {
+            this.path = path;
+            this.from = from;
+            this.to = to;
+            this.blocks = blocks;
+        }
+    }
+
+    /** One gzip member of an archive. Value sets are null when the block holds too many to list. */
+    private static final class Block {
+        private long offset;
+        private int length;
+        private int rows;
+        private LocalDateTime minTs;
+        private LocalDateTime maxTs;
+        private Set<String> actions = new LinkedHashSet<>();
+        private Set<Long> userIds = new LinkedHashSet<>();
+        private Set<String> userNames = new LinkedHashSet<>();
+
+        private void add(ActivityLog log) {
+            rows++;
+            LocalDateTime ts = log.getTimestamp();
+            if (ts != null) {
+                if (minTs == null || ts.isBefore(minTs)) minTs = ts;
+                if (maxTs == null || ts.isAfter(maxTs)) maxTs = ts;
+            }
+            actions = track(actions, log.getAction());
+            userIds = track(userIds, log.getUserId());
+            userNames = track(userNames, log.getUserName());
+        }
+
+        private boolean mayContain(String action, Long userId, String userName) {
+            return (action == null || actions == null || actions.contains(action))
+                    && (userId == null || userIds == null || userIds.contains(userId))
+                    && (userName == null || userNames == null || userNames.contains(userName));
+        }
+
+        private static <T> Set<T> track(Set<T> values, T value) {
+            if (values == null || value == null) return values;
+            values.add(value);
+            return values.size() > MAX_BLOCK_VALUES ? null : values;
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("offset", offset);
+            map.put("length", length);
+            map.put("rows", rows);
+            map.put("minTs", minTs != null ? minTs.toString() : null);
+            map.put("maxTs", maxTs != null ? maxTs.toString() : null);
+            map.put("actions", actions);
+            map.put("userIds", userIds);
+            map.put("userNames", userNames);
+            return map;
+        }
+
+        private static Block fromNode(JsonNode node) {
+            Block block = new Block();
+            block.offset = node.path("offset").asLong();
+            block.length = node.path("length").asInt();
+            block.rows = node.path("rows").asInt();
+            // A block without timestamps can never match a range; MIN/MAX keep it out of every search
+            block.minTs = node.hasNonNull("minTs") ? LocalDateTime.parse(node.get("minTs").asText()) : LocalDateTime.MAX;
+            block.maxTs = node.hasNonNull("maxTs") ? LocalDateTime.parse(node.get("maxTs").asText()) : LocalDateTime.MIN;
+            block.actions = strings(node.get("actions"));
+            block.userNames = strings(node.get("userNames"));
+            if (node.hasNonNull("userIds")) {
+                block.userIds = new LinkedHashSet<>();
+                for (JsonNode id : node.get("userIds")) block.userIds.add(id.asLong());
+            } else {
+                block.userIds = null;
+            }
+            return block;
+        }
+
+        private static Set<String> strings(JsonNode array) {
+            if (array == null || array.isNull()) return null;
+            Set<String> values = new LinkedHashSet<>();
+            for (JsonNode value : array) values.add(value.asText());
+            return values;
+        }
+    }
+
+    /**
+     * Writes log entries (in timestamp, id order) as a series of gzip members of blockRows
+     * entries each, recording every block's position and contents for the index.
+     */
+    private final class BlockWriter implements Closeable {
+        private final OutputStream file;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final List<Block> blocks = new ArrayList<>();
+        private GZIPOutputStream gzip;
+        private Block current;
+        private long position;
+        private long rows;
+
+        private BlockWriter(Path path) throws IOException {
+            this.file = Files.newOutputStream(path);
+        }
+
+        private void write(ActivityLog log) throws IOException {
+            if (gzip == null) {
+                gzip = new GZIPOutputStream(buffer);
+                current = new Block();
+            }
+            gzip.write(objectMapper.writeValueAsBytes(toLine(log)));
+            gzip.write('\n');
+            current.add(log);
+            rows++;
+            if (current.rows >= blockRows) finishBlock();
+        }
+
+        private void finishBlock() throws IOException {
+            if (gzip == null) return;
+            // Closing a ByteArrayOutputStream is a no-op; this finishes the member and frees the deflater
+            gzip.close();
+            current.offset = position;
+            current.length = buffer.size();
+            buffer.writeTo(file);
+            position += buffer.size();
+            buffer.reset();
+            blocks.add(current);
+            gzip = null;
+            current = null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                finishBlock();
+            } finally {
+                file.close();
+            }
+        }
+    }
+}
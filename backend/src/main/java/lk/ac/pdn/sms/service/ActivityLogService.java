@@ -1,78 +1,147 @@
 package lk.ac.pdn.sms.service;
 
+import lk.ac.pdn.sms.dto.AuditLogPageDto;
 import lk.ac.pdn.sms.entity.ActivityLog;
-import lk.ac.pdn.sms.entity.AdminUser;
 import lk.ac.pdn.sms.repository.ActivityLogRepository;
-import lk.ac.pdn.sms.repository.AdminUserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class ActivityLogService {
 
+    public static final int DEFAULT_AUDIT_PAGE_SIZE = 50;
+    public static final int MAX_AUDIT_PAGE_SIZE = 500;
+    public static final int DEFAULT_AUDIT_WINDOW_DAYS = 30;
+
+    // activity_logs.target is VARCHAR(255)
+    private static final int MAX_TARGET_LENGTH = 255;
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("timestamp"), Sort.Order.desc("id"));
+
     @Autowired
     private ActivityLogRepository activityLogRepository;
 
     @Autowired
-    private AdminUserRepository adminUserRepository;
+    private ActivityLogAppender activityLogAppender;
 
+    @Autowired
+    private ActivityLogArchiveService activityLogArchiveService;
+
+    // Entries are buffered and written in batches by ActivityLogAppender, off the request path
     public void logActivity(String action, String target, String userName) {
         // MODIFIED: Removed + "@pdn.ac.lk" to allow finding users by ANY email (e.g., Gmail)
-        AdminUser user = adminUserRepository.findByEmail(userName).orElse(null);
-
-        ActivityLog log = new ActivityLog();
-        // FIX: Set to null if user not found (instead of 0L)
-        log.setUserId(user != null ? user.getId() : null);
-        log.setUserName(userName);
-        log.setAction(action);
-        log.setTarget(target);
-
-        activityLogRepository.save(log);
+        // The user id is resolved from the appender's email cache when the entry is flushed
+        activityLogAppender.append(null, userName, action, target, true);
     }
 
     public void logActivity(String action, String target, String adminId, String userName) {
-        ActivityLog log = new ActivityLog();
+        Long userId;
         try {
-            log.setUserId(Long.valueOf(adminId));
+            userId = Long.valueOf(adminId);
         } catch (NumberFormatException | NullPointerException e) {
             // FIX: Set to null if ID invalid
-            log.setUserId(null);
+            userId = null;
         }
 
-        log.setUserName(userName);
-        log.setAction(action);
-        log.setTarget(target);
-
-        activityLogRepository.save(log);
+        activityLogAppender.append(userId, userName, action, target, false);
     }
 
     public void logAction(String action, String target, Long userId, String userName, String additionalInfo) {
-        ActivityLog log = new ActivityLog();
-        log.setUserId(userId);
-        log.setUserName(userName);
-        log.setAction(action);
-        log.setTarget(target);
-
-        activityLogRepository.save(log);
+        // Field-level detail goes to AuditTrailService; the free-text log keeps the comment
+        String fullTarget = additionalInfo != null && !additionalInfo.isBlank() ? target + " - " + additionalInfo : target;
+        if (fullTarget != null && fullTarget.length() > MAX_TARGET_LENGTH) {
+            fullTarget = fullTarget.substring(0, MAX_TARGET_LENGTH);
+        }
+        activityLogAppender.append(userId, userName, action, fullTarget, false);
     }
 
-    public List<ActivityLog> getAllLogs() {
-        return activityLogRepository.findAll();
+    // Bounded: activity_logs is partitioned by month and can hold millions of rows
+    public List<ActivityLog> getRecentLogs() {
+        return activityLogRepository.findTop500ByOrderByTimestampDescIdDesc();
     }
 
     public Page<ActivityLog> getActivityLogs(String userFilter, String actionFilter, Pageable pageable) {
-        if (userFilter != null && !userFilter.isEmpty() && actionFilter != null && !actionFilter.isEmpty()) {
-            return activityLogRepository.findByUserNameContainingAndActionContaining(userFilter, actionFilter, pageable);
-        } else if (userFilter != null && !userFilter.isEmpty()) {
-            return activityLogRepository.findByUserNameContaining(userFilter, pageable);
-        } else if (actionFilter != null && !actionFilter.isEmpty()) {
-            return activityLogRepository.findByActionContaining(actionFilter, pageable);
+        String user = blankToNull(userFilter);
+        String action = blankToNull(actionFilter);
+        Pageable newestFirst = pageable.getSort().isSorted()
+                ? pageable
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), NEWEST_FIRST);
+
+        if (user != null && action != null) {
+            return activityLogRepository.findByUserNameAndAction(user, action, newestFirst);
+        } else if (user != null) {
+            return activityLogRepository.findByUserName(user, newestFirst);
+        } else if (action != null) {
+            return activityLogRepository.findByAction(action, newestFirst);
         }
 
-        return activityLogRepository.findAll(pageable);
+        return activityLogRepository.findAll(newestFirst);
+    }
+
+    /**
+     * Audit search over a bounded time range, newest first, paged by (timestamp, id) keyset
+     * instead of OFFSET so every page costs the same regardless of depth. Pass the returned
+     * nextBeforeTimestamp / nextBeforeId back to read the next page. Without a range the last
+     * {@value #DEFAULT_AUDIT_WINDOW_DAYS} days are searched. Ranges reaching past the retention
+     * period continue into the archived months.
+     */
+    public AuditLogPageDto searchAuditLogs(String action, Long userId, String userName,
+                                           LocalDateTime from, LocalDateTime to,
+                                           LocalDateTime beforeTimestamp, Long beforeId, Integer size) {
+        LocalDateTime upper = to != null ? to : LocalDateTime.now().plusSeconds(1);
+        LocalDateTime lower = from != null ? from : upper.minusDays(DEFAULT_AUDIT_WINDOW_DAYS);
+        if (lower.isAfter(upper)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+
+        // The cursor can only move further back than the range's upper bound
+        LocalDateTime beforeTs = upper;
+        long beforeIdValue = 0L;
+        if (beforeTimestamp != null && beforeTimestamp.isBefore(upper)) {
+            beforeTs = beforeTimestamp;
+            beforeIdValue = beforeId != null ? beforeId : Long.MAX_VALUE;
+        } else if (beforeTimestamp != null && beforeTimestamp.isEqual(upper) && beforeId != null) {
+            beforeIdValue = beforeId;
+        }
+
+        int pageSize = size == null ? DEFAULT_AUDIT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_AUDIT_PAGE_SIZE));
+
+        // Read one extra row to know whether another page exists without a COUNT query
+        String actionFilter = blankToNull(action);
+        String userNameFilter = blankToNull(userName);
+        List<ActivityLog> rows = activityLogRepository.searchPage(actionFilter, userId, userNameFilter,
+                lower, beforeTs, beforeIdValue, PageRequest.of(0, pageSize + 1));
+
+        // Months past retention live only in the archive files, and everything there is older
+        // than any row still in the table, so the archives simply continue the same ordering
+        LocalDateTime archivedBefore = activityLogArchiveService.getArchivedBefore();
+        if (rows.size() <= pageSize && archivedBefore != null && lower.isBefore(archivedBefore)) {
+            rows = new ArrayList<>(rows);
+            rows.addAll(activityLogArchiveService.searchArchives(actionFilter, userId, userNameFilter,
+                    lower, beforeTs, beforeIdValue, pageSize + 1 - rows.size()));
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ActivityLog> items = hasMore ? rows.subList(0, pageSize) : rows;
+        ActivityLog last = items.isEmpty() ? null : items.get(items.size() - 1);
+
+        return AuditLogPageDto.builder()
+                .items(items)
+                .hasMore(hasMore)
+                .nextBeforeTimestamp(hasMore ? last.getTimestamp() : null)
+                .nextBeforeId(hasMore ? last.getId() : null)
+                .build();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
     }
-}
\ No newline at end of file
+}
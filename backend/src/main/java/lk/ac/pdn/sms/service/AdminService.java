@@ -1,17 +1,20 @@
 package lk.ac.pdn.sms.service;
 
 import lk.ac.pdn.sms.dto.AdminUserManagementDto;
+import lk.ac.pdn.sms.dto.AuditLogPageDto;
 import lk.ac.pdn.sms.entity.ActivityLog;
 import lk.ac.pdn.sms.entity.AdminUser;
+import lk.ac.pdn.sms.entity.AuditEvent;
 import lk.ac.pdn.sms.entity.Society;
-import lk.ac.pdn.sms.repository.ActivityLogRepository;
 import lk.ac.pdn.sms.repository.AdminUserRepository;
 import lk.ac.pdn.sms.repository.SocietyRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -23,38 +26,39 @@ import java.util.Map;
 public class AdminService {
 
     private final AdminUserRepository adminUserRepository;
-    private final ActivityLogRepository activityLogRepository;
+    private final ActivityLogService activityLogService;
     private final SocietyRepository societyRepository;
     private final EmailService emailService;
+    private final ApproverDirectory approverDirectory;
+    private final EmailTemplateService emailTemplateService;
+    private final ActivityLogAppender activityLogAppender;
+    private final AuditTrailService auditTrailService;
+    private final CurrentAdminService currentAdminService;
 
     @Autowired
     public AdminService(AdminUserRepository adminUserRepository,
-                        ActivityLogRepository activityLogRepository,
+                        ActivityLogService activityLogService,
                         SocietyRepository societyRepository,
-                        EmailService emailService) {
+                        EmailService emailService,
+                        ApproverDirectory approverDirectory,
+                        EmailTemplateService emailTemplateService,
+                        ActivityLogAppender activityLogAppender,
+                        AuditTrailService auditTrailService,
+                        CurrentAdminService currentAdminService) {
         this.adminUserRepository = adminUserRepository;
-        this.activityLogRepository = activityLogRepository;
+        this.activityLogService = activityLogService;
         this.societyRepository = societyRepository;
         this.emailService = emailService;
+        this.approverDirectory = approverDirectory;
+        this.emailTemplateService = emailTemplateService;
+        this.activityLogAppender = activityLogAppender;
+        this.auditTrailService = auditTrailService;
+        this.currentAdminService = currentAdminService;
     }
 
+    // Cached per session and memoized per request; see CurrentAdminService
     public AdminUser getAdminFromAuth(Authentication authentication) {
-        if (authentication == null) return null;
-
-        Object principal = authentication.getPrincipal();
-
-        if (principal instanceof AdminUser) {
-            return (AdminUser) principal;
-        }
-
-        if (principal instanceof DefaultOidcUser) {
-            DefaultOidcUser oidcUser = (DefaultOidcUser) principal;
-            String email = oidcUser.getEmail();
-            return adminUserRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("Admin user not found for email: " + email));
-        }
-
-        throw new RuntimeException("Unknown authentication principal type: " + principal.getClass().getName());
+        return currentAdminService.resolve(authentication);
     }
 
     public Map<String, Object> getDashboardStats(AdminUser admin) {
@@ -71,31 +75,38 @@ public class AdminService {
     }
 
     public Page<ActivityLog> getActivityLogs(String user, String action, Pageable pageable) {
-        if (user != null && !user.isEmpty()) {
-            // FIXED: Use findByUserNameContaining to match your Repository
-            return activityLogRepository.findByUserNameContaining(user, pageable);
-        }
-        return activityLogRepository.findAll(pageable);
+        return activityLogService.getActivityLogs(user, action, pageable);
+    }
+
+    public AuditLogPageDto searchAuditLogs(String action, Long userId, String userEmail,
+                                           LocalDateTime from, LocalDateTime to,
+                                           LocalDateTime beforeTimestamp, Long beforeId, Integer size) {
+        return activityLogService.searchAuditLogs(action, userId, userEmail, from, to, beforeTimestamp, beforeId, size);
+    }
+
+    public List<AuditEvent> getAuditHistory(AuditEvent.EntityType entityType, Long entityId) {
+        return auditTrailService.getHistory(entityType, entityId);
     }
 
     public void sendBulkEmail(String subject, String body, List<String> recipients, String senderName) {
+        // The body is identical for every recipient, so render it once and reuse the result
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("body", body);
+        variables.put("bodyLines", body != null ? List.of(body.split("\\R")) : List.of());
+        variables.put("senderName", senderName);
+        EmailTemplateService.RenderedEmail content = emailTemplateService.render(EmailTemplateService.BULK, variables);
+
         for (String recipient : recipients) {
-            // NOTE: Ensure sendEmail is public in EmailService
-            emailService.sendEmail(recipient, subject, body);
+            emailService.sendEmail(recipient, subject, content);
         }
 
-        ActivityLog log = new ActivityLog();
-        // FIXED: Use setUserName (your entity doesn't have setUser(String))
-        log.setUserName(senderName);
-        log.setAction("BULK_EMAIL_SENT");
-        // FIXED: Use setTarget (your entity doesn't have setDetails)
-        log.setTarget("Sent email '" + subject + "' to " + recipients.size() + " recipients");
-        log.setTimestamp(LocalDateTime.now());
-        activityLogRepository.save(log);
+        activityLogAppender.append(null, senderName, "BULK_EMAIL_SENT",
+                "Sent email '" + subject + "' to " + recipients.size() + " recipients", false);
     }
 
     public AdminUser createAdminUser(AdminUserManagementDto dto) {
-        if (adminUserRepository.existsByEmail(dto.getEmail())) {
+        // Canonical match, so "X@googlemail.com" is refused when "x@gmail.com" exists
+        if (adminUserRepository.existsByCanonicalEmail(AdminUser.canonicalize(dto.getEmail()))) {
             throw new RuntimeException("Email already exists");
         }
 
@@ -106,8 +117,31 @@ public class AdminService {
         newUser.setRole(dto.getRole());
         newUser.setFaculty(dto.getFaculty());
         newUser.setIsActive(true);
+        if (dto.getNotificationDigest() != null) {
+            newUser.setNotificationDigest(dto.getNotificationDigest());
+        }
 
-        return adminUserRepository.save(newUser);
+        AdminUser saved = adminUserRepository.save(newUser);
+        approverDirectory.refresh();
+        currentAdminService.invalidate();
+        activityLogAppender.invalidateUserCache();
+        return saved;
+    }
+
+    // Admins inserted by SQL scripts have no canonical_email until this fills it in
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillCanonicalEmails() {
+        for (AdminUser user : adminUserRepository.findAll()) {
+            String canonical = AdminUser.canonicalize(user.getEmail());
+            if (canonical == null || canonical.equals(user.getCanonicalEmail())) continue;
+            user.setCanonicalEmail(canonical);
+            try {
+                adminUserRepository.save(user);
+            } catch (DataIntegrityViolationException e) {
+                System.err.println("Admin " + user.getEmail() + " has the same canonical email as another admin; "
+                        + "it cannot log in until one of them is changed");
+            }
+        }
     }
 
     public List<AdminUser> getAllAdminUsers() {
@@ -118,6 +152,19 @@ public class AdminService {
         AdminUser user = adminUserRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         user.setIsActive(!user.getIsActive());
-        return adminUserRepository.save(user);
+        AdminUser saved = adminUserRepository.save(user);
+        approverDirectory.refresh();
+        currentAdminService.invalidate();
+        return saved;
+    }
+
+    public AdminUser updateNotificationDigest(AdminUser admin, AdminUser.DigestMode mode) {
+        AdminUser user = adminUserRepository.findById(admin.getId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        user.setNotificationDigest(mode);
+        AdminUser saved = adminUserRepository.save(user);
+        approverDirectory.refresh();
+        currentAdminService.invalidate();
+        return saved;
     }
 }
\ No newline at end of file
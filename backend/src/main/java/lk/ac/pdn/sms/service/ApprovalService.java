@@ -10,6 +10,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,19 +22,25 @@ public class ApprovalService {
     private final SocietyRepository societyRepository;
     private final EmailService emailService;
     private final ActivityLogService activityLogService;
+    private final AuditTrailService auditTrailService;
+    private final PdfDocumentService pdfDocumentService;
 
     public ApprovalService(SocietyRegistrationRepository registrationRepository,
                            SocietyRenewalRepository renewalRepository,
                            EventPermissionRepository eventPermissionRepository,
                            SocietyRepository societyRepository,
                            EmailService emailService,
-                           ActivityLogService activityLogService) {
+                           ActivityLogService activityLogService,
+                           AuditTrailService auditTrailService,
+                           PdfDocumentService pdfDocumentService) {
         this.registrationRepository = registrationRepository;
         this.renewalRepository = renewalRepository;
         this.eventPermissionRepository = eventPermissionRepository;
         this.societyRepository = societyRepository;
         this.emailService = emailService;
         this.activityLogService = activityLogService;
+        this.auditTrailService = auditTrailService;
+        this.pdfDocumentService = pdfDocumentService;
     }
 
     // --- Added Method to Fix Controller Error ---
@@ -115,8 +122,15 @@ public class ApprovalService {
 
     @Transactional
     public void processRegistrationApproval(Long id, ApprovalDto dto) {
+        processRegistrationApproval(id, dto, null);
+    }
+
+    @Transactional
+    public void processRegistrationApproval(Long id, ApprovalDto dto, AdminUser actor) {
         SocietyRegistration reg = registrationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Registration not found"));
+        Map<String, Object> before = auditTrailService.snapshot(reg);
+        AuditEvent.Action auditAction = null;
 
         String adminRole = dto.getApproverRole() != null ? dto.getApproverRole() : "Admin";
 
@@ -124,7 +138,8 @@ public class ApprovalService {
             reg.setStatus(SocietyRegistration.ApprovalStage.REJECTED);
             reg.setRejectionReason(dto.getComment());
             emailService.sendRegistrationStatusUpdate(reg, "REJECTED", adminRole, dto.getComment());
-            activityLogService.logAction("REJECT_REGISTRATION", reg.getSocietyName(), null, adminRole, null);
+            auditAction = AuditEvent.Action.REGISTRATION_REJECTED;
+            activityLogService.logAction("REJECT_REGISTRATION", reg.getSocietyName(), null, adminRole, dto.getComment());
         } else {
             switch (reg.getStatus()) {
                 case PENDING_DEAN:
@@ -134,7 +149,8 @@ public class ApprovalService {
                     reg.setStatus(SocietyRegistration.ApprovalStage.PENDING_AR);
                     emailService.sendRegistrationStatusUpdate(reg, "APPROVED BY DEAN", "Dean", dto.getComment());
                     emailService.notifyAssistantRegistrarForApproval(reg);
-                    activityLogService.logAction("APPROVE_REGISTRATION_DEAN", reg.getSocietyName(), null, "Dean", null);
+                    auditAction = AuditEvent.Action.REGISTRATION_APPROVED_DEAN;
+                    activityLogService.logAction("APPROVE_REGISTRATION_DEAN", reg.getSocietyName(), null, "Dean", dto.getComment());
                     break;
                 case PENDING_AR:
                     reg.setIsArApproved(true);
@@ -143,7 +159,8 @@ public class ApprovalService {
                     reg.setStatus(SocietyRegistration.ApprovalStage.PENDING_VC);
                     emailService.sendRegistrationStatusUpdate(reg, "APPROVED BY ASSISTANT REGISTRAR", "Assistant Registrar", dto.getComment());
                     emailService.notifyViceChancellorForApproval(reg);
-                    activityLogService.logAction("APPROVE_REGISTRATION_AR", reg.getSocietyName(), null, "Assistant Registrar", null);
+                    auditAction = AuditEvent.Action.REGISTRATION_APPROVED_AR;
+                    activityLogService.logAction("APPROVE_REGISTRATION_AR", reg.getSocietyName(), null, "Assistant Registrar", dto.getComment());
                     break;
                 case PENDING_VC:
                     reg.setIsVcApproved(true);
@@ -153,19 +170,32 @@ public class ApprovalService {
                     reg.setApprovedDate(LocalDateTime.now());
                     createSocietyFromRegistration(reg);
                     emailService.sendRegistrationStatusUpdate(reg, "FULLY APPROVED - Society Registered", "Vice Chancellor", dto.getComment());
-                    activityLogService.logAction("APPROVE_REGISTRATION_VC", reg.getSocietyName(), null, "Vice Chancellor", null);
+                    auditAction = AuditEvent.Action.REGISTRATION_APPROVED_VC;
+                    activityLogService.logAction("APPROVE_REGISTRATION_VC", reg.getSocietyName(), null, "Vice Chancellor", dto.getComment());
+                    // Runs after commit, so officials download the letter from the cache
+                    pdfDocumentService.prerenderAfterCommit(PdfCacheService.DocumentType.REGISTRATION, reg.getId());
                     break;
                 default:
                     break;
             }
         }
         registrationRepository.save(reg);
+        if (auditAction != null) {
+            auditTrailService.record(auditAction, AuditEvent.EntityType.REGISTRATION, reg.getId(), actor, adminRole, before, reg);
+        }
     }
 
     @Transactional
     public void processRenewalApproval(Long id, ApprovalDto dto) {
+        processRenewalApproval(id, dto, null);
+    }
+
+    @Transactional
+    public void processRenewalApproval(Long id, ApprovalDto dto, AdminUser actor) {
         SocietyRenewal renewal = renewalRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Renewal not found"));
+        Map<String, Object> before = auditTrailService.snapshot(renewal);
+        AuditEvent.Action auditAction = null;
 
         String adminRole = dto.getApproverRole() != null ? dto.getApproverRole() : "Admin";
 
@@ -173,7 +203,8 @@ public class ApprovalService {
             renewal.setStatus(SocietyRenewal.RenewalStatus.REJECTED);
             renewal.setRejectionReason(dto.getComment());
             emailService.sendRenewalRejectionNotification(renewal);
-            activityLogService.logAction("REJECT_RENEWAL", renewal.getSocietyName(), null, adminRole, null);
+            auditAction = AuditEvent.Action.RENEWAL_REJECTED;
+            activityLogService.logAction("REJECT_RENEWAL", renewal.getSocietyName(), null, adminRole, dto.getComment());
         } else {
             switch (renewal.getStatus()) {
                 case PENDING_DEAN:
@@ -183,7 +214,8 @@ public class ApprovalService {
                     renewal.setStatus(SocietyRenewal.RenewalStatus.PENDING_AR);
                     emailService.sendRenewalStatusUpdate(renewal, "APPROVED BY DEAN", "Dean");
                     emailService.notifyAssistantRegistrarForRenewalApproval(renewal);
-                    activityLogService.logAction("APPROVE_RENEWAL_DEAN", renewal.getSocietyName(), null, "Dean", null);
+                    auditAction = AuditEvent.Action.RENEWAL_APPROVED_DEAN;
+                    activityLogService.logAction("APPROVE_RENEWAL_DEAN", renewal.getSocietyName(), null, "Dean", dto.getComment());
                     break;
                 case PENDING_AR:
                     renewal.setIsArApproved(true);
@@ -192,7 +224,8 @@ public class ApprovalService {
                     renewal.setStatus(SocietyRenewal.RenewalStatus.PENDING_VC);
                     emailService.sendRenewalStatusUpdate(renewal, "APPROVED BY ASSISTANT REGISTRAR", "Assistant Registrar");
                     emailService.notifyViceChancellorForRenewalApproval(renewal);
-                    activityLogService.logAction("APPROVE_RENEWAL_AR", renewal.getSocietyName(), null, "Assistant Registrar", null);
+                    auditAction = AuditEvent.Action.RENEWAL_APPROVED_AR;
+                    activityLogService.logAction("APPROVE_RENEWAL_AR", renewal.getSocietyName(), null, "Assistant Registrar", dto.getComment());
                     break;
                 case PENDING_VC:
                     renewal.setIsVcApproved(true);
@@ -202,19 +235,32 @@ public class ApprovalService {
                     renewal.setApprovedDate(LocalDateTime.now());
                     updateSocietyFromRenewal(renewal);
                     emailService.sendRenewalApprovalNotification(renewal);
-                    activityLogService.logAction("APPROVE_RENEWAL_VC", renewal.getSocietyName(), null, "Vice Chancellor", null);
+                    auditAction = AuditEvent.Action.RENEWAL_APPROVED_VC;
+                    activityLogService.logAction("APPROVE_RENEWAL_VC", renewal.getSocietyName(), null, "Vice Chancellor", dto.getComment());
+                    // Runs after commit, so officials download the letter from the cache
+                    pdfDocumentService.prerenderAfterCommit(PdfCacheService.DocumentType.RENEWAL, renewal.getId());
                     break;
                 default:
                     break;
             }
         }
         renewalRepository.save(renewal);
+        if (auditAction != null) {
+            auditTrailService.record(auditAction, AuditEvent.EntityType.RENEWAL, renewal.getId(), actor, adminRole, before, renewal);
+        }
     }
 
     @Transactional
     public void processEventPermissionApproval(Long id, ApprovalDto dto) {
+        processEventPermissionApproval(id, dto, null);
+    }
+
+    @Transactional
+    public void processEventPermissionApproval(Long id, ApprovalDto dto, AdminUser actor) {
         EventPermission event = eventPermissionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event request not found"));
+        Map<String, Object> before = auditTrailService.snapshot(event);
+        AuditEvent.Action auditAction = null;
 
         String adminRole = dto.getApproverRole() != null ? dto.getApproverRole() : "Admin";
 
@@ -222,7 +268,8 @@ public class ApprovalService {
             event.setStatus(EventPermission.EventStatus.REJECTED);
             event.setRejectionReason(dto.getComment());
             emailService.sendEventRejectionNotification(event);
-            activityLogService.logAction("REJECT_EVENT", event.getEventName(), null, adminRole, null);
+            auditAction = AuditEvent.Action.EVENT_REJECTED;
+            activityLogService.logAction("REJECT_EVENT", event.getEventName(), null, adminRole, dto.getComment());
         } else {
             switch (event.getStatus()) {
                 case PENDING_DEAN:
@@ -232,7 +279,8 @@ public class ApprovalService {
                     event.setStatus(EventPermission.EventStatus.PENDING_PREMISES);
                     emailService.sendEventStatusUpdate(event, "APPROVED BY DEAN", "Dean");
                     emailService.notifyPremisesOfficerForApproval(event);
-                    activityLogService.logAction("APPROVE_EVENT_DEAN", event.getEventName(), null, "Dean", null);
+                    auditAction = AuditEvent.Action.EVENT_APPROVED_DEAN;
+                    activityLogService.logAction("APPROVE_EVENT_DEAN", event.getEventName(), null, "Dean", dto.getComment());
                     break;
                 case PENDING_PREMISES:
                     event.setIsPremisesApproved(true);
@@ -241,7 +289,8 @@ public class ApprovalService {
                     event.setStatus(EventPermission.EventStatus.PENDING_AR);
                     emailService.sendEventStatusUpdate(event, "APPROVED BY PREMISES OFFICER", "Premises Officer");
                     emailService.notifyAssistantRegistrarForEventApproval(event);
-                    activityLogService.logAction("APPROVE_EVENT_PREMISES", event.getEventName(), null, "Premises Officer", null);
+                    auditAction = AuditEvent.Action.EVENT_APPROVED_PREMISES;
+                    activityLogService.logAction("APPROVE_EVENT_PREMISES", event.getEventName(), null, "Premises Officer", dto.getComment());
                     break;
                 case PENDING_AR:
                     event.setIsArApproved(true);
@@ -250,7 +299,8 @@ public class ApprovalService {
                     event.setStatus(EventPermission.EventStatus.PENDING_VC);
                     emailService.sendEventStatusUpdate(event, "APPROVED BY ASSISTANT REGISTRAR", "Assistant Registrar");
                     emailService.notifyViceChancellorForEventApproval(event);
-                    activityLogService.logAction("APPROVE_EVENT_AR", event.getEventName(), null, "Assistant Registrar", null);
+                    auditAction = AuditEvent.Action.EVENT_APPROVED_AR;
+                    activityLogService.logAction("APPROVE_EVENT_AR", event.getEventName(), null, "Assistant Registrar", dto.getComment());
                     break;
                 case PENDING_VC:
                     event.setIsVcApproved(true);
@@ -259,13 +309,19 @@ public class ApprovalService {
                     event.setStatus(EventPermission.EventStatus.APPROVED);
                     event.setApprovedDate(LocalDateTime.now());
                     emailService.sendEventStatusUpdate(event, "FULLY APPROVED - Event Approved", "Vice Chancellor");
-                    activityLogService.logAction("APPROVE_EVENT_VC", event.getEventName(), null, "Vice Chancellor", null);
+                    auditAction = AuditEvent.Action.EVENT_APPROVED_VC;
+                    activityLogService.logAction("APPROVE_EVENT_VC", event.getEventName(), null, "Vice Chancellor", dto.getComment());
+                    // Runs after commit, so officials download the letter from the cache
+                    pdfDocumentService.prerenderAfterCommit(PdfCacheService.DocumentType.EVENT, event.getId());
                     break;
                 default:
                     break;
             }
         }
         eventPermissionRepository.save(event);
+        if (auditAction != null) {
+            auditTrailService.record(auditAction, AuditEvent.EntityType.EVENT_PERMISSION, event.getId(), actor, adminRole, before, event);
+        }
     }
 
     private void createSocietyFromRegistration(SocietyRegistration reg) {
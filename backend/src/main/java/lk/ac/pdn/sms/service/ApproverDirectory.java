@@ -0,0 +1,99 @@
+package lk.ac.pdn.sms.service;
+
+import lk.ac.pdn.sms.entity.AdminUser;
+import lk.ac.pdn.sms.repository.AdminUserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory lookup of active approvers, used to resolve notification recipients
+ * without hitting admin_users on every email. The whole snapshot is rebuilt and
+ * swapped in one step whenever an admin user is created or (de)activated, and also once it
+ * is older than app.approvers.cache-ttl-seconds, because changes made through another
+ * instance do not reach this one's refresh().
+ */
+@Service
+public class ApproverDirectory {
+
+    private final AdminUserRepository adminUserRepository;
+    private final long ttlMillis;
+
+    private volatile Snapshot snapshot;
+
+    public ApproverDirectory(AdminUserRepository adminUserRepository,
+                             @Value("${app.approvers.cache-ttl-seconds:30}") long ttlSeconds) {
+        this.adminUserRepository = adminUserRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    public List<AdminUser> findByRole(AdminUser.Role role) {
+        return current().byRole.getOrDefault(role, Collections.emptyList());
+    }
+
+    public List<AdminUser> findByRoleAndFaculty(AdminUser.Role role, String faculty) {
+        if (faculty == null) return Collections.emptyList();
+        Map<String, List<AdminUser>> byFaculty = current().byRoleAndFaculty.get(role);
+        if (byFaculty == null) return Collections.emptyList();
+        return byFaculty.getOrDefault(faculty, Collections.emptyList());
+    }
+
+    // Rebuilds both maps from the DB and publishes them atomically
+    public synchronized void refresh() {
+        snapshot = load();
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s == null || s.isExpired(ttlMillis)) {
+            synchronized (this) {
+                if (snapshot == null || snapshot.isExpired(ttlMillis)) {
+                    snapshot = load();
+                }
+                s = snapshot;
+            }
+        }
+        return s;
+    }
+
+    private Snapshot load() {
+        Map<AdminUser.Role, List<AdminUser>> byRole = new EnumMap<>(AdminUser.Role.class);
+        Map<AdminUser.Role, Map<String, List<AdminUser>>> byRoleAndFaculty = new EnumMap<>(AdminUser.Role.class);
+
+        for (AdminUser user : adminUserRepository.findByIsActive(true)) {
+            if (user.getRole() == null) continue;
+            byRole.computeIfAbsent(user.getRole(), r -> new ArrayList<>()).add(user);
+            if (user.getFaculty() != null) {
+                byRoleAndFaculty.computeIfAbsent(user.getRole(), r -> new HashMap<>())
+                        .computeIfAbsent(user.getFaculty(), f -> new ArrayList<>())
+                        .add(user);
+            }
+        }
+
+        byRole.replaceAll((role, users) -> List.copyOf(users));
+        byRoleAndFaculty.values().forEach(m -> m.replaceAll((faculty, users) -> List.copyOf(users)));
+        return new Snapshot(byRole, byRoleAndFaculty);
+    }
+
+    private static final class Snapshot {
+        private final Map<AdminUser.Role, List<AdminUser>> byRole;
+        private final Map<AdminUser.Role, Map<String, List<AdminUser>>> byRoleAndFaculty;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private Snapshot(Map<AdminUser.Role, List<AdminUser>> byRole,
+                         Map<AdminUser.Role, Map<String, List<AdminUser>>> byRoleAndFaculty) {
+            this.byRole = byRole;
+            this.byRoleAndFaculty = byRoleAndFaculty;
+        }
+
+        private boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt >= ttlMillis;
+        }
+    }
+}
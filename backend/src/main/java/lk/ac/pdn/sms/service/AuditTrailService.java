@@ -0,0 +1,120 @@
+package lk.ac.pdn.sms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lk.ac.pdn.sms.entity.AdminUser;
+import lk.ac.pdn.sms.entity.AuditEvent;
+import lk.ac.pdn.sms.repository.AuditEventRepository;
+import org.springframework.stereotype.Service;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records structured audit events for application write paths. Callers take a
+ * {@link #snapshot} of the entity before changing it and pass it to {@link #record} with
+ * the changed entity afterwards; only the fields that differ are stored, as a compact
+ * {"field":[old,new]} JSON object. Events are saved in the caller's transaction.
+ */
+@Service
+public class AuditTrailService {
+
+    private final AuditEventRepository auditEventRepository;
+    private final ObjectMapper objectMapper;
+
+    // Scalar fields per entity class, resolved once
+    private final Map<Class<?>, List<Field>> fieldCache = new ConcurrentHashMap<>();
+
+    public AuditTrailService(AuditEventRepository auditEventRepository, ObjectMapper objectMapper) {
+        this.auditEventRepository = auditEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Scalar field values of {@code entity} (strings, numbers, booleans, enums, dates). */
+    public Map<String, Object> snapshot(Object entity) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (entity == null) return values;
+        for (Field field : scalarFields(entity.getClass())) {
+            try {
+                values.put(field.getName(), field.get(entity));
+            } catch (IllegalAccessException e) {
+                // Fields are made accessible when cached; skip anything the JVM still refuses
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Saves an event. {@code before} may be null for creations, in which case no diff is
+     * stored; {@code actor} may be null when the approver is only known by role.
+     */
+    public AuditEvent record(AuditEvent.Action action, AuditEvent.EntityType entityType, Long entityId,
+                             AdminUser actor, String actorName, Map<String, Object> before, Object after) {
+        AuditEvent event = new AuditEvent();
+        event.setAction(action);
+        event.setEntityType(entityType);
+        event.setEntityId(entityId);
+        event.setActorId(actor != null ? actor.getId() : null);
+        event.setActorName(actor != null ? actor.getEmail() : actorName);
+        event.setChanges(before != null ? diff(before, snapshot(after)) : null);
+        return auditEventRepository.save(event);
+    }
+
+    public List<AuditEvent> getHistory(AuditEvent.EntityType entityType, Long entityId) {
+        return auditEventRepository.findByEntityTypeAndEntityIdOrderByCreatedAtAscIdAsc(entityType, entityId);
+    }
+
+    private String diff(Map<String, Object> before, Map<String, Object> after) {
+        Map<String, Object[]> changes = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : after.entrySet()) {
+            Object oldValue = before.get(entry.getKey());
+            Object newValue = entry.getValue();
+            if (!Objects.equals(oldValue, newValue)) {
+                changes.put(entry.getKey(), new Object[]{compact(oldValue), compact(newValue)});
+            }
+        }
+        if (changes.isEmpty()) return null;
+        try {
+            return objectMapper.writeValueAsString(changes);
+        } catch (JsonProcessingException e) {
+            System.err.println("Failed to serialise audit diff: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Numbers and booleans stay as JSON literals; enums and dates become their string form
+    private static Object compact(Object value) {
+        if (value == null || value instanceof Number || value instanceof Boolean || value instanceof String) {
+            return value;
+        }
+        return value.toString();
+    }
+
+    private List<Field> scalarFields(Class<?> type) {
+        return fieldCache.computeIfAbsent(type, t -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = t; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) continue;
+                    if (!isScalar(field.getType())) continue;
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+            return fields;
+        });
+    }
+
+    private static boolean isScalar(Class<?> type) {
+        return type.isPrimitive() || type == String.class || Number.class.isAssignableFrom(type)
+                || type == Boolean.class || type.isEnum() || Temporal.class.isAssignableFrom(type);
+    }
+}
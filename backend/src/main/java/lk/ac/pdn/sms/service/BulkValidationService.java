@@ -0,0 +1,167 @@
+package lk.ac.pdn.sms.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Streaming variant of the bulk email check for very large lists (e.g. a whole faculty
+ * mailing list). The request body is parsed token by token and each address is validated
+ * and de-duplicated as it is read; results are written back as NDJSON while the body is
+ * still arriving. Duplicates are detected with a set of 64-bit hashes of the trimmed,
+ * lower-cased address, so memory is 8-16 bytes per unique address and nothing else grows
+ * with the size of the list.
+ *
+ * Accepts either a bare JSON array of strings or the {"emails": [...]} shape used by
+ * /api/validation/bulk-emails. Output has one line per invalid or duplicate address,
+ * followed by a summary line.
+ */
+@Service
+public class BulkValidationService {
+
+    private static final int FLUSH_EVERY = 256;
+
+    private final EmailValidationService emailValidationService;
+    private final JsonFactory jsonFactory;
+
+    public BulkValidationService(EmailValidationService emailValidationService, ObjectMapper objectMapper) {
+        this.emailValidationService = emailValidationService;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public void validateEmails(InputStream in, OutputStream out) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in);
+             JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+
+            long total = 0;
+            long invalid = 0;
+            long duplicates = 0;
+            LongHashSet seen = new LongHashSet();
+
+            if (moveToArray(parser)) {
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                    long index = total++;
+                    if (token != JsonToken.VALUE_STRING) {
+                        parser.skipChildren();
+                        invalid++;
+                        writeResult(generator, index, null, "INVALID");
+                    } else {
+                        String email = parser.getText();
+                        if (!seen.add(hash(email))) {
+                            duplicates++;
+                            writeResult(generator, index, email, "DUPLICATE");
+                        } else if (!emailValidationService.isValidEmail(email)) {
+                            invalid++;
+                            writeResult(generator, index, email, "INVALID");
+                        }
+                    }
+                    if (total % FLUSH_EVERY == 0) generator.flush();
+                }
+            }
+
+            generator.writeStartObject();
+            generator.writeStringField("type", "summary");
+            generator.writeNumberField("totalEmails", total);
+            generator.writeNumberField("uniqueEmails", total - duplicates);
+            generator.writeNumberField("duplicateEmails", duplicates);
+            generator.writeNumberField("invalidEmails", invalid);
+            generator.writeNumberField("validEmails", total - duplicates - invalid);
+            generator.writeBooleanField("isAllValid", invalid == 0);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+    }
+
+    // Positions the parser on the array of addresses; false if the body has none
+    private static boolean moveToArray(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) return true;
+        if (token != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Expected a JSON array of emails or {\"emails\": [...]}");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("emails".equals(field) && value == JsonToken.START_ARRAY) return true;
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private static void writeResult(JsonGenerator generator, long index, String email, String status) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("index", index);
+        if (email != null) {
+            generator.writeStringField("email", email);
+        } else {
+            generator.writeNullField("email");
+        }
+        generator.writeStringField("status", status);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    // FNV-1a over the trimmed, lower-cased address with a murmur3 finaliser; no copies made
+    static long hash(String email) {
+        int start = 0;
+        int end = email.length();
+        while (start < end && Character.isWhitespace(email.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(email.charAt(end - 1))) end--;
+
+        long h = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            h ^= Character.toLowerCase(email.charAt(i));
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Open-addressing set of longs (linear probing, 0 reserved as the empty slot). A 64-bit
+     * hash makes a false "duplicate" vanishingly unlikely for any realistic list.
+     */
+    static final class LongHashSet {
+        private long[] table = new long[1024];
+        private int size;
+
+        boolean add(long value) {
+            if (value == 0) value = 1;
+            if ((size + 1) * 4L > table.length * 3L) grow();
+            int mask = table.length - 1;
+            int i = (int) value & mask;
+            while (table[i] != 0) {
+                if (table[i] == value) return false;
+                i = (i + 1) & mask;
+            }
+            table[i] = value;
+            size++;
+            return true;
+        }
+
+        private void grow() {
+            long[] old = table;
+            table = new long[old.length * 2];
+            int mask = table.length - 1;
+            for (long value : old) {
+                if (value == 0) continue;
+                int i = (int) value & mask;
+                while (table[i] != 0) i = (i + 1) & mask;
+                table[i] = value;
+            }
+        }
+    }
+}
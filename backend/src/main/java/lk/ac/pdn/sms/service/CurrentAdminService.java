@@ -0,0 +1,188 @@
+package lk.ac.pdn.sms.service;
+
+import jakarta.servlet.http.HttpSession;
+import lk.ac.pdn.sms.entity.AdminUser;
+import lk.ac.pdn.sms.repository.AdminUserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves the signed-in admin's AdminUser row without a query on every call. The row is
+ * kept in the HTTP session together with the version it was read at, and memoized on the
+ * request so controller and service lookups in the same request share one resolution.
+ *
+ * Every admin write bumps the version (invalidate()), so the next request after a
+ * deactivation or other change reads the row again. Deactivated admins are refused.
+ *
+ * Requests without a session (bearer tokens in the stateless mode) use a node-local cache
+ * instead. Its entries also expire after app.auth.admin-cache-ttl-seconds, because a change
+ * made through another instance does not bump this instance's version.
+ */
+@Service
+public class CurrentAdminService {
+
+    private static final String SESSION_KEY = CurrentAdminService.class.getName() + ".admin";
+    private static final String REQUEST_KEY = CurrentAdminService.class.getName() + ".memo";
+
+    private final AdminUserRepository adminUserRepository;
+    private final long localTtlMillis;
+
+    // canonical email -> snapshot, for requests that have no session
+    private final Map<String, Cached> local = new ConcurrentHashMap<>();
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong requestHits = new AtomicLong();
+    private final AtomicLong sessionHits = new AtomicLong();
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    public CurrentAdminService(AdminUserRepository adminUserRepository,
+                               @Value("${app.auth.admin-cache-ttl-seconds:30}") long localTtlSeconds) {
+        this.adminUserRepository = adminUserRepository;
+        this.localTtlMillis = localTtlSeconds * 1000;
+    }
+
+    public AdminUser resolve(Authentication authentication) {
+        if (authentication == null) return null;
+        return resolveEmail(emailOf(authentication.getPrincipal()), true);
+    }
+
+    /**
+     * For services that are handed Principal.getName(). When that is the current
+     * authentication it goes through the cache (and works for every principal type, not
+     * only those whose name is the email); otherwise the name is looked up as an email.
+     */
+    public AdminUser resolveByName(String name) {
+        Authentication current = SecurityContextHolder.getContext().getAuthentication();
+        if (current != null && name != null && name.equals(current.getName())) {
+            return resolve(current);
+        }
+        return resolveEmail(name, false);
+    }
+
+    /**
+     * The admin row for a sign-in email. The indexed canonical_email match comes first; rows
+     * inserted by SQL since startup (setup_admin_users.sql leaves canonical_email empty) are
+     * found by the email column instead, exactly and then ignoring case, and get their
+     * canonical_email filled in so the next lookup takes the index.
+     */
+    public Optional<AdminUser> findByLoginEmail(String email) {
+        String canonical = AdminUser.canonicalize(email);
+        if (canonical == null) return Optional.empty();
+        Optional<AdminUser> admin = adminUserRepository.findByCanonicalEmail(canonical);
+        if (admin.isPresent()) return admin;
+
+        admin = adminUserRepository.findByEmail(email);
+        if (admin.isEmpty()) admin = adminUserRepository.findFirstByEmailIgnoreCase(email.trim());
+        admin.ifPresent(user -> {
+            String own = AdminUser.canonicalize(user.getEmail());
+            if (own == null || own.equals(user.getCanonicalEmail())) return;
+            user.setCanonicalEmail(own);
+            try {
+                adminUserRepository.save(user);
+            } catch (DataIntegrityViolationException e) {
+                System.err.println("Admin " + user.getEmail() + " has the same canonical email as another admin; "
+                        + "it is matched by its email column until one of them is changed");
+            }
+        });
+        return admin;
+    }
+
+    // Call after any change to an admin_users row
+    public void invalidate() {
+        version.incrementAndGet();
+        local.clear();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("version", version.get());
+        stats.put("requestHits", requestHits.get());
+        stats.put("sessionHits", sessionHits.get());
+        stats.put("localHits", localHits.get());
+        stats.put("localEntries", local.size());
+        stats.put("loads", loads.get());
+        return stats;
+    }
+
+    private AdminUser resolveEmail(String email, boolean cacheInSession) {
+        String canonical = AdminUser.canonicalize(email);
+        if (canonical == null) throw new RuntimeException("Admin user not found for email: " + email);
+
+        long current = version.get();
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        Cached cached = request != null ? (Cached) request.getAttribute(REQUEST_KEY, RequestAttributes.SCOPE_REQUEST) : null;
+        if (cached != null && cached.matches(canonical, current)) {
+            requestHits.incrementAndGet();
+            return cached.admin;
+        }
+
+        HttpSession session = cacheInSession ? session(request) : null;
+        boolean useLocal = cacheInSession && session == null;
+        cached = session != null ? (Cached) session.getAttribute(SESSION_KEY)
+                : useLocal ? local.get(canonical) : null;
+        if (cached != null && cached.matches(canonical, current)
+                && (!useLocal || System.currentTimeMillis() - cached.loadedAt < localTtlMillis)) {
+            (useLocal ? localHits : sessionHits).incrementAndGet();
+        } else {
+            loads.incrementAndGet();
+            AdminUser admin = findByLoginEmail(email)
+                    .orElseThrow(() -> new RuntimeException("Admin user not found for email: " + email));
+            // Stamped with the version read before the query, so a concurrent change forces a reload
+            cached = new Cached(admin, canonical, current);
+            if (session != null) session.setAttribute(SESSION_KEY, cached);
+            if (useLocal) local.put(canonical, cached);
+        }
+        if (request != null) request.setAttribute(REQUEST_KEY, cached, RequestAttributes.SCOPE_REQUEST);
+
+        if (!Boolean.TRUE.equals(cached.admin.getIsActive())) {
+            throw new AccessDeniedException("Account is inactive");
+        }
+        return cached.admin;
+    }
+
+    private static String emailOf(Object principal) {
+        if (principal instanceof AdminUser) return ((AdminUser) principal).getEmail();
+        if (principal instanceof OidcUser) return ((OidcUser) principal).getEmail();
+        if (principal instanceof OAuth2User) return ((OAuth2User) principal).getAttribute("email");
+        throw new RuntimeException("Unknown authentication principal type: " + principal.getClass().getName());
+    }
+
+    // Only an existing session is used; resolving an admin never creates one
+    private static HttpSession session(RequestAttributes request) {
+        if (!(request instanceof ServletRequestAttributes)) return null;
+        return ((ServletRequestAttributes) request).getRequest().getSession(false);
+    }
+
+    private static final class Cached {
+        private final AdminUser admin;
+        private final String canonicalEmail;
+        private final long version;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private Cached(AdminUser admin, String canonicalEmail, long version) {
+            this.admin = admin;
+            this.canonicalEmail = canonicalEmail;
+            this.version = version;
+        }
+
+        private boolean matches(String canonical, long currentVersion) {
+            return version == currentVersion && canonicalEmail.equals(canonical);
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package lk.ac.pdn.sms.service;
 
 import lk.ac.pdn.sms.entity.AdminUser;
-import lk.ac.pdn.sms.repository.AdminUserRepository;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
@@ -21,10 +20,10 @@ import java.util.stream.Collectors;
 @Service
 public class CustomOAuth2UserService implements OAuth2UserService<OAuth2UserRequest, OAuth2User> {
 
-    private final AdminUserRepository adminUserRepository;
+    private final CurrentAdminService currentAdminService;
 
-    public CustomOAuth2UserService(AdminUserRepository adminUserRepository) {
-        this.adminUserRepository = adminUserRepository;
+    public CustomOAuth2UserService(CurrentAdminService currentAdminService) {
+        this.currentAdminService = currentAdminService;
     }
 
     @Override
@@ -40,24 +39,11 @@ public class CustomOAuth2UserService implements OAuth2UserService<OAuth2UserRequ
             throw new OAuth2AuthenticationException("Email not found from Google provider");
         }
 
-        // 1. Try Direct Lookup
-        AdminUser adminUser = adminUserRepository.findByEmail(googleEmail).orElse(null);
+        // 1. Indexed lookup on canonical_email (case and gmail/googlemail folded), falling back to
+        //    the email column for admins added by SQL since startup
+        AdminUser adminUser = currentAdminService.findByLoginEmail(googleEmail).orElse(null);
 
-        // 2. Fallback: Manual Search (Fixes case sensitivity & googlemail.com issues)
-        if (adminUser == null) {
-            System.out.println("➤ Direct DB lookup failed. Trying fuzzy match...");
-            List<AdminUser> allUsers = adminUserRepository.findAll();
-
-            for (AdminUser u : allUsers) {
-                if (emailsMatch(u.getEmail(), googleEmail)) {
-                    adminUser = u;
-                    System.out.println("✅ Match found via fuzzy search: " + u.getEmail());
-                    break;
-                }
-            }
-        }
-
-        // 3. Final Validation
+        // 2. Final Validation
         if (adminUser == null) {
             System.out.println("❌ FAILED: No matching user found in DB for: " + googleEmail);
             System.out.println("==========================================\n");
@@ -76,31 +62,6 @@ public class CustomOAuth2UserService implements OAuth2UserService<OAuth2UserRequ
         return createOAuth2User(oAuth2User, adminUser.getRole().name(), adminUser.getId(), adminUser.getName(), adminUser.getFaculty());
     }
 
-    // Helper to match emails robustly
-    private boolean emailsMatch(String dbEmail, String googleEmail) {
-        if (dbEmail == null || googleEmail == null) return false;
-
-        String cleanDb = dbEmail.trim().toLowerCase();
-        String cleanGoogle = googleEmail.trim().toLowerCase();
-
-        if (cleanDb.equals(cleanGoogle)) return true;
-
-        // Handle gmail.com vs googlemail.com alias
-        String dbDomain = cleanDb.substring(cleanDb.indexOf("@") + 1);
-        String googleDomain = cleanGoogle.substring(cleanGoogle.indexOf("@") + 1);
-
-        String dbUser = cleanDb.substring(0, cleanDb.indexOf("@"));
-        String googleUser = cleanGoogle.substring(0, cleanGoogle.indexOf("@"));
-
-        if (dbUser.equals(googleUser)) {
-            if ((dbDomain.equals("gmail.com") && googleDomain.equals("googlemail.com")) ||
-                    (dbDomain.equals("googlemail.com") && googleDomain.equals("gmail.com"))) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     private OAuth2User createOAuth2User(OAuth2User oAuth2User, String role, Long id, String name, String faculty) {
         // Add ROLE_ prefix for Spring Security
         List<GrantedAuthority> authorities = Collections.singletonList(
@@ -1,7 +1,6 @@
 package lk.ac.pdn.sms.service;
 
 import lk.ac.pdn.sms.entity.AdminUser;
-import lk.ac.pdn.sms.repository.AdminUserRepository;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
@@ -17,10 +16,10 @@ import java.util.List;
 @Service
 public class CustomOidcUserService extends OidcUserService {
 
-    private final AdminUserRepository adminUserRepository;
+    private final CurrentAdminService currentAdminService;
 
-    public CustomOidcUserService(AdminUserRepository adminUserRepository) {
-        this.adminUserRepository = adminUserRepository;
+    public CustomOidcUserService(CurrentAdminService currentAdminService) {
+        this.currentAdminService = currentAdminService;
     }
 
     @Override
@@ -37,21 +36,9 @@ public class CustomOidcUserService extends OidcUserService {
             throw new OAuth2AuthenticationException("Email not found from Google provider");
         }
 
-        // 2. Database Lookup with Fuzzy Matching
-        AdminUser adminUser = adminUserRepository.findByEmail(googleEmail).orElse(null);
-
-        if (adminUser == null) {
-            System.out.println("➤ Direct DB lookup failed. Trying fuzzy match...");
-            // Fallback for case sensitivity or googlemail vs gmail
-            List<AdminUser> allUsers = adminUserRepository.findAll();
-            for (AdminUser u : allUsers) {
-                if (emailsMatch(u.getEmail(), googleEmail)) {
-                    adminUser = u;
-                    System.out.println("✅ Match found via fuzzy search: " + u.getEmail());
-                    break;
-                }
-            }
-        }
+        // 2. Indexed lookup on canonical_email (case and gmail/googlemail folded), falling back to
+        //    the email column for admins added by SQL since startup
+        AdminUser adminUser = currentAdminService.findByLoginEmail(googleEmail).orElse(null);
 
         // 3. Validation
         if (adminUser == null) {
@@ -77,27 +64,4 @@ public class CustomOidcUserService extends OidcUserService {
         // 5. Return OidcUser with Database Roles
         return new DefaultOidcUser(authorities, oidcUser.getIdToken(), oidcUser.getUserInfo());
     }
-
-    // Robust email matcher
-    private boolean emailsMatch(String dbEmail, String googleEmail) {
-        if (dbEmail == null || googleEmail == null) return false;
-        String cleanDb = dbEmail.trim().toLowerCase();
-        String cleanGoogle = googleEmail.trim().toLowerCase();
-
-        if (cleanDb.equals(cleanGoogle)) return true;
-
-        // Check for gmail/googlemail alias
-        String dbDomain = cleanDb.substring(cleanDb.indexOf("@") + 1);
-        String googleDomain = cleanGoogle.substring(cleanGoogle.indexOf("@") + 1);
-        String dbUser = cleanDb.substring(0, cleanDb.indexOf("@"));
-        String googleUser = cleanGoogle.substring(0, cleanGoogle.indexOf("@"));
-
-        if (dbUser.equals(googleUser)) {
-            if ((dbDomain.equals("gmail.com") && googleDomain.equals("googlemail.com")) ||
-                    (dbDomain.equals("googlemail.com") && googleDomain.equals("gmail.com"))) {
-                return true;
-            }
-        }
-        return false;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,228 @@
+package lk.ac.pdn.sms.service;
+
+import com.sun.management.ThreadMXBean;
+import lk.ac.pdn.sms.config.InMemoryMailSender;
+import lk.ac.pdn.sms.entity.SocietyRegistration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the notification path at a fixed rate against the in-memory mail sink and
+ * reports throughput, enqueue latency and heap cost per queued message, and times template
+ * rendering on its own. Only available under the "perf" profile, so dispatcher and template
+ * changes can be compared offline.
+ */
+@Service
+@Profile("perf")
+public class EmailBenchmarkService {
+
+    private static final long DRAIN_TIMEOUT_SECONDS = 120;
+
+    private final EmailService emailService;
+    private final AdminService adminService;
+    private final InMemoryMailSender mailSink;
+    private final EmailTemplateService emailTemplateService;
+
+    public EmailBenchmarkService(EmailService emailService, AdminService adminService, InMemoryMailSender mailSink,
+                                 EmailTemplateService emailTemplateService) {
+        this.emailService = emailService;
+        this.adminService = adminService;
+        this.mailSink = mailSink;
+        this.emailTemplateService = emailTemplateService;
+    }
+
+    /**
+     * Submits {@code count} registration confirmations at {@code ratePerSecond}. Each call
+     * only enqueues onto the email executor, so the per-call time is the enqueue latency;
+     * throughput is measured until the sink has received every message.
+     */
+    public Map<String, Object> runNotificationBenchmark(int count, int ratePerSecond) throws InterruptedException {
+        mailSink.reset();
+        long[] latencies = new long[count];
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, ratePerSecond);
+
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            pace(start + i * intervalNanos);
+            long t0 = System.nanoTime();
+            emailService.sendRegistrationConfirmation(syntheticRegistration(i));
+            latencies[i] = System.nanoTime() - t0;
+        }
+        long heapAfterEnqueue = usedHeap();
+
+        boolean drained = mailSink.awaitCount(count, DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+
+        Map<String, Object> result = report("notification", count, ratePerSecond, elapsed, latencies, drained);
+        result.put("approxBytesPerQueuedMessage", Math.max(0, heapAfterEnqueue - heapBefore) / Math.max(1, count));
+        return result;
+    }
+
+    /**
+     * Sends {@code batches} bulk emails of {@code recipientsPerBatch} recipients each through
+     * AdminService.sendBulkEmail, one batch every 1/ratePerSecond seconds.
+     */
+    public Map<String, Object> runBulkBenchmark(int batches, int recipientsPerBatch, int ratePerSecond) throws InterruptedException {
+        mailSink.reset();
+        List<String> recipients = new ArrayList<>(recipientsPerBatch);
+        for (int i = 0; i < recipientsPerBatch; i++) {
+            recipients.add("perf.recipient" + i + "@example.com");
+        }
+
+        long[] latencies = new long[batches];
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, ratePerSecond);
+        long start = System.nanoTime();
+        for (int i = 0; i < batches; i++) {
+            pace(start + i * intervalNanos);
+            long t0 = System.nanoTime();
+            adminService.sendBulkEmail("Benchmark " + i, "Line one\nLine two", recipients, "perf");
+            latencies[i] = System.nanoTime() - t0;
+        }
+
+        long total = (long) batches * recipientsPerBatch;
+        boolean drained = mailSink.awaitCount(total, DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+        return report("bulk", total, ratePerSecond, elapsed, latencies, drained);
+    }
+
+    /**
+     * Renders {@code count} notification emails (text and HTML parts) on the calling thread,
+     * once with a new Context per message, as EmailService does, and once with a single
+     * Context whose per-recipient variables are swapped, as a bulk sender could. Reports
+     * nanoseconds and bytes allocated per message for each; nothing is sent.
+     */
+    public Map<String, Object> runRenderBenchmark(int count, int warmup) {
+        List<String> paragraphs = List.of(
+                "A new society registration application requires your approval.",
+                "Please review the application in the admin panel at your earliest convenience.");
+        Map<String, String> details = new LinkedHashMap<>();
+        details.put("Society Name", "Benchmark Society");
+        details.put("Applicant", "Applicant Name");
+        details.put("Faculty", "Faculty of Science");
+        details.put("Application ID", "12345");
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", "render");
+        result.put("template", EmailTemplateService.NOTIFICATION);
+        result.put("messages", count);
+
+        long[] chars = new long[1];
+        Runnable single = () -> {
+            for (int i = 0; i < count; i++) {
+                Map<String, Object> variables = new LinkedHashMap<>();
+                variables.put("name", "Recipient " + i);
+                variables.put("paragraphs", paragraphs);
+                variables.put("details", details);
+                variables.put("closing", null);
+                chars[0] += length(emailTemplateService.render(EmailTemplateService.NOTIFICATION, variables));
+            }
+        };
+        Runnable reused = () -> {
+            Context context = new Context();
+            context.setVariable("paragraphs", paragraphs);
+            context.setVariable("details", details);
+            context.setVariable("closing", null);
+            for (int i = 0; i < count; i++) {
+                context.setVariable("name", "Recipient " + i);
+                chars[0] += length(emailTemplateService.render(EmailTemplateService.NOTIFICATION, context));
+            }
+        };
+
+        // Warm both paths up before measuring
+        for (int i = 0; i < warmup; i++) {
+            single.run();
+            reused.run();
+        }
+        measureRender("singleContext", single, count, result);
+        measureRender("reusedContext", reused, count, result);
+        // Reported so the JIT cannot drop the rendering
+        result.put("avgRenderedChars", count > 0 ? chars[0] / ((long) count * (2L * warmup + 2)) : 0);
+        return result;
+    }
+
+    private static void measureRender(String name, Runnable run, int count, Map<String, Object> result) {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        run.run();
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        result.put(name + "NanosPerMessage", count > 0 ? elapsed / count : 0);
+        result.put(name + "AllocatedBytesPerMessage", allocatedBefore >= 0 && count > 0 ? allocated / count : -1);
+    }
+
+    private static long length(EmailTemplateService.RenderedEmail email) {
+        return email.getText().length() + email.getHtml().length();
+    }
+
+    private Map<String, Object> report(String name, long messages, int rate, long elapsedNanos,
+                                       long[] latencies, boolean drained) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", name);
+        result.put("targetRatePerSecond", rate);
+        result.put("messages", messages);
+        result.put("delivered", mailSink.getReceivedCount());
+        result.put("drained", drained);
+        result.put("elapsedMillis", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        result.put("messagesPerSecond", elapsedNanos > 0 ? mailSink.getReceivedCount() * 1_000_000_000.0 / elapsedNanos : 0);
+        result.put("p50EnqueueMicros", percentile(sorted, 0.50) / 1000.0);
+        result.put("p99EnqueueMicros", percentile(sorted, 0.99) / 1000.0);
+        result.put("maxEnqueueMicros", sorted.length > 0 ? sorted[sorted.length - 1] / 1000.0 : 0);
+        return result;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static void pace(long targetNanos) {
+        long wait;
+        while ((wait = targetNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime rt = Runtime.getRuntime();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    // -1 when the JVM does not expose per-thread allocation counters
+    private static long allocatedBytes() {
+        Object bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof ThreadMXBean) {
+            ThreadMXBean hotspot = (ThreadMXBean) bean;
+            if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static SocietyRegistration syntheticRegistration(int i) {
+        SocietyRegistration reg = new SocietyRegistration();
+        reg.setId((long) i);
+        reg.setSocietyName("Benchmark Society " + i);
+        reg.setApplicantFullName("Applicant " + i);
+        reg.setApplicantEmail("applicant" + i + "@example.com");
+        reg.setApplicantFaculty("Faculty of Science");
+        return reg;
+    }
+}
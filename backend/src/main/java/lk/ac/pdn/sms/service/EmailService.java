@@ -1,17 +1,28 @@
 package lk.ac.pdn.sms.service;
 
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lk.ac.pdn.sms.config.AsyncConfig;
+import lk.ac.pdn.sms.dto.NotificationSection;
 import lk.ac.pdn.sms.entity.SocietyRegistration;
 import lk.ac.pdn.sms.entity.SocietyRenewal;
 import lk.ac.pdn.sms.entity.EventPermission;
 import lk.ac.pdn.sms.entity.AdminUser;
-import lk.ac.pdn.sms.repository.AdminUserRepository;
+import lk.ac.pdn.sms.entity.PendingNotification;
+import lk.ac.pdn.sms.repository.PendingNotificationRepository;
+import lk.ac.pdn.sms.service.EmailTemplateService.RenderedEmail;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class EmailService {
@@ -20,286 +31,250 @@ public class EmailService {
     private JavaMailSender mailSender;
 
     @Autowired
-    private AdminUserRepository adminUserRepository;
+    private ApproverDirectory approverDirectory;
 
-    private static final String EMAIL_SIGNATURE = "\n\nBest regards,\nStudent Service Division\nUniversity of Peradeniya";
+    @Autowired
+    private EmailTemplateService emailTemplateService;
+
+    @Autowired
+    private PendingNotificationRepository pendingNotificationRepository;
+
+    @Autowired
+    private NotificationCoalescer notificationCoalescer;
+
+    private static final String ADMIN_PANEL_PROMPT = "Please log in to the SMS Admin Panel to review.";
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void sendRegistrationConfirmation(SocietyRegistration registration) {
-        sendEmail(
+        sendNotification(
                 registration.getApplicantEmail(),
                 "Society Registration Application Received",
-                String.format(
-                        "Dear %s,\n\n" +
-                                "We have received your application for the registration of '%s'.\n" +
-                                "Your application ID is: %d\n\n" +
-                                "The application is now pending approval from the Faculty Dean.\n" +
-                                EMAIL_SIGNATURE,
-                        registration.getApplicantFullName(),
-                        registration.getSocietyName(),
-                        registration.getId()
-                )
+                registration.getApplicantFullName(),
+                List.of(
+                        "We have received your application for the registration of '" + registration.getSocietyName() + "'.",
+                        "The application is now pending approval from the Faculty Dean."
+                ),
+                details("Application ID", registration.getId()),
+                null
         );
 
         if (registration.getSeniorTreasurerEmail() != null) {
-            sendEmail(
+            sendNotification(
                     registration.getSeniorTreasurerEmail(),
                     "Nomination as Senior Treasurer - " + registration.getSocietyName(),
-                    String.format(
-                            "Dear %s,\n\n" +
-                                    "You have been nominated as the Senior Treasurer for the society '%s'.\n" +
-                                    "The registration application has been submitted and is currently pending approval from the Faculty Dean.\n" +
-                                    EMAIL_SIGNATURE,
-                            registration.getSeniorTreasurerFullName(),
-                            registration.getSocietyName()
-                    )
+                    registration.getSeniorTreasurerFullName(),
+                    List.of(
+                            "You have been nominated as the Senior Treasurer for the society '" + registration.getSocietyName() + "'.",
+                            "The registration application has been submitted and is currently pending approval from the Faculty Dean."
+                    ),
+                    null,
+                    null
             );
         }
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void notifyDeanForApproval(SocietyRegistration registration) {
-        List<AdminUser> deans = adminUserRepository.findByRoleAndFaculty(
+        List<AdminUser> deans = approverDirectory.findByRoleAndFaculty(
                 AdminUser.Role.DEAN, registration.getApplicantFaculty());
 
         for (AdminUser dean : deans) {
-            sendEmail(
-                    dean.getEmail(),
-                    "Action Required: New Society Registration Application",
-                    String.format(
-                            "Dear %s,\n\n" +
-                                    "A new society registration application requires your review.\n\n" +
-                                    "Society: %s\n" +
-                                    "Applicant: %s\n" +
-                                    "Faculty: %s\n\n" +
-                                    "Please log in to the SMS Admin Panel to review and approve/reject this application.\n" +
-                                    EMAIL_SIGNATURE,
-                            dean.getName(),
-                            registration.getSocietyName(),
-                            registration.getApplicantFullName(),
-                            registration.getApplicantFaculty()
-                    )
+            notifyApprover(dean, "Action Required: New Society Registration Application",
+                    List.of("A new society registration application requires your review."),
+                    details("Society", registration.getSocietyName(),
+                            "Applicant", registration.getApplicantFullName(),
+                            "Faculty", registration.getApplicantFaculty()),
+                    "Please log in to the SMS Admin Panel to review and approve/reject this application."
             );
         }
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void sendRegistrationStatusUpdate(SocietyRegistration registration, String status, String adminRole, String reason) {
         String subject = "Society Registration Status Update: " + status;
-        String reasonText = (reason != null && !reason.isEmpty()) ? "\nReason: " + reason + "\n" : "";
-
-        String body = String.format(
-                "The society registration application for '%s' has been updated.\n\n" +
-                        "New Status: %s\n" +
-                        "Updated By: %s\n" +
-                        "%s\n" +
-                        "Please check the SMS portal for more details.\n" +
-                        EMAIL_SIGNATURE,
-                registration.getSocietyName(),
-                status,
-                adminRole,
-                reasonText
-        );
+        List<String> paragraphs = List.of(
+                "The society registration application for '" + registration.getSocietyName() + "' has been updated.");
+        Map<String, Object> details = details("New Status", status, "Updated By", adminRole);
+        if (reason != null && !reason.isEmpty()) {
+            details.put("Reason", reason);
+        }
+        String closing = "Please check the SMS portal for more details.";
 
-        sendEmail(registration.getApplicantEmail(), subject, "Dear " + registration.getApplicantFullName() + ",\n\n" + body);
+        sendNotification(registration.getApplicantEmail(), subject,
+                registration.getApplicantFullName(), paragraphs, details, closing);
 
         if (registration.getSeniorTreasurerEmail() != null) {
-            sendEmail(registration.getSeniorTreasurerEmail(), subject, "Dear " + registration.getSeniorTreasurerTitle() + " " + registration.getSeniorTreasurerFullName() + ",\n\n" + body);
+            sendNotification(registration.getSeniorTreasurerEmail(), subject,
+                    registration.getSeniorTreasurerTitle() + " " + registration.getSeniorTreasurerFullName(),
+                    paragraphs, details, closing);
         }
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void notifyAssistantRegistrarForApproval(SocietyRegistration registration) {
-        List<AdminUser> ars = adminUserRepository.findByRole(AdminUser.Role.ASSISTANT_REGISTRAR);
+        List<AdminUser> ars = approverDirectory.findByRole(AdminUser.Role.ASSISTANT_REGISTRAR);
         for (AdminUser ar : ars) {
-            sendEmail(
-                    ar.getEmail(),
-                    "Action Required: Society Registration Pending AR Approval",
-                    String.format(
-                            "Dear %s,\n\n" +
-                                    "The Faculty Dean has approved the registration for '%s'. It now requires your approval.\n\n" +
-                                    EMAIL_SIGNATURE,
-                            ar.getName(),
-                            registration.getSocietyName()
-                    )
+            notifyApprover(ar, "Action Required: Society Registration Pending AR Approval",
+                    List.of("The Faculty Dean has approved the registration for '" + registration.getSocietyName() + "'. It now requires your approval."),
+                    null,
+                    null
             );
         }
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void notifyViceChancellorForApproval(SocietyRegistration registration) {
-        List<AdminUser> vcs = adminUserRepository.findByRole(AdminUser.Role.VICE_CHANCELLOR);
+        List<AdminUser> vcs = approverDirectory.findByRole(AdminUser.Role.VICE_CHANCELLOR);
         for (AdminUser vc : vcs) {
-            sendEmail(
-                    vc.getEmail(),
-                    "Action Required: Society Registration Pending VC Approval",
-                    String.format(
-                            "Dear %s,\n\n" +
-                                    "The Assistant Registrar has approved the registration for '%s'. It now requires your final approval.\n\n" +
-                                    EMAIL_SIGNATURE,
-                            vc.getName(),
-                            registration.getSocietyName()
-                    )
+            notifyApprover(vc, "Action Required: Society Registration Pending VC Approval",
+                    List.of("The Assistant Registrar has approved the registration for '" + registration.getSocietyName() + "'. It now requires your final approval."),
+                    null,
+                    null
             );
         }
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void sendRenewalConfirmation(SocietyRenewal renewal) {
-        sendEmail(renewal.getApplicantEmail(), "Society Renewal Application Received",
-                "Dear " + renewal.getApplicantFullName() + ",\n\nWe have received your renewal application for '" + renewal.getSocietyName() + "'." + EMAIL_SIGNATURE);
+        sendNotification(renewal.getApplicantEmail(), "Society Renewal Application Received",
+                renewal.getApplicantFullName(),
+                List.of("We have received your renewal application for '" + renewal.getSocietyName() + "'."),
+                null, null);
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void notifyDeanForRenewalApproval(SocietyRenewal renewal) {
-        List<AdminUser> deans = adminUserRepository.findByRoleAndFaculty(
+        List<AdminUser> deans = approverDirectory.findByRoleAndFaculty(
                 AdminUser.Role.DEAN, renewal.getApplicantFaculty());
         for (AdminUser dean : deans) {
-            sendEmail(dean.getEmail(), "Action Required: Society Renewal Application",
-                    "Dear " + dean.getName() + ",\n\nA society renewal application for '" + renewal.getSocietyName() + "' requires your review." + EMAIL_SIGNATURE);
+            notifyApprover(dean, "Action Required: Society Renewal Application",
+                    List.of("A society renewal application for '" + renewal.getSocietyName() + "' requires your review."),
+                    null, null);
         }
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void notifyAssistantRegistrarForRenewalApproval(SocietyRenewal renewal) {
-        List<AdminUser> ars = adminUserRepository.findByRole(AdminUser.Role.ASSISTANT_REGISTRAR);
+        List<AdminUser> ars = approverDirectory.findByRole(AdminUser.Role.ASSISTANT_REGISTRAR);
         for (AdminUser ar : ars) {
-            sendEmail(ar.getEmail(), "Action Required: Society Renewal Pending AR Approval",
-                    "Dear " + ar.getName() + ",\n\nThe Faculty Dean has approved the renewal for '" + renewal.getSocietyName() + "'. It now requires your approval." + EMAIL_SIGNATURE);
+            notifyApprover(ar, "Action Required: Society Renewal Pending AR Approval",
+                    List.of("The Faculty Dean has approved the renewal for '" + renewal.getSocietyName() + "'. It now requires your approval."),
+                    null, null);
         }
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void notifyViceChancellorForRenewalApproval(SocietyRenewal renewal) {
-        List<AdminUser> vcs = adminUserRepository.findByRole(AdminUser.Role.VICE_CHANCELLOR);
+        List<AdminUser> vcs = approverDirectory.findByRole(AdminUser.Role.VICE_CHANCELLOR);
         for (AdminUser vc : vcs) {
-            sendEmail(vc.getEmail(), "Action Required: Society Renewal Pending VC Approval",
-                    "Dear " + vc.getName() + ",\n\nThe Assistant Registrar has approved the renewal for '" + renewal.getSocietyName() + "'. It now requires your final approval." + EMAIL_SIGNATURE);
+            notifyApprover(vc, "Action Required: Society Renewal Pending VC Approval",
+                    List.of("The Assistant Registrar has approved the renewal for '" + renewal.getSocietyName() + "'. It now requires your final approval."),
+                    null, null);
         }
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void sendRenewalApprovalNotification(SocietyRenewal renewal) {
-        sendEmail(renewal.getApplicantEmail(), "Congratulations! Society Renewal Approved",
-                "Dear " + renewal.getApplicantFullName() + ",\n\nWe are pleased to inform you that the renewal application for '" + renewal.getSocietyName() + "' has been APPROVED by the Vice Chancellor.\n\nAcademic Year: " + renewal.getRenewalYear() + "\n\nYou may now continue your society activities." + EMAIL_SIGNATURE);
+        sendNotification(renewal.getApplicantEmail(), "Congratulations! Society Renewal Approved",
+                renewal.getApplicantFullName(),
+                List.of("We are pleased to inform you that the renewal application for '" + renewal.getSocietyName() + "' has been APPROVED by the Vice Chancellor."),
+                details("Academic Year", renewal.getRenewalYear()),
+                "You may now continue your society activities.");
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void sendRenewalRejectionNotification(SocietyRenewal renewal) {
-        sendEmail(renewal.getApplicantEmail(), "Society Renewal Application Rejected",
-                "Dear " + renewal.getApplicantFullName() + ",\n\nWe regret to inform you that your renewal application for '" + renewal.getSocietyName() + "' has been rejected.\n\nReason: " + renewal.getRejectionReason() + EMAIL_SIGNATURE);
+        sendNotification(renewal.getApplicantEmail(), "Society Renewal Application Rejected",
+                renewal.getApplicantFullName(),
+                List.of("We regret to inform you that your renewal application for '" + renewal.getSocietyName() + "' has been rejected."),
+                details("Reason", renewal.getRejectionReason()),
+                null);
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void sendRenewalStatusUpdate(SocietyRenewal renewal, String status, String adminName) {
-        sendEmail(renewal.getApplicantEmail(), "Society Renewal Status Update: " + status,
-                "Dear " + renewal.getApplicantFullName() + ",\n\nYour society renewal application status has been updated to: " + status + " by " + adminName + "." + EMAIL_SIGNATURE);
+        sendNotification(renewal.getApplicantEmail(), "Society Renewal Status Update: " + status,
+                renewal.getApplicantFullName(),
+                List.of("Your society renewal application status has been updated to: " + status + " by " + adminName + "."),
+                null, null);
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void sendEventPermissionConfirmation(EventPermission event) {
-        sendEmail(event.getApplicantEmail(), "Event Permission Request Received",
-                String.format(
-                        "Dear %s,\n\n" +
-                                "We have received your permission request for the event '%s'.\n" +
-                                "Date: %s\n" +
-                                "Place: %s\n\n" +
-                                "The request is now pending approval from the Faculty Dean.\n" +
-                                EMAIL_SIGNATURE,
-                        event.getApplicantName(), event.getEventName(), event.getEventDate(), event.getPlace())
-        );
+        sendNotification(event.getApplicantEmail(), "Event Permission Request Received",
+                event.getApplicantName(),
+                List.of("We have received your permission request for the event '" + event.getEventName() + "'."),
+                details("Date", event.getEventDate(), "Place", event.getPlace()),
+                "The request is now pending approval from the Faculty Dean.");
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void notifyDeanForEventApproval(EventPermission event) {
-        List<AdminUser> deans = adminUserRepository.findByRoleAndFaculty(
+        List<AdminUser> deans = approverDirectory.findByRoleAndFaculty(
                 AdminUser.Role.DEAN, event.getApplicantFaculty());
 
         for (AdminUser dean : deans) {
-            sendEmail(dean.getEmail(), "Action Required: Event Permission Request",
-                    String.format(
-                            "Dear %s,\n\n" +
-                                    "An event permission request requires your review.\n\n" +
-                                    "Society: %s\nEvent: %s\nDate: %s\n\n" +
-                                    "Please log in to the SMS Admin Panel to review.\n" +
-                                    EMAIL_SIGNATURE,
-                            dean.getName(), event.getSocietyName(), event.getEventName(), event.getEventDate())
-            );
+            notifyApprover(dean, "Action Required: Event Permission Request",
+                    List.of("An event permission request requires your review."),
+                    details("Society", event.getSocietyName(),
+                            "Event", event.getEventName(),
+                            "Date", event.getEventDate()),
+                    ADMIN_PANEL_PROMPT);
         }
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void notifyPremisesOfficerForApproval(EventPermission event) {
-        List<AdminUser> officers = adminUserRepository.findByRole(AdminUser.Role.PREMISES_OFFICER);
+        List<AdminUser> officers = approverDirectory.findByRole(AdminUser.Role.PREMISES_OFFICER);
 
         for (AdminUser officer : officers) {
-            sendEmail(officer.getEmail(), "Action Required: Event Venue Approval",
-                    String.format(
-                            "Dear %s,\n\n" +
-                                    "The Faculty Dean has approved the event '%s'. It now requires your venue approval.\n\n" +
-                                    "Place: %s\nDate: %s\nTime: %s - %s\n\n" +
-                                    "Please log in to the SMS Admin Panel to review.\n" +
-                                    EMAIL_SIGNATURE,
-                            officer.getName(), event.getEventName(), event.getPlace(),
-                            event.getEventDate(), event.getTimeFrom(), event.getTimeTo())
-            );
+            notifyApprover(officer, "Action Required: Event Venue Approval",
+                    List.of("The Faculty Dean has approved the event '" + event.getEventName() + "'. It now requires your venue approval."),
+                    details("Place", event.getPlace(),
+                            "Date", event.getEventDate(),
+                            "Time", event.getTimeFrom() + " - " + event.getTimeTo()),
+                    ADMIN_PANEL_PROMPT);
         }
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void notifyAssistantRegistrarForEventApproval(EventPermission event) {
-        List<AdminUser> ars = adminUserRepository.findByRole(AdminUser.Role.ASSISTANT_REGISTRAR);
+        List<AdminUser> ars = approverDirectory.findByRole(AdminUser.Role.ASSISTANT_REGISTRAR);
 
         for (AdminUser ar : ars) {
-            sendEmail(ar.getEmail(), "Action Required: Event Permission Pending AR Approval",
-                    String.format(
-                            "Dear %s,\n\n" +
-                                    "The Premises Officer has approved the venue for '%s'. It now requires your approval.\n" +
-                                    EMAIL_SIGNATURE,
-                            ar.getName(), event.getEventName())
-            );
+            notifyApprover(ar, "Action Required: Event Permission Pending AR Approval",
+                    List.of("The Premises Officer has approved the venue for '" + event.getEventName() + "'. It now requires your approval."),
+                    null, null);
         }
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void notifyViceChancellorForEventApproval(EventPermission event) {
-        List<AdminUser> vcs = adminUserRepository.findByRole(AdminUser.Role.VICE_CHANCELLOR);
+        List<AdminUser> vcs = approverDirectory.findByRole(AdminUser.Role.VICE_CHANCELLOR);
 
         for (AdminUser vc : vcs) {
-            sendEmail(vc.getEmail(), "Action Required: Event Permission Pending VC Approval",
-                    String.format(
-                            "Dear %s,\n\n" +
-                                    "The Assistant Registrar has approved the event '%s'. It now requires your final approval.\n" +
-                                    EMAIL_SIGNATURE,
-                            vc.getName(), event.getEventName())
-            );
+            notifyApprover(vc, "Action Required: Event Permission Pending VC Approval",
+                    List.of("The Assistant Registrar has approved the event '" + event.getEventName() + "'. It now requires your final approval."),
+                    null, null);
         }
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void sendEventStatusUpdate(EventPermission event, String status, String adminRole) {
-        sendEmail(event.getApplicantEmail(), "Event Permission Status Update: " + status,
-                String.format(
-                        "Dear %s,\n\n" +
-                                "Your event permission request for '%s' has been updated.\n" +
-                                "New Status: %s\n" +
-                                "Updated By: %s\n\n" +
-                                "Please check the portal for details.\n" +
-                                EMAIL_SIGNATURE,
-                        event.getApplicantName(), event.getEventName(), status, adminRole)
-        );
+        sendNotification(event.getApplicantEmail(), "Event Permission Status Update: " + status,
+                event.getApplicantName(),
+                List.of("Your event permission request for '" + event.getEventName() + "' has been updated."),
+                details("New Status", status, "Updated By", adminRole),
+                "Please check the portal for details.");
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void sendEventRejectionNotification(EventPermission event) {
-        sendEmail(event.getApplicantEmail(), "Event Permission Request Rejected",
-                String.format(
-                        "Dear %s,\n\n" +
-                                "We regret to inform you that permission for your event '%s' has been rejected.\n" +
-                                "Reason: %s\n" +
-                                EMAIL_SIGNATURE,
-                        event.getApplicantName(), event.getEventName(), event.getRejectionReason())
-        );
+        sendNotification(event.getApplicantEmail(), "Event Permission Request Rejected",
+                event.getApplicantName(),
+                List.of("We regret to inform you that permission for your event '" + event.getEventName() + "' has been rejected."),
+                details("Reason", event.getRejectionReason()),
+                null);
     }
 
     // CHANGED TO PUBLIC
@@ -314,4 +289,100 @@ public class EmailService {
             System.err.println("Failed to send email to " + to + ": " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // Sends an already rendered template as a multipart/alternative (text + HTML) message
+    public void sendEmail(String to, String subject, RenderedEmail content) {
+        try {
+            send(to, subject, content);
+        } catch (Exception e) {
+            System.err.println("Failed to send email to " + to + ": " + e.getMessage());
+        }
+    }
+
+    private void send(String to, String subject, RenderedEmail content) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, StandardCharsets.UTF_8.name());
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(content.getText(), content.getHtml());
+        mailSender.send(message);
+    }
+
+    // Approvers on a digest schedule get the item buffered for the next summary email instead
+    private void notifyApprover(AdminUser approver, String subject,
+                                List<String> paragraphs, Map<String, Object> details, String closing) {
+        AdminUser.DigestMode mode = approver.getNotificationDigest();
+        if (mode == null || mode == AdminUser.DigestMode.IMMEDIATE) {
+            sendNotification(approver.getEmail(), subject, approver.getName(), paragraphs, details, closing);
+            return;
+        }
+
+        StringBuilder summary = new StringBuilder(String.join(" ", paragraphs));
+        if (details != null) {
+            details.forEach((label, value) -> summary.append(" | ").append(label).append(": ").append(value));
+        }
+
+        PendingNotification pending = new PendingNotification();
+        pending.setRecipientEmail(approver.getEmail());
+        pending.setRecipientName(approver.getName());
+        pending.setDigestMode(mode);
+        pending.setSubject(subject);
+        pending.setSummary(summary.toString());
+        try {
+            pendingNotificationRepository.save(pending);
+        } catch (Exception e) {
+            System.err.println("Failed to queue digest item for " + approver.getEmail() + ", sending now: " + e.getMessage());
+            sendNotification(approver.getEmail(), subject, approver.getName(), paragraphs, details, closing);
+        }
+    }
+
+    /**
+     * For the digest job: renders and sends on the calling thread, bypassing the coalescer,
+     * and throws if the message could not be handed to the mail server, so the caller only
+     * discards the buffered items once they have actually gone out.
+     */
+    void sendNotificationNow(String to, String subject, String recipientName,
+                             List<String> paragraphs, Map<String, Object> details, String closing)
+            throws MessagingException {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("name", recipientName);
+        variables.put("paragraphs", paragraphs);
+        variables.put("details", details);
+        variables.put("closing", closing);
+        send(to, subject, emailTemplateService.render(EmailTemplateService.NOTIFICATION, variables));
+    }
+
+    // Goes through the coalescer, which may merge it with other emails to the same address
+    void sendNotification(String to, String subject, String recipientName,
+                          List<String> paragraphs, Map<String, Object> details, String closing) {
+        notificationCoalescer.submit(to,
+                new NotificationSection(subject, recipientName, paragraphs, details, closing),
+                this::deliverSections);
+    }
+
+    private void deliverSections(String to, List<NotificationSection> sections) {
+        NotificationSection first = sections.get(0);
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("name", first.getRecipientName());
+
+        if (sections.size() == 1) {
+            variables.put("paragraphs", first.getParagraphs());
+            variables.put("details", first.getDetails());
+            variables.put("closing", first.getClosing());
+            sendEmail(to, first.getSubject(), emailTemplateService.render(EmailTemplateService.NOTIFICATION, variables));
+        } else {
+            variables.put("sections", sections);
+            String subject = first.getSubject() + " (+" + (sections.size() - 1) + " more)";
+            sendEmail(to, subject, emailTemplateService.render(EmailTemplateService.SECTIONS, variables));
+        }
+    }
+
+    // Builds an ordered label -> value map from alternating arguments
+    private static Map<String, Object> details(Object... labelsAndValues) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < labelsAndValues.length; i += 2) {
+            details.put(String.valueOf(labelsAndValues[i]), labelsAndValues[i + 1]);
+        }
+        return details;
+    }
+}
@@ -0,0 +1,78 @@
+package lk.ac.pdn.sms.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders the HTML and plain-text parts of outgoing emails from the templates
+ * under templates/email. Templates are parsed once and kept in the engine's
+ * cache, so each send only pays for evaluating the variables.
+ */
+@Service
+public class EmailTemplateService {
+
+    public static final String NOTIFICATION = "notification";
+    public static final String BULK = "bulk";
+    public static final String SECTIONS = "sections";
+
+    private static final String TEMPLATE_PREFIX = "templates/email/";
+    private static final List<String> TEMPLATES = List.of(NOTIFICATION, BULK, SECTIONS);
+
+    private final TemplateEngine templateEngine;
+
+    public EmailTemplateService() {
+        this.templateEngine = new TemplateEngine();
+        templateEngine.addTemplateResolver(resolver(TemplateMode.HTML, "*.html", 1));
+        templateEngine.addTemplateResolver(resolver(TemplateMode.TEXT, "*.txt", 2));
+    }
+
+    // Parse every template at startup so the first real email doesn't pay for it
+    @PostConstruct
+    public void warmUp() {
+        Map<String, Object> empty = Map.of("paragraphs", List.of(), "sections", List.of(), "bodyLines", List.of());
+        for (String name : TEMPLATES) {
+            render(name, empty);
+        }
+    }
+
+    public RenderedEmail render(String templateName, Map<String, Object> variables) {
+        Context context = new Context();
+        context.setVariables(variables);
+        return render(templateName, context);
+    }
+
+    // Callers sending many messages can keep one Context and just swap the variables that change
+    public RenderedEmail render(String templateName, Context context) {
+        String text = templateEngine.process(TEMPLATE_PREFIX + templateName + ".txt", context);
+        String html = templateEngine.process(TEMPLATE_PREFIX + templateName + ".html", context);
+        return new RenderedEmail(text, html);
+    }
+
+    private static ClassLoaderTemplateResolver resolver(TemplateMode mode, String pattern, int order) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setTemplateMode(mode);
+        resolver.setResolvablePatterns(Set.of(TEMPLATE_PREFIX + pattern));
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(true);
+        resolver.setOrder(order);
+        return resolver;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class RenderedEmail {
+        private final String text;
+        private final String html;
+    }
+}
@@ -1,36 +1,112 @@
 package lk.ac.pdn.sms.service;
 
 import org.springframework.stereotype.Service;
-import java.util.regex.Pattern;
 import java.util.List;
 import java.util.ArrayList;
 
+/**
+ * Format checks for emails, Sri Lankan mobile numbers and registration numbers. Each check
+ * is a single scan over the string with no allocation. They accept exactly what these
+ * patterns accepted (with Matcher.matches()), which ValidationBenchmarkService cross-checks:
+ *
+ *   email   ^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\.[a-zA-Z]{2,}$
+ *   mobile  ^(\+94|0)?[7][0-9]{8}$   after removing \s characters
+ *   reg no  ^(?=.*[a-zA-Z])(?=.*[0-9]).{5,}$
+ */
 @Service
 public class EmailValidationService {
-    
-    private static final Pattern EMAIL_PATTERN = Pattern.compile(
-        "^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$"
-    );
-    
-    private static final Pattern MOBILE_PATTERN = Pattern.compile(
-        "^(\\+94|0)?[7][0-9]{8}$"
-    );
-    
-    // Registration number must contain both letters and numbers
-    private static final Pattern REG_NO_PATTERN = Pattern.compile(
-        "^(?=.*[a-zA-Z])(?=.*[0-9]).{5,}$"
-    );
 
     public boolean isValidEmail(String email) {
-        return email != null && EMAIL_PATTERN.matcher(email).matches();
+        return email != null && scanEmail(email);
     }
     
     public boolean isValidMobile(String mobile) {
-        return mobile != null && MOBILE_PATTERN.matcher(mobile.replaceAll("\\s", "")).matches();
+        return mobile != null && scanMobile(mobile);
     }
     
     public boolean isValidRegistrationNumber(String regNo) {
-        return regNo != null && REG_NO_PATTERN.matcher(regNo).matches();
+        return regNo != null && scanRegistrationNumber(regNo);
+    }
+
+    // One '@' with a non-empty local part; the domain's last '.' has at least one character
+    // before it and two or more letters after it (a later '.' could never be followed by
+    // letters only, so the regex can only split at the last one)
+    static boolean scanEmail(String s) {
+        int len = s.length();
+        int at = -1;
+        int lastDot = -1;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (at < 0) {
+                if (c == '@') {
+                    if (i == 0) return false;
+                    at = i;
+                } else if (!isAsciiLetterOrDigit(c) && c != '.' && c != '_' && c != '%' && c != '+' && c != '-') {
+                    return false;
+                }
+            } else if (c == '.') {
+                lastDot = i;
+            } else if (!isAsciiLetterOrDigit(c) && c != '-') {
+                return false;
+            }
+        }
+        if (at < 0 || lastDot < at + 2 || len - lastDot - 1 < 2) return false;
+        for (int i = lastDot + 1; i < len; i++) {
+            if (!isAsciiLetter(s.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    // Whitespace is skipped; the remaining characters must be 7XXXXXXXX, 07XXXXXXXX or
+    // +947XXXXXXXX. All three shapes are tracked at once and the length picks the winner.
+    static boolean scanMobile(String s) {
+        boolean local = true;      // 7XXXXXXXX
+        boolean trunk = true;      // 07XXXXXXXX
+        boolean country = true;    // +947XXXXXXXX
+        int k = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (isRegexWhitespace(c)) continue;
+            if (k >= 12) return false;
+            boolean digit = c >= '0' && c <= '9';
+            local &= k == 0 ? c == '7' : digit;
+            trunk &= k == 0 ? c == '0' : k == 1 ? c == '7' : digit;
+            country &= k == 0 ? c == '+' : k == 1 ? c == '9' : k == 2 ? c == '4' : k == 3 ? c == '7' : digit;
+            if (!local && !trunk && !country) return false;
+            k++;
+        }
+        return (k == 9 && local) || (k == 10 && trunk) || (k == 12 && country);
+    }
+
+    // At least five code points, no line terminators (which '.' does not match), and at
+    // least one ASCII letter and one ASCII digit
+    static boolean scanRegistrationNumber(String s) {
+        int len = s.length();
+        int codePoints = 0;
+        boolean letter = false;
+        boolean digit = false;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') return false;
+            if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) i++;
+            letter |= isAsciiLetter(c);
+            digit |= c >= '0' && c <= '9';
+            codePoints++;
+        }
+        return codePoints >= 5 && letter && digit;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9');
+    }
+
+    // java.util.regex \s without UNICODE_CHARACTER_CLASS: [ \t\n\x0B\f\r]
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
     
     public List<String> validateSocietyOfficials(Object societyData) {
@@ -5,10 +5,11 @@ import lk.ac.pdn.sms.dto.ApprovalDto;
 import lk.ac.pdn.sms.dto.ApplicantDetailsDto;
 import lk.ac.pdn.sms.entity.EventPermission;
 import lk.ac.pdn.sms.entity.AdminUser;
+import lk.ac.pdn.sms.entity.AuditEvent;
+import lk.ac.pdn.sms.entity.OfficialKeys;
 import lk.ac.pdn.sms.entity.Society;
 import lk.ac.pdn.sms.repository.EventPermissionRepository;
 import lk.ac.pdn.sms.repository.SocietyRepository;
-import lk.ac.pdn.sms.repository.AdminUserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest; // <--- Added missing import
@@ -16,10 +17,14 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,10 +33,13 @@ public class EventPermissionService {
 
     @Autowired private EventPermissionRepository eventRepository;
     @Autowired private SocietyRepository societyRepository;
-    @Autowired private AdminUserRepository adminUserRepository;
     @Autowired private EmailService emailService;
     @Autowired private ActivityLogService activityLogService;
+    @Autowired private AuditTrailService auditTrailService;
+    @Autowired private CurrentAdminService currentAdminService;
     @Autowired private PDFService pdfService;
+    @Autowired private PdfCacheService pdfCacheService;
+    @Autowired private PdfDocumentService pdfDocumentService;
 
     // --- Auto-Fill Helper ---
     public ApplicantDetailsDto getApplicantDetails(String societyName, String position) {
@@ -106,6 +114,8 @@ public class EventPermissionService {
         event.setStatus(EventPermission.EventStatus.PENDING_DEAN);
 
         event = eventRepository.save(event);
+        auditTrailService.record(AuditEvent.Action.EVENT_SUBMITTED, AuditEvent.EntityType.EVENT_PERMISSION, event.getId(),
+                null, event.getApplicantEmail(), null, event);
 
         // Non-blocking email notification
         try {
@@ -124,8 +134,9 @@ public class EventPermissionService {
         EventPermission event = eventRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event request not found"));
 
-        AdminUser admin = adminUserRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("Admin user not found"));
+        AdminUser admin = currentAdminService.resolveByName(userEmail);
+        Map<String, Object> before = auditTrailService.snapshot(event);
+        AuditEvent.Action auditAction = null;
 
         boolean approved = false;
         String emailAction = "";
@@ -137,6 +148,7 @@ public class EventPermissionService {
                     event.setDeanApprovalDate(LocalDateTime.now());
                     event.setStatus(EventPermission.EventStatus.PENDING_PREMISES);
                     emailAction = "NOTIFY_PREMISES";
+                    auditAction = AuditEvent.Action.EVENT_APPROVED_DEAN;
                     approved = true;
                 } else {
                     throw new RuntimeException("Action Failed: Event is not pending Dean approval.");
@@ -149,6 +161,7 @@ public class EventPermissionService {
                     event.setPremisesApprovalDate(LocalDateTime.now());
                     event.setStatus(EventPermission.EventStatus.PENDING_AR);
                     emailAction = "NOTIFY_AR";
+                    auditAction = AuditEvent.Action.EVENT_APPROVED_PREMISES;
                     approved = true;
                 } else {
                     throw new RuntimeException("Action Failed: Event is not pending Premises approval.");
@@ -161,6 +174,7 @@ public class EventPermissionService {
                     event.setArApprovalDate(LocalDateTime.now());
                     event.setStatus(EventPermission.EventStatus.PENDING_VC);
                     emailAction = "NOTIFY_VC";
+                    auditAction = AuditEvent.Action.EVENT_APPROVED_AR;
                     approved = true;
                 } else {
                     throw new RuntimeException("Action Failed: Event is not pending AR approval.");
@@ -174,6 +188,7 @@ public class EventPermissionService {
                     event.setStatus(EventPermission.EventStatus.APPROVED);
                     event.setApprovedDate(LocalDateTime.now());
                     emailAction = "NOTIFY_FINAL";
+                    auditAction = AuditEvent.Action.EVENT_APPROVED_VC;
                     approved = true;
                 } else {
                     throw new RuntimeException("Action Failed: Event is not pending VC approval.");
@@ -186,7 +201,11 @@ public class EventPermissionService {
 
         if (approved) {
             event = eventRepository.save(event);
+            auditTrailService.record(auditAction, AuditEvent.EntityType.EVENT_PERMISSION, event.getId(), admin, null, before, event);
             activityLogService.logActivity("Event Approved", event.getEventName(), admin.getName());
+            if (event.getStatus() == EventPermission.EventStatus.APPROVED) {
+                pdfDocumentService.prerenderAfterCommit(PdfCacheService.DocumentType.EVENT, event.getId());
+            }
 
             // Non-blocking Email Notifications
             try {
@@ -203,12 +222,15 @@ public class EventPermissionService {
 
     public EventPermission rejectRequest(Long id, ApprovalDto dto, String userEmail) {
         EventPermission event = eventRepository.findById(id).orElseThrow(() -> new RuntimeException("Event not found"));
-        AdminUser admin = adminUserRepository.findByEmail(userEmail).orElseThrow(() -> new RuntimeException("Admin not found"));
+        AdminUser admin = currentAdminService.resolveByName(userEmail);
+        Map<String, Object> before = auditTrailService.snapshot(event);
 
         event.setStatus(EventPermission.EventStatus.REJECTED);
         event.setRejectionReason(dto.getReason());
 
         event = eventRepository.save(event);
+        auditTrailService.record(AuditEvent.Action.EVENT_REJECTED, AuditEvent.EntityType.EVENT_PERMISSION, event.getId(),
+                admin, null, before, event);
 
         try {
             emailService.sendEventRejectionNotification(event);
@@ -236,7 +258,7 @@ public class EventPermissionService {
     }
 
     public List<EventPermission> getPendingRequests(String faculty, String userEmail) {
-        AdminUser admin = adminUserRepository.findByEmail(userEmail).orElseThrow(() -> new RuntimeException("Admin not found"));
+        AdminUser admin = currentAdminService.resolveByName(userEmail);
         switch (admin.getRole()) {
             case DEAN: return eventRepository.findByStatusAndApplicantFaculty(EventPermission.EventStatus.PENDING_DEAN, admin.getFaculty());
             case PREMISES_OFFICER: return eventRepository.findByStatus(EventPermission.EventStatus.PENDING_PREMISES);
@@ -248,8 +270,11 @@ public class EventPermissionService {
 
     public Page<EventPermission> getAllRequests(Pageable pageable) { return eventRepository.findAll(pageable); }
 
-    public byte[] generateEventPDF(Long id) {
-        try { EventPermission event = eventRepository.findById(id).orElseThrow(); return pdfService.generateEventPermissionPDF(event); } catch (Exception e) { throw new RuntimeException("PDF Generation Failed"); }
+    // Streams the PDF for an already-loaded event, through the document cache
+    public void writeEventPDF(EventPermission event, OutputStream out) throws IOException {
+        String version = pdfCacheService.versionOf(PdfCacheService.DocumentType.EVENT, event);
+        pdfCacheService.write(PdfCacheService.DocumentType.EVENT, event.getId(), version,
+                pdfOut -> pdfService.writeEventPermissionPDF(event, pdfOut), out);
     }
 
     public byte[] generatePreviewPDF(EventPermissionDto dto) {
@@ -264,14 +289,12 @@ public class EventPermissionService {
     }
 
     public boolean validateApplicantPosition(String societyName, String position, String regNo, String email) {
-        ApplicantDetailsDto official = getApplicantDetails(societyName, position);
-        String normalizedInputReg = normalizeRegistrationNumber(regNo);
-        String normalizedOfficialReg = normalizeRegistrationNumber(official.getRegNo());
-        return normalizedInputReg.equals(normalizedOfficialReg) && official.getEmail().equalsIgnoreCase(email);
+        String regNoKey = OfficialKeys.regNo(regNo);
+        String emailKey = OfficialKeys.email(email);
+        if (societyName == null || position == null || regNoKey == null || emailKey == null) return false;
+        return societyRepository.isOfficial(societyName, position.trim().toLowerCase(Locale.ROOT), regNoKey, emailKey);
     }
 
-    private String normalizeRegistrationNumber(String regNo) { if (regNo == null) return ""; return regNo.toUpperCase().replaceAll("[\\s/]", ""); }
-
     public List<EventPermission> getUpcomingEvents(int limit) {
         // THIS IS WHERE THE ERROR WAS
         Pageable pageable = PageRequest.of(0, limit);
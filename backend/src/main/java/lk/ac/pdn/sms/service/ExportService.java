@@ -0,0 +1,257 @@
+package lk.ac.pdn.sms.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams activity logs and applications as CSV or NDJSON. Rows are read through a
+ * forward-only cursor and written to the output as they arrive, so memory use does not
+ * depend on how many rows are exported.
+ */
+@Service
+public class ExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    public enum ApplicationType { REGISTRATION, RENEWAL, EVENT }
+
+    private static final String LOG_COLUMNS = "id, timestamp, action, target, user_id, user_name";
+    private static final String REGISTRATION_COLUMNS = "id, society_name, year, applicant_full_name, applicant_reg_no, "
+            + "applicant_email, applicant_faculty, status, submitted_date, approved_date, rejection_reason";
+    private static final String RENEWAL_COLUMNS = "id, society_name, renewal_year, applicant_full_name, applicant_reg_no, "
+            + "applicant_email, applicant_faculty, status, submitted_date, approved_date, rejection_reason";
+    private static final String EVENT_COLUMNS = "id, society_name, event_name, event_date, place, applicant_name, "
+            + "applicant_reg_no, applicant_email, applicant_faculty, status, submitted_date, approved_date, rejection_reason";
+
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(DataSource dataSource,
+                         ObjectMapper objectMapper,
+                         Environment env,
+                         @Value("${app.export.fetch-size:500}") int fetchSize) {
+        this.objectMapper = objectMapper;
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        // Connector/J only honours a positive fetch size with server-side cursors
+        // (useCursorFetch=true); otherwise Integer.MIN_VALUE switches it to row streaming
+        String url = env.getProperty("spring.datasource.url", "");
+        this.cursorJdbcTemplate.setFetchSize(url.contains("useCursorFetch=true") ? fetchSize : Integer.MIN_VALUE);
+    }
+
+    public void exportActivityLogs(Format format, boolean gzip, String action, String userEmail,
+                                   LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        Query query = new Query("SELECT " + LOG_COLUMNS + " FROM activity_logs");
+        query.where("action = ?", action);
+        query.where("user_name = ?", userEmail);
+        query.where("timestamp >= ?", from != null ? Timestamp.valueOf(from) : null);
+        query.where("timestamp < ?", to != null ? Timestamp.valueOf(to) : null);
+        query.sql.append(" ORDER BY timestamp, id");
+        stream(query, format, gzip, out);
+    }
+
+    public void exportApplications(ApplicationType type, Format format, boolean gzip, String status, String faculty,
+                                   LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        Query query;
+        switch (type) {
+            case REGISTRATION:
+                query = new Query("SELECT " + REGISTRATION_COLUMNS + " FROM society_registration_applications");
+                break;
+            case RENEWAL:
+                query = new Query("SELECT " + RENEWAL_COLUMNS + " FROM society_renewals_applications");
+                break;
+            default:
+                query = new Query("SELECT " + EVENT_COLUMNS + " FROM event_permissions");
+                break;
+        }
+        query.where("status = ?", status);
+        query.where("applicant_faculty = ?", faculty);
+        query.where("submitted_date >= ?", from != null ? Timestamp.valueOf(from) : null);
+        query.where("submitted_date < ?", to != null ? Timestamp.valueOf(to) : null);
+        query.sql.append(" ORDER BY id");
+        stream(query, format, gzip, out);
+    }
+
+    private void stream(Query query, Format format, boolean gzip, OutputStream out) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8));
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer, objectMapper);
+
+        try {
+            cursorJdbcTemplate.query(query.sql.toString(), rowWriter, query.args.toArray());
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download
+            throw e.getCause();
+        }
+
+        rowWriter.finish();
+        writer.flush();
+        if (gzip) ((GZIPOutputStream) target).finish();
+    }
+
+    // --- Row writers ---
+
+    private abstract static class RowWriter implements RowCallbackHandler {
+        protected final Writer writer;
+        protected String[] columns;
+
+        RowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                if (columns == null) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    columns = new String[meta.getColumnCount()];
+                    for (int i = 0; i < columns.length; i++) {
+                        columns[i] = meta.getColumnLabel(i + 1);
+                    }
+                    writeHeader();
+                }
+                writeRow(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+        }
+
+        void writeHeader() throws IOException {
+        }
+
+        abstract void writeRow(ResultSet rs) throws SQLException, IOException;
+
+        static Object value(ResultSet rs, int column) throws SQLException {
+            Object value = rs.getObject(column);
+            if (value instanceof Timestamp) return ((Timestamp) value).toLocalDateTime().toString();
+            if (value instanceof java.sql.Date) return value.toString();
+            if (value instanceof java.sql.Time) return value.toString();
+            return value;
+        }
+    }
+
+    private static final class CsvRowWriter extends RowWriter {
+
+        CsvRowWriter(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void writeHeader() throws IOException {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) writer.write(',');
+                writer.write(columns[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        void writeRow(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) writer.write(',');
+                Object value = value(rs, i + 1);
+                if (value != null) writeField(value.toString());
+            }
+            writer.write("\r\n");
+        }
+
+        // RFC 4180 quoting; values that a spreadsheet would treat as formulas get a leading quote
+        private void writeField(String field) throws IOException {
+            boolean formula = !field.isEmpty() && "=+-@".indexOf(field.charAt(0)) >= 0;
+            boolean quote = formula;
+            for (int i = 0; i < field.length() && !quote; i++) {
+                char c = field.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(field);
+                return;
+            }
+            writer.write('"');
+            if (formula) writer.write('\'');
+            for (int i = 0; i < field.length(); i++) {
+                char c = field.charAt(i);
+                if (c == '"') writer.write('"');
+                writer.write(c);
+            }
+            writer.write('"');
+        }
+    }
+
+    private static final class NdjsonRowWriter extends RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer, ObjectMapper objectMapper) throws IOException {
+            super(writer);
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void writeRow(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                generator.writeFieldName(columns[i]);
+                Object value = value(rs, i + 1);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Boolean) {
+                    generator.writeBoolean((Boolean) value);
+                } else if (value instanceof Number) {
+                    generator.writeNumber(value.toString());
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class Query {
+        private final StringBuilder sql;
+        private final List<Object> args = new ArrayList<>();
+        private boolean hasWhere;
+
+        private Query(String select) {
+            this.sql = new StringBuilder(select);
+        }
+
+        // Adds the condition only when a value was supplied
+        private void where(String condition, Object value) {
+            if (value == null || (value instanceof String && ((String) value).isBlank())) return;
+            sql.append(hasWhere ? " AND " : " WHERE ").append(condition);
+            args.add(value instanceof String ? ((String) value).trim() : value);
+            hasWhere = true;
+        }
+    }
+}
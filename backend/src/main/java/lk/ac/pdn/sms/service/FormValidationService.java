@@ -0,0 +1,259 @@
+package lk.ac.pdn.sms.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lk.ac.pdn.sms.dto.EventPermissionDto;
+import lk.ac.pdn.sms.dto.SocietyRegistrationDto;
+import lk.ac.pdn.sms.dto.SocietyRenewalDto;
+import lk.ac.pdn.sms.repository.SocietyRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Whole-form validation for the registration, renewal and event permission forms, so the
+ * frontend can check a complete form in one request instead of one call per field.
+ *
+ * Errors are keyed by JSON path ("$.presidentEmail", "$.member[12].regNo") and cover the
+ * DTO's Bean Validation constraints, the per-field format rules used by ValidationController
+ * (applied by field name: *Email, *Mobile, *RegNo) and cross-field rules such as officials
+ * sharing a registration number or already holding office in another society (looked up in
+ * OfficerConflictIndex). The DTO is converted to a JSON tree once and every rule
+ * reads from that tree.
+ */
+@Service
+public class FormValidationService {
+
+    private static final String INVALID_EMAIL = "Invalid email format";
+    private static final String INVALID_MOBILE = "Invalid Sri Lankan mobile number format (e.g., 0771234567)";
+    private static final String INVALID_REG_NO = "Registration number must contain both letters and numbers";
+
+    private static final String[] OFFICIALS = {
+            "president", "vicePresident", "secretary", "jointSecretary", "juniorTreasurer", "editor"
+    };
+
+    // SocietyRegistrationDto carries no constraints of its own; these mirror SocietyRenewalDto's
+    private static final List<String> REGISTRATION_REQUIRED = registrationRequired();
+
+    private final EmailValidationService emailValidationService;
+    private final SocietyRepository societyRepository;
+    private final OfficerConflictIndex officerConflictIndex;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    public FormValidationService(EmailValidationService emailValidationService,
+                                 SocietyRepository societyRepository,
+                                 OfficerConflictIndex officerConflictIndex,
+                                 Validator validator,
+                                 ObjectMapper objectMapper) {
+        this.emailValidationService = emailValidationService;
+        this.societyRepository = societyRepository;
+        this.officerConflictIndex = officerConflictIndex;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+    }
+
+    public Map<String, Object> validateRegistration(SocietyRegistrationDto dto) {
+        Walk walk = walk(dto);
+        for (String field : REGISTRATION_REQUIRED) {
+            if (isBlank(walk.root.path(field))) walk.add("$." + field, "This field is required");
+        }
+        checkOfficials(walk);
+        checkDuplicateRegNos(walk, "member");
+        checkDuplicateRegNos(walk, "committeeMember");
+
+        String agmDate = dto.getAgmDate();
+        if (agmDate != null && !agmDate.isBlank()) {
+            LocalDate date = parseDate(walk, "$.agmDate", agmDate);
+            if (date != null && date.isAfter(LocalDate.now())) walk.add("$.agmDate", "AGM date cannot be in the future");
+        }
+        if (dto.getSocietyName() != null && !dto.getSocietyName().isBlank()
+                && societyRepository.existsBySocietyNameAndYear(dto.getSocietyName(), LocalDate.now().getYear())) {
+            walk.add("$.societyName", "Society already registered for this year");
+        }
+        return walk.result();
+    }
+
+    public Map<String, Object> validateRenewal(SocietyRenewalDto dto) {
+        Walk walk = walk(dto);
+        checkOfficials(walk);
+        checkDuplicateRegNos(walk, "member");
+        checkDuplicateRegNos(walk, "committeeMember");
+
+        if (dto.getAgmDate() != null && dto.getAgmDate().isAfter(LocalDate.now())) {
+            walk.add("$.agmDate", "AGM date cannot be in the future");
+        }
+        return walk.result();
+    }
+
+    public Map<String, Object> validateEvent(EventPermissionDto dto) {
+        Walk walk = walk(dto);
+
+        if (dto.getEventDate() != null && !dto.getEventDate().isBlank()) {
+            LocalDate date = parseDate(walk, "$.eventDate", dto.getEventDate());
+            if (date != null && date.isBefore(LocalDate.now())) walk.add("$.eventDate", "Event cannot be in the past");
+        }
+        LocalTime from = parseTime(walk, "$.timeFrom", dto.getTimeFrom());
+        LocalTime to = parseTime(walk, "$.timeTo", dto.getTimeTo());
+        if (from != null && to != null && !to.isAfter(from)) {
+            walk.add("$.timeTo", "End time must be after start time");
+        }
+        if (Boolean.TRUE.equals(dto.getOutsidersInvited()) && isBlank(walk.root.path("outsidersList"))) {
+            walk.add("$.outsidersList", "List the outsiders who are invited");
+        }
+        if (dto.getPaymentDate() != null && !dto.getPaymentDate().isBlank()) {
+            parseDate(walk, "$.paymentDate", dto.getPaymentDate());
+        }
+        return walk.result();
+    }
+
+    // --- Single pass: constraints, then per-field formats over the JSON tree ---
+
+    private Walk walk(Object dto) {
+        Walk walk = new Walk(objectMapper.valueToTree(dto));
+        for (ConstraintViolation<Object> violation : validator.validate(dto)) {
+            walk.add("$." + violation.getPropertyPath(), violation.getMessage());
+        }
+        visit(walk, walk.root, "$", null);
+        return walk;
+    }
+
+    private void visit(Walk walk, JsonNode node, String path, String field) {
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> entry = fields.next();
+                visit(walk, entry.getValue(), path + "." + entry.getKey(), entry.getKey());
+            }
+        } else if (node.isArray()) {
+            for (int i = 0; i < node.size(); i++) {
+                visit(walk, node.get(i), path + "[" + i + "]", null);
+            }
+        } else if (node.isTextual() && field != null && !node.asText().isBlank() && !walk.errors.containsKey(path)) {
+            // Fields already failing a constraint (e.g. @Email) don't get a second format message
+            String value = node.asText().trim();
+            if (field.endsWith("Email") || field.equals("email")) {
+                if (!emailValidationService.isValidEmail(value)) walk.add(path, INVALID_EMAIL);
+            } else if (field.endsWith("Mobile")) {
+                if (!emailValidationService.isValidMobile(value)) walk.add(path, INVALID_MOBILE);
+            } else if (field.endsWith("RegNo") || field.equals("regNo")) {
+                if (!emailValidationService.isValidRegistrationNumber(value)) walk.add(path, INVALID_REG_NO);
+            }
+        }
+    }
+
+    // --- Cross-field rules ---
+
+    // One person cannot hold two offices: officials' registration numbers and emails must differ,
+    // and nobody may already be an official of another society this year
+    private void checkOfficials(Walk walk) {
+        Map<String, String> regNos = new HashMap<>();
+        Map<String, String> emails = new HashMap<>();
+        String societyName = walk.root.path("societyName").asText(null);
+        int year = LocalDate.now().getYear();
+        for (String official : OFFICIALS) {
+            checkUnique(walk, regNos, official + "RegNo", "Registration number is also used by ");
+            checkUnique(walk, emails, official + "Email", "Email is also used by ");
+
+            List<OfficerConflictIndex.Holding> conflicts = officerConflictIndex.findConflicts(
+                    walk.root.path(official + "RegNo").asText(null),
+                    walk.root.path(official + "Email").asText(null), societyName, year);
+            for (OfficerConflictIndex.Holding holding : conflicts) {
+                walk.add("$." + official + "RegNo", "Already " + holding.getPosition() + " of "
+                        + holding.getSocietyName() + " for " + holding.getYear());
+            }
+        }
+    }
+
+    private void checkUnique(Walk walk, Map<String, String> seen, String field, String message) {
+        JsonNode value = walk.root.path(field);
+        if (isBlank(value)) return;
+        String key = value.asText().trim().toUpperCase(Locale.ROOT);
+        String first = seen.putIfAbsent(key, "$." + field);
+        if (first != null) walk.add("$." + field, message + first);
+    }
+
+    private void checkDuplicateRegNos(Walk walk, String list) {
+        JsonNode members = walk.root.path(list);
+        Map<String, Integer> seen = new HashMap<>();
+        for (int i = 0; i < members.size(); i++) {
+            JsonNode regNo = members.get(i).path("regNo");
+            if (isBlank(regNo)) continue;
+            Integer first = seen.putIfAbsent(regNo.asText().trim().toUpperCase(Locale.ROOT), i);
+            if (first != null) {
+                walk.add("$." + list + "[" + i + "].regNo", "Duplicate of $." + list + "[" + first + "].regNo");
+            }
+        }
+    }
+
+    private static LocalDate parseDate(Walk walk, String path, String value) {
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            walk.add(path, "Invalid date, expected YYYY-MM-DD");
+            return null;
+        }
+    }
+
+    private static LocalTime parseTime(Walk walk, String path, String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return LocalTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            walk.add(path, "Invalid time, expected HH:mm");
+            return null;
+        }
+    }
+
+    private static boolean isBlank(JsonNode node) {
+        return node.isMissingNode() || node.isNull() || node.asText().isBlank();
+    }
+
+    private static List<String> registrationRequired() {
+        List<String> fields = new ArrayList<>(List.of(
+                "applicantFullName", "applicantRegNo", "applicantEmail", "applicantFaculty", "applicantMobile",
+                "societyName", "aims", "agmDate", "bankAccount", "bankName",
+                "seniorTreasurerTitle", "seniorTreasurerFullName", "seniorTreasurerDesignation",
+                "seniorTreasurerDepartment", "seniorTreasurerEmail", "seniorTreasurerAddress", "seniorTreasurerMobile"));
+        for (String official : OFFICIALS) {
+            for (String suffix : new String[]{"RegNo", "Name", "Address", "Email", "Mobile"}) {
+                fields.add(official + suffix);
+            }
+        }
+        return List.copyOf(fields);
+    }
+
+    private static final class Walk {
+        private final JsonNode root;
+        private final Map<String, List<String>> errors = new LinkedHashMap<>();
+        private int count;
+
+        private Walk(JsonNode root) {
+            this.root = root;
+        }
+
+        private void add(String path, String message) {
+            errors.computeIfAbsent(path, p -> new ArrayList<>(2)).add(message);
+            count++;
+        }
+
+        private Map<String, Object> result() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("isValid", count == 0);
+            result.put("errorCount", count);
+            result.put("errors", errors);
+            return result;
+        }
+    }
+}
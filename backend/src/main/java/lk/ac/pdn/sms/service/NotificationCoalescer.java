@@ -0,0 +1,122 @@
+package lk.ac.pdn.sms.service;
+
+import jakarta.annotation.PreDestroy;
+import lk.ac.pdn.sms.config.AsyncConfig;
+import lk.ac.pdn.sms.dto.NotificationSection;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Holds notifications for a short window per recipient so that several emails to the
+ * same address (e.g. a status update followed by a rejection seconds later) go out as
+ * one message with a section per notification. A window of 0 disables coalescing.
+ */
+@Service
+public class NotificationCoalescer {
+
+    private final TaskScheduler taskScheduler;
+    private final AsyncTaskExecutor emailExecutor;
+    private final Duration window;
+
+    private final Map<String, Batch> pending = new ConcurrentHashMap<>();
+    private final AtomicLong notificationsIn = new AtomicLong();
+    private final AtomicLong messagesOut = new AtomicLong();
+
+    public NotificationCoalescer(TaskScheduler taskScheduler,
+                                 @Qualifier(AsyncConfig.EMAIL_EXECUTOR) AsyncTaskExecutor emailExecutor,
+                                 @Value("${app.notifications.coalesce-window-ms:5000}") long windowMillis) {
+        this.taskScheduler = taskScheduler;
+        this.emailExecutor = emailExecutor;
+        this.window = Duration.ofMillis(Math.max(0, windowMillis));
+    }
+
+    /**
+     * Queues a section for {@code recipient}. The first section for an address opens the
+     * window; when it closes, {@code delivery} receives every section collected for it.
+     */
+    public void submit(String recipient, NotificationSection section,
+                       BiConsumer<String, List<NotificationSection>> delivery) {
+        if (recipient == null) return;
+        notificationsIn.incrementAndGet();
+
+        if (window.isZero()) {
+            messagesOut.incrementAndGet();
+            delivery.accept(recipient, List.of(section));
+            return;
+        }
+
+        String key = recipient.trim().toLowerCase();
+        boolean[] opened = {false};
+        pending.compute(key, (k, batch) -> {
+            if (batch == null) {
+                batch = new Batch(recipient, delivery);
+                opened[0] = true;
+            }
+            batch.sections.add(section);
+            return batch;
+        });
+
+        if (opened[0]) {
+            taskScheduler.schedule(() -> flush(key), Instant.now().plus(window));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("windowMillis", window.toMillis());
+        stats.put("notificationsIn", notificationsIn.get());
+        stats.put("messagesOut", messagesOut.get());
+        stats.put("pendingRecipients", pending.size());
+        return stats;
+    }
+
+    // Sends whatever is still buffered so nothing is lost on shutdown
+    @PreDestroy
+    public void flushAll() {
+        for (String key : new ArrayList<>(pending.keySet())) {
+            Batch batch = pending.remove(key);
+            if (batch != null) deliver(batch);
+        }
+    }
+
+    private void flush(String key) {
+        Batch batch = pending.remove(key);
+        if (batch != null) {
+            emailExecutor.execute(() -> deliver(batch));
+        }
+    }
+
+    private void deliver(Batch batch) {
+        messagesOut.incrementAndGet();
+        try {
+            batch.delivery.accept(batch.recipient, batch.sections);
+        } catch (Exception e) {
+            System.err.println("Failed to deliver coalesced email to " + batch.recipient + ": " + e.getMessage());
+        }
+    }
+
+    private static final class Batch {
+        private final String recipient;
+        private final BiConsumer<String, List<NotificationSection>> delivery;
+        // Only mutated inside ConcurrentHashMap.compute, read after the batch is removed
+        private final List<NotificationSection> sections = new ArrayList<>();
+
+        private Batch(String recipient, BiConsumer<String, List<NotificationSection>> delivery) {
+            this.recipient = recipient;
+            this.delivery = delivery;
+        }
+    }
+}
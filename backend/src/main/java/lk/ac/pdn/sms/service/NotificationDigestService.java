@@ -0,0 +1,106 @@
+package lk.ac.pdn.sms.service;
+
+import lk.ac.pdn.sms.entity.AdminUser;
+import lk.ac.pdn.sms.entity.PendingNotification;
+import lk.ac.pdn.sms.repository.PendingNotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Flushes the pending_notifications buffer for approvers who opted into hourly
+ * or daily digests: every buffered item for a recipient goes out as one summary email.
+ *
+ * Each run first claims the items created before the minute it started in one UPDATE, so
+ * when every node fires the same cron only one of them sends a given approver's summary.
+ * Summaries are sent directly rather than through the coalescer, and a recipient's items
+ * are deleted only after their email was accepted by the mail server; on failure they are
+ * released for the next run. Claims left by a node that died mid-run expire after
+ * app.notifications.digest.claim-timeout-minutes.
+ */
+@Service
+public class NotificationDigestService {
+
+    private final PendingNotificationRepository pendingNotificationRepository;
+    private final EmailService emailService;
+    private final long claimTimeoutMinutes;
+
+    public NotificationDigestService(PendingNotificationRepository pendingNotificationRepository,
+                                     EmailService emailService,
+                                     @Value("${app.notifications.digest.claim-timeout-minutes:30}") long claimTimeoutMinutes) {
+        this.pendingNotificationRepository = pendingNotificationRepository;
+        this.emailService = emailService;
+        this.claimTimeoutMinutes = claimTimeoutMinutes;
+    }
+
+    @Scheduled(cron = "${app.notifications.digest.hourly-cron:0 0 * * * *}")
+    public void sendHourlyDigests() {
+        sendDigests(AdminUser.DigestMode.HOURLY);
+    }
+
+    @Scheduled(cron = "${app.notifications.digest.daily-cron:0 0 7 * * *}")
+    public void sendDailyDigests() {
+        sendDigests(AdminUser.DigestMode.DAILY);
+    }
+
+    public int sendDigests(AdminUser.DigestMode mode) {
+        LocalDateTime now = LocalDateTime.now();
+        // Every node computes the same cutoff for the same cron firing
+        LocalDateTime cutoff = now.truncatedTo(ChronoUnit.MINUTES);
+        String token = UUID.randomUUID().toString();
+        int claimed = pendingNotificationRepository.claim(mode, cutoff, token, now, now.minusMinutes(claimTimeoutMinutes));
+        if (claimed == 0) return 0;
+
+        List<PendingNotification> pending =
+                pendingNotificationRepository.findByClaimedByOrderByRecipientEmailAscCreatedAtAsc(token);
+
+        // Rows are already ordered by recipient, so a LinkedHashMap keeps them grouped
+        Map<String, List<PendingNotification>> byRecipient = new LinkedHashMap<>();
+        for (PendingNotification item : pending) {
+            byRecipient.computeIfAbsent(item.getRecipientEmail(), k -> new ArrayList<>()).add(item);
+        }
+
+        int sent = 0;
+        for (Map.Entry<String, List<PendingNotification>> entry : byRecipient.entrySet()) {
+            List<PendingNotification> items = entry.getValue();
+            List<String> paragraphs = new ArrayList<>();
+            paragraphs.add(items.size() + " item(s) have required your attention since the last summary:");
+            for (PendingNotification item : items) {
+                paragraphs.add("- " + item.getSubject() + ": " + item.getSummary());
+            }
+
+            try {
+                emailService.sendNotificationNow(
+                        entry.getKey(),
+                        "Action Required: " + items.size() + " pending item(s) - " + mode.name().toLowerCase() + " summary",
+                        items.get(0).getRecipientName(),
+                        paragraphs,
+                        null,
+                        "Please log in to the SMS Admin Panel to review."
+                );
+            } catch (Exception e) {
+                System.err.println("Failed to send " + mode.name().toLowerCase() + " digest to " + entry.getKey()
+                        + ", keeping " + items.size() + " item(s) for the next run: " + e.getMessage());
+                pendingNotificationRepository.release(token, ids(items));
+                continue;
+            }
+            pendingNotificationRepository.deleteAllInBatch(items);
+            sent++;
+        }
+        return sent;
+    }
+
+    private static List<Long> ids(List<PendingNotification> items) {
+        List<Long> ids = new ArrayList<>(items.size());
+        for (PendingNotification item : items) ids.add(item.getId());
+        return ids;
+    }
+}
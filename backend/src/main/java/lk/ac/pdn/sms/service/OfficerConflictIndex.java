@@ -0,0 +1,242 @@
+package lk.ac.pdn.sms.service;
+
+import lk.ac.pdn.sms.entity.OfficialKeys;
+import lk.ac.pdn.sms.entity.Society;
+import lk.ac.pdn.sms.entity.SocietyChangedEvent;
+import lk.ac.pdn.sms.entity.SocietyId;
+import lk.ac.pdn.sms.repository.SocietyRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse index of society officials: normalized registration number or email to every
+ * (society, position, year) that person holds. Lets the forms and admins ask "who else is
+ * this person an official of?" with a hash lookup instead of scanning every society row's
+ * official columns.
+ *
+ * Built from the societies table once the application is ready and kept current from the
+ * SocietyChangedEvents that Society's entity listener publishes, applied after each
+ * transaction commits. Those events only cover writes made through this instance, so the
+ * index is also rebuilt every app.officer-index.reload-interval-ms to pick up the others'.
+ * Reads are lock-free: every key maps to an immutable list that is replaced, not modified,
+ * on write, and a rebuild swaps in complete new maps.
+ */
+@Service
+public class OfficerConflictIndex {
+
+    private final SocietyRepository societyRepository;
+
+    private volatile Map<String, List<Holding>> byRegNo = new ConcurrentHashMap<>();
+    private volatile Map<String, List<Holding>> byEmail = new ConcurrentHashMap<>();
+
+    // Keys each society row contributed, so a write can take its old entries out; guarded by this
+    private Map<SocietyId, List<Holding>> bySociety = new HashMap<>();
+
+    private volatile long rebuiltAt;
+    private volatile long updates;
+
+    public OfficerConflictIndex(SocietyRepository societyRepository) {
+        this.societyRepository = societyRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        reload();
+        System.out.println("Officer index built: " + getStats().get("societies") + " societies, "
+                + byRegNo.size() + " registration numbers, " + byEmail.size() + " emails");
+    }
+
+    @Scheduled(fixedDelayString = "${app.officer-index.reload-interval-ms:60000}",
+            initialDelayString = "${app.officer-index.reload-interval-ms:60000}")
+    public void reloadPeriodically() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // Keeps serving the previous index
+            System.err.println("Officer index reload failed: " + e.getMessage());
+        }
+    }
+
+    // Builds new maps off to the side, so readers see the old index until the swap. Holding the
+    // lock throughout makes committed writes that arrive meanwhile apply to the new maps.
+    private synchronized void reload() {
+        Map<String, List<Holding>> regNos = new ConcurrentHashMap<>();
+        Map<String, List<Holding>> emails = new ConcurrentHashMap<>();
+        Map<SocietyId, List<Holding>> societies = new HashMap<>();
+        for (Society society : societyRepository.findAll()) {
+            put(society, regNos, emails, societies);
+        }
+        byRegNo = regNos;
+        byEmail = emails;
+        bySociety = societies;
+        rebuiltAt = System.currentTimeMillis();
+    }
+
+    public synchronized void put(Society society) {
+        put(society, byRegNo, byEmail, bySociety);
+        updates++;
+    }
+
+    public synchronized void remove(String societyName, Integer year) {
+        removeEntries(bySociety.remove(new SocietyId(societyName, year)), byRegNo, byEmail);
+        updates++;
+    }
+
+    private static void put(Society society, Map<String, List<Holding>> byRegNo, Map<String, List<Holding>> byEmail,
+                            Map<SocietyId, List<Holding>> bySociety) {
+        SocietyId id = new SocietyId(society.getSocietyName(), society.getYear());
+        removeEntries(bySociety.remove(id), byRegNo, byEmail);
+
+        List<Holding> holdings = new ArrayList<>(7);
+        String status = society.getStatus() != null ? society.getStatus().name() : null;
+        add(holdings, society, status, "President", society.getPresidentRegNo(), society.getPresidentEmail());
+        add(holdings, society, status, "Vice President", society.getVicePresidentRegNo(), society.getVicePresidentEmail());
+        add(holdings, society, status, "Secretary", society.getSecretaryRegNo(), society.getSecretaryEmail());
+        add(holdings, society, status, "Joint Secretary", society.getJointSecretaryRegNo(), society.getJointSecretaryEmail());
+        add(holdings, society, status, "Junior Treasurer", society.getJuniorTreasurerRegNo(), society.getJuniorTreasurerEmail());
+        add(holdings, society, status, "Editor", society.getEditorRegNo(), society.getEditorEmail());
+        // Senior treasurers are staff: no registration number
+        add(holdings, society, status, "Senior Treasurer", null, society.getSeniorTreasurerEmail());
+
+        for (Holding holding : holdings) {
+            if (holding.regNo != null) append(byRegNo, holding.regNo, holding);
+            if (holding.email != null) append(byEmail, holding.email, holding);
+        }
+        bySociety.put(id, holdings);
+    }
+
+    public List<Holding> findByRegNo(String regNo) {
+        String key = OfficialKeys.regNo(regNo);
+        return key == null ? List.of() : byRegNo.getOrDefault(key, List.of());
+    }
+
+    public List<Holding> findByEmail(String email) {
+        String key = OfficialKeys.email(email);
+        return key == null ? List.of() : byEmail.getOrDefault(key, List.of());
+    }
+
+    /**
+     * Offices held in the given year by the person with this registration number or email,
+     * other than in excludeSociety (the society whose form is being filled in).
+     */
+    public List<Holding> findConflicts(String regNo, String email, String excludeSociety, int year) {
+        List<Holding> conflicts = new ArrayList<>();
+        collectConflicts(findByRegNo(regNo), excludeSociety, year, conflicts);
+        collectConflicts(findByEmail(email), excludeSociety, year, conflicts);
+        return conflicts;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("societies", bySociety.size());
+        }
+        stats.put("registrationNumbers", byRegNo.size());
+        stats.put("emails", byEmail.size());
+        stats.put("updates", updates);
+        stats.put("rebuiltAt", rebuiltAt);
+        return stats;
+    }
+
+    // After commit, so a rolled-back write never reaches the index
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSocietyChanged(SocietyChangedEvent event) {
+        Society society = event.getSociety();
+        if (event.isRemoved()) {
+            remove(society.getSocietyName(), society.getYear());
+        } else {
+            put(society);
+        }
+    }
+
+    private static void add(List<Holding> holdings, Society society, String status, String position,
+                            String regNo, String email) {
+        String regKey = OfficialKeys.regNo(regNo);
+        String emailKey = OfficialKeys.email(email);
+        if (regKey == null && emailKey == null) return;
+        holdings.add(new Holding(society.getSocietyName(), society.getYear(), position, status, regKey, emailKey));
+    }
+
+    private static void removeEntries(List<Holding> holdings, Map<String, List<Holding>> byRegNo,
+                                      Map<String, List<Holding>> byEmail) {
+        if (holdings == null) return;
+        for (Holding holding : holdings) {
+            if (holding.regNo != null) detach(byRegNo, holding.regNo, holding);
+            if (holding.email != null) detach(byEmail, holding.email, holding);
+        }
+    }
+
+    private static void append(Map<String, List<Holding>> index, String key, Holding holding) {
+        index.compute(key, (k, current) -> {
+            List<Holding> next = new ArrayList<>(current == null ? 1 : current.size() + 1);
+            if (current != null) next.addAll(current);
+            next.add(holding);
+            return List.copyOf(next);
+        });
+    }
+
+    private static void detach(Map<String, List<Holding>> index, String key, Holding holding) {
+        index.computeIfPresent(key, (k, current) -> {
+            List<Holding> next = new ArrayList<>(current);
+            next.remove(holding);
+            return next.isEmpty() ? null : List.copyOf(next);
+        });
+    }
+
+    private static void collectConflicts(List<Holding> holdings, String excludeSociety, int year, List<Holding> out) {
+        for (Holding holding : holdings) {
+            if (!Objects.equals(holding.year, year)) continue;
+            if (excludeSociety != null && holding.societyName.equalsIgnoreCase(excludeSociety.trim())) continue;
+            if (!out.contains(holding)) out.add(holding);
+        }
+    }
+
+    /**
+     * One office held by one person. Equality is by identity: the same person listed twice
+     * in one society (a data error) yields two holdings.
+     */
+    public static final class Holding {
+        private final String societyName;
+        private final Integer year;
+        private final String position;
+        private final String status;
+        private final String regNo;
+        private final String email;
+
+        private Holding(String societyName, Integer year, String position, String status, String regNo, String email) {
+            this.societyName = societyName;
+            this.year = year;
+            this.position = position;
+            this.status = status;
+            this.regNo = regNo;
+            this.email = email;
+        }
+
+        public String getSocietyName() {
+            return societyName;
+        }
+
+        public Integer getYear() {
+            return year;
+        }
+
+        public String getPosition() {
+            return position;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+    }
+}
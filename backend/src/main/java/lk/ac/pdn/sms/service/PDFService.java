@@ -1,59 +1,539 @@
 package lk.ac.pdn.sms.service;
 
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.BaseFont;
+import com.itextpdf.text.pdf.ColumnText;
+import com.itextpdf.text.pdf.PdfContentByte;
+import com.itextpdf.text.pdf.PdfGState;
+import com.itextpdf.text.pdf.PdfImportedPage;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfPageEventHelper;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
 import lk.ac.pdn.sms.dto.SocietyRegistrationDto;
+import lk.ac.pdn.sms.entity.EventPermission;
+import lk.ac.pdn.sms.entity.RegistrationAdvisoryBoardMember;
+import lk.ac.pdn.sms.entity.RegistrationCommitteeMember;
+import lk.ac.pdn.sms.entity.RegistrationGeneralMember;
+import lk.ac.pdn.sms.entity.RegistrationPlanningEvent;
 import lk.ac.pdn.sms.entity.SocietyRegistration;
 import lk.ac.pdn.sms.entity.SocietyRenewal;
-import lk.ac.pdn.sms.entity.EventPermission;
+import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Renders registration, renewal and event permission forms with iText.
+ *
+ * Everything that is the same on every page of every document - the university header,
+ * footer rule and watermark - is drawn once at startup into a one-page letterhead PDF.
+ * Each document imports that page as a form XObject and stamps it under every page, so
+ * only the application's own fields are laid out per request. Fonts and the header rows
+ * of the tables are likewise built once and copied.
+ */
 @Service
 public class PDFService {
 
+    private static final float MARGIN = 50f;
+    private static final float HEADER_HEIGHT = 95f;
+    private static final float FOOTER_HEIGHT = 45f;
+
+    private static final BaseColor SECTION_BACKGROUND = new BaseColor(230, 236, 245);
+    private static final BaseColor TABLE_HEADER_BACKGROUND = new BaseColor(242, 242, 242);
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd MMM yyyy");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm");
+
+    private static final Font TITLE_FONT;
+    private static final Font SECTION_FONT;
+    private static final Font LABEL_FONT;
+    private static final Font VALUE_FONT;
+    private static final Font SMALL_FONT;
+
+    // Header-only table skeletons, copied per document with new PdfPTable(skeleton)
+    private static final PdfPTable DETAILS_SKELETON;
+    private static final PdfPTable OFFICIALS_SKELETON;
+    private static final PdfPTable APPROVALS_SKELETON;
+
+    private static final byte[] LETTERHEAD;
+
+    static {
+        try {
+            BaseFont regular = BaseFont.createFont(BaseFont.HELVETICA, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED);
+            BaseFont bold = BaseFont.createFont(BaseFont.HELVETICA_BOLD, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED);
+            TITLE_FONT = new Font(bold, 13);
+            SECTION_FONT = new Font(bold, 10);
+            LABEL_FONT = new Font(bold, 9);
+            VALUE_FONT = new Font(regular, 9);
+            SMALL_FONT = new Font(regular, 8, Font.NORMAL, BaseColor.DARK_GRAY);
+
+            DETAILS_SKELETON = skeleton(new float[]{32f, 68f});
+            OFFICIALS_SKELETON = skeleton(new float[]{18f, 24f, 14f, 26f, 18f}, "Position", "Name", "Reg. No", "Email", "Mobile");
+            APPROVALS_SKELETON = skeleton(new float[]{22f, 14f, 22f, 42f}, "Stage", "Status", "Date", "Comment");
+
+            LETTERHEAD = buildLetterhead(regular, bold);
+        } catch (DocumentException | IOException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // --- Registration ---
+
     public byte[] generateRegistrationPDF(SocietyRegistration registration) throws IOException {
-        return generatePDFContent(
-                registration.getSocietyName(),
-                registration.getApplicantFullName(),
-                registration.getApplicantFaculty(),
-                registration.getSeniorTreasurerFullName()
-        );
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        writeRegistrationPDF(registration, out);
+        return out.toByteArray();
     }
 
     public byte[] generateRegistrationPreviewPDF(SocietyRegistrationDto dto) throws IOException {
-        return generatePDFContent(
-                dto.getSocietyName(),
-                dto.getApplicantFullName(),
-                dto.getApplicantFaculty(),
-                dto.getSeniorTreasurerFullName()
-        );
-    }
-
-    private byte[] generatePDFContent(String societyName, String applicant, String faculty, String treasurer) {
-        String content = String.format(
-                "UNIVERSITY OF PERADENIYA\n" +
-                        "STUDENT SERVICE DIVISION\n" +
-                        "==========================================\n\n" +
-                        "SOCIETY REGISTRATION APPLICATION\n\n" +
-                        "Society Name: %s\n" +
-                        "Faculty: %s\n" +
-                        "Applicant: %s\n" +
-                        "Senior Treasurer: %s\n\n" +
-                        "==========================================\n" +
-                        "This is a system generated application form.",
-                societyName, faculty, applicant, treasurer
-        );
-        return content.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        writeRegistrationPDF(toRegistration(dto), out);
+        return out.toByteArray();
+    }
+
+    public void writeRegistrationPDF(SocietyRegistration reg, OutputStream out) throws IOException {
+        render(out, "SOCIETY REGISTRATION APPLICATION", reference("REG", reg.getId(), reg.getStatus()), doc -> {
+            PdfPTable society = section(doc, "Society Details", DETAILS_SKELETON);
+            row(society, "Society Name", reg.getSocietyName());
+            row(society, "Year", reg.getYear());
+            row(society, "Aims", reg.getAims());
+            row(society, "AGM Date", reg.getAgmDate());
+            row(society, "Bank Account", reg.getBankAccount());
+            row(society, "Bank Name", reg.getBankName());
+            doc.add(society);
+
+            PdfPTable applicant = section(doc, "Applicant", DETAILS_SKELETON);
+            row(applicant, "Full Name", reg.getApplicantFullName());
+            row(applicant, "Registration No", reg.getApplicantRegNo());
+            row(applicant, "Email", reg.getApplicantEmail());
+            row(applicant, "Faculty", reg.getApplicantFaculty());
+            row(applicant, "Mobile", reg.getApplicantMobile());
+            doc.add(applicant);
+
+            PdfPTable treasurer = section(doc, "Senior Treasurer", DETAILS_SKELETON);
+            row(treasurer, "Name", join(reg.getSeniorTreasurerTitle(), reg.getSeniorTreasurerFullName()));
+            row(treasurer, "Designation", reg.getSeniorTreasurerDesignation());
+            row(treasurer, "Department", reg.getSeniorTreasurerDepartment());
+            row(treasurer, "Email", reg.getSeniorTreasurerEmail());
+            row(treasurer, "Mobile", reg.getSeniorTreasurerMobile());
+            row(treasurer, "Address", reg.getSeniorTreasurerAddress());
+            doc.add(treasurer);
+
+            PdfPTable officials = section(doc, "Office Bearers", OFFICIALS_SKELETON);
+            cells(officials, "President", reg.getPresidentName(), reg.getPresidentRegNo(), reg.getPresidentEmail(), reg.getPresidentMobile());
+            cells(officials, "Vice President", reg.getVicePresidentName(), reg.getVicePresidentRegNo(), reg.getVicePresidentEmail(), reg.getVicePresidentMobile());
+            cells(officials, "Secretary", reg.getSecretaryName(), reg.getSecretaryRegNo(), reg.getSecretaryEmail(), reg.getSecretaryMobile());
+            cells(officials, "Joint Secretary", reg.getJointSecretaryName(), reg.getJointSecretaryRegNo(), reg.getJointSecretaryEmail(), reg.getJointSecretaryMobile());
+            cells(officials, "Junior Treasurer", reg.getJuniorTreasurerName(), reg.getJuniorTreasurerRegNo(), reg.getJuniorTreasurerEmail(), reg.getJuniorTreasurerMobile());
+            cells(officials, "Editor", reg.getEditorName(), reg.getEditorRegNo(), reg.getEditorEmail(), reg.getEditorMobile());
+            doc.add(officials);
+
+            if (reg.getAdvisoryBoard() != null && !reg.getAdvisoryBoard().isEmpty()) {
+                PdfPTable board = section(doc, "Advisory Board", new float[]{34f, 33f, 33f}, "Name", "Designation", "Department");
+                for (RegistrationAdvisoryBoardMember m : reg.getAdvisoryBoard()) {
+                    cells(board, m.getName(), m.getDesignation(), m.getDepartment());
+                }
+                doc.add(board);
+            }
+            if (reg.getCommitteeMember() != null && !reg.getCommitteeMember().isEmpty()) {
+                PdfPTable committee = section(doc, "Committee Members", new float[]{30f, 70f}, "Reg. No", "Name");
+                for (RegistrationCommitteeMember m : reg.getCommitteeMember()) {
+                    cells(committee, m.getRegNo(), m.getName());
+                }
+                doc.add(committee);
+            }
+            if (reg.getMember() != null && !reg.getMember().isEmpty()) {
+                PdfPTable members = section(doc, "General Members (" + reg.getMember().size() + ")", new float[]{30f, 70f}, "Reg. No", "Name");
+                for (RegistrationGeneralMember m : reg.getMember()) {
+                    cells(members, m.getRegNo(), m.getName());
+                }
+                doc.add(members);
+            }
+            if (reg.getPlanningEvents() != null && !reg.getPlanningEvents().isEmpty()) {
+                PdfPTable plan = section(doc, "Planned Activities", new float[]{25f, 75f}, "Month", "Activity");
+                for (RegistrationPlanningEvent e : reg.getPlanningEvents()) {
+                    cells(plan, e.getMonth(), e.getActivity());
+                }
+                doc.add(plan);
+            }
+
+            PdfPTable approvals = section(doc, "Approvals", APPROVALS_SKELETON);
+            approval(approvals, "Dean", reg.getIsDeanApproved(), reg.getDeanApprovalDate(), reg.getDeanComment());
+            approval(approvals, "Assistant Registrar", reg.getIsArApproved(), reg.getArApprovalDate(), reg.getArComment());
+            approval(approvals, "Vice Chancellor", reg.getIsVcApproved(), reg.getVcApprovalDate(), reg.getVcComment());
+            doc.add(approvals);
+            rejection(doc, reg.getStatus() == SocietyRegistration.ApprovalStage.REJECTED, reg.getRejectionReason());
+        });
     }
 
+    // --- Renewal ---
+
     public byte[] generateRenewalPDF(SocietyRenewal renewal) throws IOException {
-        String pdfContent = "UNIVERSITY OF PERADENIYA\nSOCIETY RENEWAL\n" + renewal.getSocietyName();
-        return pdfContent.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        writeRenewalPDF(renewal, out);
+        return out.toByteArray();
     }
 
+    public void writeRenewalPDF(SocietyRenewal ren, OutputStream out) throws IOException {
+        render(out, "SOCIETY RENEWAL APPLICATION", reference("REN", ren.getId(), ren.getStatus()), doc -> {
+            PdfPTable society = section(doc, "Society Details", DETAILS_SKELETON);
+            row(society, "Society Name", ren.getSocietyName());
+            row(society, "Renewal Year", ren.getRenewalYear());
+            row(society, "AGM Date", ren.getAgmDate());
+            row(society, "Bank Account", ren.getBankAccount());
+            row(society, "Bank Name", ren.getBankName());
+            row(society, "Difficulties Faced", ren.getDifficulties());
+            doc.add(society);
+
+            PdfPTable applicant = section(doc, "Applicant", DETAILS_SKELETON);
+            row(applicant, "Full Name", ren.getApplicantFullName());
+            row(applicant, "Registration No", ren.getApplicantRegNo());
+            row(applicant, "Email", ren.getApplicantEmail());
+            row(applicant, "Faculty", ren.getApplicantFaculty());
+            row(applicant, "Mobile", ren.getApplicantMobile());
+            doc.add(applicant);
+
+            PdfPTable treasurer = section(doc, "Senior Treasurer", DETAILS_SKELETON);
+            row(treasurer, "Name", join(ren.getSeniorTreasurerTitle(), ren.getSeniorTreasurerName()));
+            row(treasurer, "Designation", ren.getSeniorTreasurerDesignation());
+            row(treasurer, "Department", ren.getSeniorTreasurerDepartment());
+            row(treasurer, "Email", ren.getSeniorTreasurerEmail());
+            row(treasurer, "Mobile", ren.getSeniorTreasurerMobile());
+            row(treasurer, "Address", ren.getSeniorTreasurerAddress());
+            doc.add(treasurer);
+
+            PdfPTable officials = section(doc, "Office Bearers", OFFICIALS_SKELETON);
+            cells(officials, "President", ren.getPresidentName(), ren.getPresidentRegNo(), ren.getPresidentEmail(), ren.getPresidentMobile());
+            cells(officials, "Vice President", ren.getVicePresidentName(), ren.getVicePresidentRegNo(), ren.getVicePresidentEmail(), ren.getVicePresidentMobile());
+            cells(officials, "Secretary", ren.getSecretaryName(), ren.getSecretaryRegNo(), ren.getSecretaryEmail(), ren.getSecretaryMobile());
+            cells(officials, "Joint Secretary", ren.getJointSecretaryName(), ren.getJointSecretaryRegNo(), ren.getJointSecretaryEmail(), ren.getJointSecretaryMobile());
+            cells(officials, "Junior Treasurer", ren.getJuniorTreasurerName(), ren.getJuniorTreasurerRegNo(), ren.getJuniorTreasurerEmail(), ren.getJuniorTreasurerMobile());
+            cells(officials, "Editor", ren.getEditorName(), ren.getEditorRegNo(), ren.getEditorEmail(), ren.getEditorMobile());
+            doc.add(officials);
+
+            PdfPTable approvals = section(doc, "Approvals", APPROVALS_SKELETON);
+            approval(approvals, "Dean", ren.getIsDeanApproved(), ren.getDeanApprovalDate(), ren.getDeanComment());
+            approval(approvals, "Assistant Registrar", ren.getIsArApproved(), ren.getArApprovalDate(), ren.getArComment());
+            approval(approvals, "Vice Chancellor", ren.getIsVcApproved(), ren.getVcApprovalDate(), ren.getVcComment());
+            doc.add(approvals);
+            rejection(doc, ren.getStatus() == SocietyRenewal.RenewalStatus.REJECTED, ren.getRejectionReason());
+        });
+    }
+
+    // --- Event Permission ---
+
     public byte[] generateEventPermissionPDF(EventPermission event) throws IOException {
-        String pdfContent = "UNIVERSITY OF PERADENIYA\nEVENT PERMISSION\n" + event.getEventName();
-        return pdfContent.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        writeEventPermissionPDF(event, out);
+        return out.toByteArray();
+    }
+
+    public void writeEventPermissionPDF(EventPermission ev, OutputStream out) throws IOException {
+        render(out, "EVENT PERMISSION REQUEST", reference("EVT", ev.getId(), ev.getStatus()), doc -> {
+            PdfPTable event = section(doc, "Event Details", DETAILS_SKELETON);
+            row(event, "Society", ev.getSocietyName());
+            row(event, "Event Name", ev.getEventName());
+            row(event, "Date", ev.getEventDate());
+            row(event, "Time", ev.getTimeFrom() == null && ev.getTimeTo() == null
+                    ? null : text(ev.getTimeFrom()) + " - " + text(ev.getTimeTo()));
+            row(event, "Place", ev.getPlace());
+            row(event, "Inside University", yesNo(ev.getIsInsideUniversity()));
+            row(event, "Late Pass Required", yesNo(ev.getLatePassRequired()));
+            row(event, "Outsiders Invited", yesNo(ev.getOutsidersInvited()));
+            if (Boolean.TRUE.equals(ev.getOutsidersInvited())) {
+                row(event, "Outsiders", ev.getOutsidersList());
+            }
+            row(event, "First Year Participation", yesNo(ev.getFirstYearParticipation()));
+            doc.add(event);
+
+            PdfPTable finance = section(doc, "Financials", DETAILS_SKELETON);
+            row(finance, "Budget Estimate", ev.getBudgetEstimate());
+            row(finance, "Fund Collection", ev.getFundCollectionMethods());
+            row(finance, "Student Fee", ev.getStudentFeeAmount());
+            row(finance, "Receipt No", ev.getReceiptNumber());
+            row(finance, "Payment Date", ev.getPaymentDate());
+            doc.add(finance);
+
+            PdfPTable applicant = section(doc, "Applicant", DETAILS_SKELETON);
+            row(applicant, "Name", ev.getApplicantName());
+            row(applicant, "Registration No", ev.getApplicantRegNo());
+            row(applicant, "Position", ev.getApplicantPosition());
+            row(applicant, "Faculty", ev.getApplicantFaculty());
+            row(applicant, "Email", ev.getApplicantEmail());
+            row(applicant, "Mobile", ev.getApplicantMobile());
+            doc.add(applicant);
+
+            PdfPTable officials = section(doc, "Officials", DETAILS_SKELETON);
+            row(officials, "Senior Treasurer", ev.getSeniorTreasurerName());
+            row(officials, "Department", ev.getSeniorTreasurerDepartment());
+            row(officials, "Mobile", ev.getSeniorTreasurerMobile());
+            row(officials, "Premises Officer", ev.getPremisesOfficerName());
+            row(officials, "Designation", ev.getPremisesOfficerDesignation());
+            row(officials, "Division", ev.getPremisesOfficerDivision());
+            doc.add(officials);
+
+            PdfPTable approvals = section(doc, "Approvals", APPROVALS_SKELETON);
+            approval(approvals, "Dean", ev.getIsDeanApproved(), ev.getDeanApprovalDate(), ev.getDeanComment());
+            approval(approvals, "Premises Officer", ev.getIsPremisesApproved(), ev.getPremisesApprovalDate(), ev.getPremisesComment());
+            approval(approvals, "Assistant Registrar", ev.getIsArApproved(), ev.getArApprovalDate(), ev.getArComment());
+            approval(approvals, "Vice Chancellor", ev.getIsVcApproved(), ev.getVcApprovalDate(), ev.getVcComment());
+            doc.add(approvals);
+            rejection(doc, ev.getStatus() == EventPermission.EventStatus.REJECTED, ev.getRejectionReason());
+        });
+    }
+
+    // --- Document assembly ---
+
+    private interface Body {
+        void write(Document doc) throws DocumentException;
+    }
+
+    private void render(OutputStream out, String title, String reference, Body body) throws IOException {
+        Document doc = new Document(PageSize.A4, MARGIN, MARGIN, MARGIN + HEADER_HEIGHT, MARGIN + FOOTER_HEIGHT);
+        PdfReader letterhead = new PdfReader(LETTERHEAD);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(doc, out);
+            writer.setCloseStream(false);
+            writer.setFullCompression();
+            writer.setPageEvent(new LetterheadStamp(writer.getImportedPage(letterhead, 1)));
+            doc.addTitle(title);
+            doc.addCreator("Student Service Division, University of Peradeniya");
+            doc.open();
+
+            Paragraph heading = new Paragraph(title, TITLE_FONT);
+            heading.setAlignment(Element.ALIGN_CENTER);
+            doc.add(heading);
+            Paragraph ref = new Paragraph(reference, SMALL_FONT);
+            ref.setAlignment(Element.ALIGN_CENTER);
+            ref.setSpacingAfter(6f);
+            doc.add(ref);
+
+            body.write(doc);
+            doc.close();
+        } catch (DocumentException e) {
+            throw new IOException("PDF Generation Failed: " + e.getMessage(), e);
+        } finally {
+            if (doc.isOpen()) doc.close();
+            letterhead.close();
+        }
+    }
+
+    // Stamps the shared letterhead XObject under each page and adds the page number
+    private static final class LetterheadStamp extends PdfPageEventHelper {
+        private final PdfImportedPage letterhead;
+
+        private LetterheadStamp(PdfImportedPage letterhead) {
+            this.letterhead = letterhead;
+        }
+
+        @Override
+        public void onEndPage(PdfWriter writer, Document document) {
+            writer.getDirectContentUnder().addTemplate(letterhead, 0, 0);
+            ColumnText.showTextAligned(writer.getDirectContent(), Element.ALIGN_RIGHT,
+                    new Phrase("Page " + writer.getPageNumber(), SMALL_FONT),
+                    document.right(), MARGIN + 14f, 0);
+        }
+    }
+
+    private static byte[] buildLetterhead(BaseFont regular, BaseFont bold) throws DocumentException {
+        Rectangle page = PageSize.A4;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Document doc = new Document(page);
+        PdfWriter writer = PdfWriter.getInstance(doc, out);
+        doc.open();
+        PdfContentByte cb = writer.getDirectContent();
+        float centre = page.getWidth() / 2;
+        float top = page.getHeight() - MARGIN;
+
+        // Watermark
+        cb.saveState();
+        PdfGState faint = new PdfGState();
+        faint.setFillOpacity(0.06f);
+        cb.setGState(faint);
+        cb.beginText();
+        cb.setFontAndSize(bold, 54);
+        cb.setColorFill(BaseColor.GRAY);
+        cb.showTextAligned(Element.ALIGN_CENTER, "UNIVERSITY OF PERADENIYA", centre, page.getHeight() / 2, 45);
+        cb.endText();
+        cb.restoreState();
+
+        // Header
+        cb.beginText();
+        cb.setFontAndSize(bold, 16);
+        cb.showTextAligned(Element.ALIGN_CENTER, "UNIVERSITY OF PERADENIYA", centre, top - 20, 0);
+        cb.setFontAndSize(regular, 11);
+        cb.showTextAligned(Element.ALIGN_CENTER, "Student Service Division", centre, top - 38, 0);
+        cb.setFontAndSize(regular, 8);
+        cb.showTextAligned(Element.ALIGN_CENTER, "Peradeniya 20400, Sri Lanka", centre, top - 52, 0);
+        cb.endText();
+        cb.setLineWidth(1.2f);
+        cb.moveTo(MARGIN, top - HEADER_HEIGHT + 25);
+        cb.lineTo(page.getWidth() - MARGIN, top - HEADER_HEIGHT + 25);
+        cb.stroke();
+
+        // Footer
+        float footer = MARGIN + 28;
+        cb.setLineWidth(0.5f);
+        cb.moveTo(MARGIN, footer);
+        cb.lineTo(page.getWidth() - MARGIN, footer);
+        cb.stroke();
+        cb.beginText();
+        cb.setFontAndSize(regular, 8);
+        cb.showTextAligned(Element.ALIGN_LEFT, "This is a system generated document.", MARGIN, MARGIN + 14, 0);
+        cb.endText();
+
+        doc.close();
+        return out.toByteArray();
+    }
+
+    // --- Tables ---
+
+    private static PdfPTable skeleton(float[] widths, String... headers) throws DocumentException {
+        PdfPTable table = new PdfPTable(widths.length);
+        table.setWidthPercentage(100);
+        table.setWidths(widths);
+        table.setSpacingBefore(2f);
+        table.setSpacingAfter(8f);
+        if (headers.length > 0) {
+            for (String header : headers) {
+                PdfPCell cell = new PdfPCell(new Phrase(header, LABEL_FONT));
+                cell.setBackgroundColor(TABLE_HEADER_BACKGROUND);
+                cell.setPadding(4f);
+                table.addCell(cell);
+            }
+            table.setHeaderRows(1);
+        }
+        return table;
+    }
+
+    private static PdfPTable section(Document doc, String title, PdfPTable skeleton) throws DocumentException {
+        sectionTitle(doc, title);
+        return new PdfPTable(skeleton);
+    }
+
+    private static PdfPTable section(Document doc, String title, float[] widths, String... headers) throws DocumentException {
+        sectionTitle(doc, title);
+        return skeleton(widths, headers);
+    }
+
+    private static void sectionTitle(Document doc, String title) throws DocumentException {
+        PdfPTable bar = new PdfPTable(1);
+        bar.setWidthPercentage(100);
+        PdfPCell cell = new PdfPCell(new Phrase(title, SECTION_FONT));
+        cell.setBackgroundColor(SECTION_BACKGROUND);
+        cell.setBorder(Rectangle.NO_BORDER);
+        cell.setPadding(4f);
+        bar.addCell(cell);
+        bar.setKeepTogether(true);
+        doc.add(bar);
+    }
+
+    private static void row(PdfPTable table, String label, Object value) {
+        PdfPCell labelCell = new PdfPCell(new Phrase(label, LABEL_FONT));
+        labelCell.setPadding(4f);
+        table.addCell(labelCell);
+        table.addCell(valueCell(text(value)));
+    }
+
+    private static void cells(PdfPTable table, String... values) {
+        for (String value : values) {
+            table.addCell(valueCell(text(value)));
+        }
+    }
+
+    private static PdfPCell valueCell(String value) {
+        PdfPCell cell = new PdfPCell(new Phrase(value, VALUE_FONT));
+        cell.setPadding(4f);
+        return cell;
+    }
+
+    private static void approval(PdfPTable table, String stage, Boolean approved, LocalDateTime date, String comment) {
+        cells(table, stage, Boolean.TRUE.equals(approved) ? "Approved" : "Pending", text(date), comment);
+    }
+
+    private static void rejection(Document doc, boolean rejected, String reason) throws DocumentException {
+        if (!rejected) return;
+        Paragraph p = new Paragraph("Rejected: " + text(reason), LABEL_FONT);
+        p.setSpacingBefore(4f);
+        doc.add(p);
+    }
+
+    // --- Values ---
+
+    private static String reference(String prefix, Long id, Enum<?> status) {
+        String ref = id != null ? "Reference: " + prefix + "-" + id : "Preview - not submitted";
+        return status != null ? ref + "   |   Status: " + status.name().replace('_', ' ') : ref;
+    }
+
+    private static String text(Object value) {
+        if (value == null) return "-";
+        if (value instanceof LocalDateTime) return ((LocalDateTime) value).format(DATE_TIME);
+        if (value instanceof LocalDate) return ((LocalDate) value).format(DATE);
+        String s = value.toString().trim();
+        return s.isEmpty() ? "-" : s;
+    }
+
+    private static String yesNo(Boolean value) {
+        return value == null ? "-" : value ? "Yes" : "No";
+    }
+
+    private static String join(String... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (String part : parts) {
+            if (part == null || part.isBlank()) continue;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(part.trim());
+        }
+        return sb.toString();
+    }
+
+    private static SocietyRegistration toRegistration(SocietyRegistrationDto dto) {
+        SocietyRegistration reg = new SocietyRegistration();
+        BeanUtils.copyProperties(dto, reg, "agmDate", "advisoryBoard", "committeeMember", "member", "planningEvents");
+        if (dto.getAgmDate() != null && !dto.getAgmDate().isBlank()) {
+            try {
+                reg.setAgmDate(LocalDate.parse(dto.getAgmDate()));
+            } catch (Exception e) {
+                // Preview only; an unparsable date is shown as blank
+            }
+        }
+        if (dto.getCommitteeMember() != null) {
+            List<RegistrationCommitteeMember> committee = new ArrayList<>();
+            for (SocietyRegistrationDto.CommitteeMemberDto m : dto.getCommitteeMember()) {
+                RegistrationCommitteeMember member = new RegistrationCommitteeMember();
+                member.setRegNo(m.getRegNo());
+                member.setName(m.getName());
+                committee.add(member);
+            }
+            reg.setCommitteeMember(committee);
+        }
+        if (dto.getMember() != null) {
+            List<RegistrationGeneralMember> members = new ArrayList<>();
+            for (SocietyRegistrationDto.MemberDto m : dto.getMember()) {
+                RegistrationGeneralMember member = new RegistrationGeneralMember();
+                member.setRegNo(m.getRegNo());
+                member.setName(m.getName());
+                members.add(member);
+            }
+            reg.setMember(members);
+        }
+        reg.setStatus(null);
+        return reg;
     }
-}
\ No newline at end of file
+}
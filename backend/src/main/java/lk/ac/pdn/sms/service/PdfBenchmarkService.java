@@ -0,0 +1,183 @@
+package lk.ac.pdn.sms.service;
+
+import com.sun.management.ThreadMXBean;
+import lk.ac.pdn.sms.entity.EventPermission;
+import lk.ac.pdn.sms.entity.RegistrationCommitteeMember;
+import lk.ac.pdn.sms.entity.RegistrationGeneralMember;
+import lk.ac.pdn.sms.entity.SocietyRegistration;
+import lk.ac.pdn.sms.entity.SocietyRenewal;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders synthetic documents through PDFService on the calling thread and reports
+ * documents/sec, output size and bytes allocated per document (from the JVM's per-thread
+ * allocation counter). Only available under the "perf" profile.
+ */
+@Service
+@Profile("perf")
+public class PdfBenchmarkService {
+
+    public enum DocumentType { REGISTRATION, RENEWAL, EVENT }
+
+    private final PDFService pdfService;
+
+    public PdfBenchmarkService(PDFService pdfService) {
+        this.pdfService = pdfService;
+    }
+
+    public Map<String, Object> runPdfBenchmark(DocumentType type, int count, int members, int warmup) throws IOException {
+        SocietyRegistration registration = syntheticRegistration(members);
+        SocietyRenewal renewal = syntheticRenewal();
+        EventPermission event = syntheticEvent();
+        CountingOutputStream sink = new CountingOutputStream();
+
+        for (int i = 0; i < warmup; i++) {
+            render(type, registration, renewal, event, sink);
+        }
+
+        sink.count = 0;
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            render(type, registration, renewal, event, sink);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", "pdf-" + type.name().toLowerCase());
+        result.put("documents", count);
+        result.put("generalMembers", type == DocumentType.REGISTRATION ? members : 0);
+        result.put("elapsedMillis", TimeUnit.NANOSECONDS.toMillis(elapsed));
+        result.put("documentsPerSecond", elapsed > 0 ? count * 1_000_000_000.0 / elapsed : 0);
+        result.put("avgDocumentBytes", count > 0 ? sink.count / count : 0);
+        result.put("allocatedBytesPerDocument", allocated >= 0 && count > 0 ? allocated / count : -1);
+        return result;
+    }
+
+    private void render(DocumentType type, SocietyRegistration registration, SocietyRenewal renewal,
+                        EventPermission event, OutputStream out) throws IOException {
+        switch (type) {
+            case REGISTRATION:
+                pdfService.writeRegistrationPDF(registration, out);
+                break;
+            case RENEWAL:
+                pdfService.writeRenewalPDF(renewal, out);
+                break;
+            default:
+                pdfService.writeEventPermissionPDF(event, out);
+                break;
+        }
+    }
+
+    // -1 when the JVM does not expose per-thread allocation counters
+    private static long allocatedBytes() {
+        Object bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof ThreadMXBean) {
+            ThreadMXBean hotspot = (ThreadMXBean) bean;
+            if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static SocietyRegistration syntheticRegistration(int members) {
+        SocietyRegistration reg = new SocietyRegistration();
+        reg.setId(1L);
+        reg.setSocietyName("Benchmark Society");
+        reg.setYear(LocalDate.now().getYear());
+        reg.setAims("To promote benchmarking among undergraduates of the University of Peradeniya.");
+        reg.setAgmDate(LocalDate.now());
+        reg.setApplicantFullName("Applicant Name");
+        reg.setApplicantRegNo("S/20/001");
+        reg.setApplicantEmail("applicant@example.com");
+        reg.setApplicantFaculty("Faculty of Science");
+        reg.setSeniorTreasurerTitle("Dr.");
+        reg.setSeniorTreasurerFullName("Senior Treasurer");
+        reg.setPresidentName("President Name");
+        reg.setPresidentRegNo("S/20/002");
+        reg.setSecretaryName("Secretary Name");
+        reg.setSecretaryRegNo("S/20/003");
+        reg.setStatus(SocietyRegistration.ApprovalStage.PENDING_AR);
+        reg.setIsDeanApproved(true);
+        reg.setDeanApprovalDate(LocalDateTime.now());
+        reg.setDeanComment("Recommended.");
+
+        List<RegistrationCommitteeMember> committee = new ArrayList<>();
+        List<RegistrationGeneralMember> general = new ArrayList<>();
+        for (int i = 0; i < members; i++) {
+            RegistrationGeneralMember m = new RegistrationGeneralMember();
+            m.setRegNo("S/20/" + (100 + i));
+            m.setName("Member " + i);
+            general.add(m);
+            if (i < 10) {
+                RegistrationCommitteeMember c = new RegistrationCommitteeMember();
+                c.setRegNo(m.getRegNo());
+                c.setName(m.getName());
+                committee.add(c);
+            }
+        }
+        reg.setCommitteeMember(committee);
+        reg.setMember(general);
+        return reg;
+    }
+
+    private static SocietyRenewal syntheticRenewal() {
+        SocietyRenewal ren = new SocietyRenewal();
+        ren.setId(1L);
+        ren.setSocietyName("Benchmark Society");
+        ren.setRenewalYear(LocalDate.now().getYear());
+        ren.setApplicantFullName("Applicant Name");
+        ren.setApplicantFaculty("Faculty of Science");
+        ren.setPresidentName("President Name");
+        ren.setSecretaryName("Secretary Name");
+        ren.setDifficulties("None.");
+        ren.setStatus(SocietyRenewal.RenewalStatus.PENDING_DEAN);
+        return ren;
+    }
+
+    private static EventPermission syntheticEvent() {
+        EventPermission ev = new EventPermission();
+        ev.setId(1L);
+        ev.setSocietyName("Benchmark Society");
+        ev.setEventName("Annual Benchmark Night");
+        ev.setEventDate(LocalDate.now().plusDays(14));
+        ev.setTimeFrom(LocalTime.of(18, 0));
+        ev.setTimeTo(LocalTime.of(22, 0));
+        ev.setPlace("Main Hall");
+        ev.setApplicantName("Applicant Name");
+        ev.setApplicantFaculty("Faculty of Science");
+        ev.setIsInsideUniversity(true);
+        ev.setOutsidersInvited(false);
+        ev.setStatus(EventPermission.EventStatus.PENDING_PREMISES);
+        return ev;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package lk.ac.pdn.sms.service;
+
+import lk.ac.pdn.sms.entity.EventPermission;
+import lk.ac.pdn.sms.entity.SocietyRegistration;
+import lk.ac.pdn.sms.entity.SocietyRenewal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generated-document cache keyed by (document type, id, version). The version is built from
+ * the entity's row_version column, which Hibernate bumps on every update (and on changes to
+ * a registration's member lists), plus its status, so any change to the application - a
+ * stage change, a new approval comment, an edited member list - produces a new key and the
+ * stale PDF is never served. Computing it reads no lazy collections. When a newer version of
+ * a document is stored, older versions are evicted from both tiers.
+ *
+ * Recently used documents are kept in a bounded in-memory LRU; everything is also written
+ * to a disk directory so it survives eviction and restarts, and large documents are streamed
+ * from there rather than held on the heap. The version doubles as a strong ETag, letting
+ * download endpoints answer If-None-Match with 304 before rendering anything.
+ */
+@Service
+public class PdfCacheService {
+
+    public enum DocumentType { REGISTRATION, RENEWAL, EVENT }
+
+    @FunctionalInterface
+    public interface Renderer {
+        void write(OutputStream out) throws IOException;
+    }
+
+    // Bump when PDFService layout changes so cached documents from older builds are ignored
+    private static final String RENDER_VERSION = "1";
+    private static final String FILE_SUFFIX = ".pdf";
+
+    private final Path cacheDir;
+    private final long memoryMaxBytes;
+    private final long maxEntryBytes;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+
+    // "TYPE-id" -> newest version stored, used to evict superseded versions
+    private final Map<String, String> latestVersions = new ConcurrentHashMap<>();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong prerendered = new AtomicLong();
+
+    public PdfCacheService(@Value("${app.pdf-cache.dir:cache/pdf}") String cacheDir,
+                           @Value("${app.pdf-cache.memory-max-bytes:33554432}") long memoryMaxBytes) {
+        this.cacheDir = Paths.get(cacheDir);
+        this.memoryMaxBytes = memoryMaxBytes;
+        // Very large documents would flush the whole tier; they are served from disk instead
+        this.maxEntryBytes = memoryMaxBytes / 8;
+    }
+
+    /** Document version of an entity: render version, row version and status, e.g. "r1v3-APPROVED". */
+    public String versionOf(DocumentType type, Object entity) {
+        Long rowVersion;
+        Object status;
+        switch (type) {
+            case REGISTRATION:
+                rowVersion = ((SocietyRegistration) entity).getRowVersion();
+                status = ((SocietyRegistration) entity).getStatus();
+                break;
+            case RENEWAL:
+                rowVersion = ((SocietyRenewal) entity).getRowVersion();
+                status = ((SocietyRenewal) entity).getStatus();
+                break;
+            default:
+                rowVersion = ((EventPermission) entity).getRowVersion();
+                status = ((EventPermission) entity).getStatus();
+                break;
+        }
+        return "r" + RENDER_VERSION + "v" + (rowVersion != null ? rowVersion : 0) + "-" + status;
+    }
+
+    public static String etag(String version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Writes the document for this version to out. On a miss it is rendered into the disk tier
+     * first and then copied from there, so a download of a large document only ever holds one
+     * copy buffer of it; documents small enough for the memory tier are promoted on the way.
+     */
+    public void write(DocumentType type, Long id, String version, Renderer renderer, OutputStream out) throws IOException {
+        write(type, id, version, renderer, out, true);
+    }
+
+    /**
+     * As above; with promote false the memory tier is neither read nor filled (nor its LRU
+     * order touched), so bulk exports of many cold documents leave the hot ones in place.
+     */
+    public void write(DocumentType type, Long id, String version, Renderer renderer, OutputStream out,
+                      boolean promote) throws IOException {
+        String key = key(type, id, version);
+
+        if (promote) {
+            byte[] pdf;
+            synchronized (memory) {
+                pdf = memory.get(key);
+            }
+            if (pdf != null) {
+                memoryHits.incrementAndGet();
+                out.write(pdf);
+                return;
+            }
+        }
+
+        Path file = cacheDir.resolve(key + FILE_SUFFIX);
+        if (copyFromDisk(key, file, out, promote)) {
+            diskHits.incrementAndGet();
+            return;
+        }
+
+        misses.incrementAndGet();
+        if (renderToDisk(file, renderer)) {
+            evictOlderVersions(type, id, version);
+            if (copyFromDisk(key, file, out, promote)) return;
+        }
+        // Disk tier unavailable, or a newer version replaced the file meanwhile
+        renderer.write(out);
+    }
+
+    /**
+     * Renders the document into the cache without sending it anywhere; a no-op if this
+     * version is already cached. Returns whether anything was rendered.
+     */
+    public boolean prerender(DocumentType type, Long id, String version, Renderer renderer) throws IOException {
+        String key = key(type, id, version);
+        synchronized (memory) {
+            if (memory.containsKey(key)) return false;
+        }
+        Path file = cacheDir.resolve(key + FILE_SUFFIX);
+        if (Files.isRegularFile(file) || !renderToDisk(file, renderer)) return false;
+
+        prerendered.incrementAndGet();
+        evictOlderVersions(type, id, version);
+        if (Files.size(file) <= maxEntryBytes) {
+            putInMemory(key, Files.readAllBytes(file));
+        }
+        return true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (memory) {
+            stats.put("memoryEntries", memory.size());
+            stats.put("memoryBytes", memoryBytes);
+        }
+        stats.put("memoryMaxBytes", memoryMaxBytes);
+        stats.put("cacheDir", cacheDir.toAbsolutePath().toString());
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("diskHits", diskHits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("prerendered", prerendered.get());
+        return stats;
+    }
+
+    private static String key(DocumentType type, Long id, String version) {
+        return type + "-" + id + "-" + version;
+    }
+
+    private void putInMemory(String key, byte[] pdf) {
+        if (pdf.length > maxEntryBytes) return;
+        synchronized (memory) {
+            byte[] previous = memory.put(key, pdf);
+            if (previous != null) memoryBytes -= previous.length;
+            memoryBytes += pdf.length;
+
+            Iterator<Map.Entry<String, byte[]>> it = memory.entrySet().iterator();
+            while (memoryBytes > memoryMaxBytes && it.hasNext()) {
+                Map.Entry<String, byte[]> eldest = it.next();
+                memoryBytes -= eldest.getValue().length;
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    // Copies the cached file to out, promoting small documents into memory if asked; false if there is none
+    private boolean copyFromDisk(String key, Path file, OutputStream out, boolean promote) throws IOException {
+        InputStream in;
+        try {
+            in = Files.newInputStream(file);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        try (in) {
+            // An open file stays readable even if another thread evicts it now
+            if (promote && Files.size(file) <= maxEntryBytes) {
+                byte[] pdf = in.readAllBytes();
+                putInMemory(key, pdf);
+                out.write(pdf);
+            } else {
+                in.transferTo(out);
+            }
+        } catch (NoSuchFileException e) {
+            // Evicted between open and size check; nothing has been written yet
+            return false;
+        }
+        return true;
+    }
+
+    private boolean renderToDisk(Path file, Renderer renderer) throws IOException {
+        Path tmp;
+        try {
+            Files.createDirectories(cacheDir);
+            tmp = Files.createTempFile(cacheDir, "pdf-", ".tmp");
+        } catch (IOException e) {
+            // The disk tier is best effort; the caller renders straight to the response
+            System.err.println("PDF cache directory unavailable: " + e.getMessage());
+            return false;
+        }
+
+        try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(tmp), 8192)) {
+            renderer.write(fileOut);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    private void evictOlderVersions(DocumentType type, Long id, String version) {
+        String previous = latestVersions.put(type + "-" + id, version);
+        if (previous != null && previous.equals(version)) return;
+        removeMatching(type + "-" + id + "-", version);
+    }
+
+    // Removes entries under the prefix from both tiers, except the given version
+    private void removeMatching(String prefix, String keepVersion) {
+        String keep = prefix + keepVersion;
+
+        synchronized (memory) {
+            Iterator<Map.Entry<String, byte[]>> it = memory.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, byte[]> entry = it.next();
+                if (entry.getKey().startsWith(prefix) && !entry.getKey().equals(keep)) {
+                    memoryBytes -= entry.getValue().length;
+                    it.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+
+        if (!Files.isDirectory(cacheDir)) return;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDir, prefix + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!name.equals(keep + FILE_SUFFIX) && Files.deleteIfExists(file)) {
+                    evictions.incrementAndGet();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to evict PDF cache files for " + prefix + ": " + e.getMessage());
+        }
+    }
+}
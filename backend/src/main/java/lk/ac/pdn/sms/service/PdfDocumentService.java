@@ -0,0 +1,167 @@
+package lk.ac.pdn.sms.service;
+
+import lk.ac.pdn.sms.config.AsyncConfig;
+import lk.ac.pdn.sms.entity.EventPermission;
+import lk.ac.pdn.sms.entity.SocietyRegistration;
+import lk.ac.pdn.sms.entity.SocietyRenewal;
+import lk.ac.pdn.sms.repository.EventPermissionRepository;
+import lk.ac.pdn.sms.repository.SocietyRegistrationRepository;
+import lk.ac.pdn.sms.repository.SocietyRenewalRepository;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Renders application PDFs off the request path. A load reads only the application row,
+ * enough for its version (and so its ETag); on a cache miss the renderer reads it again in a
+ * short read-only transaction with its member lists initialised, so rendering can happen
+ * afterwards on any thread. Output always goes through PdfCacheService.
+ *
+ * Final approvals schedule a pre-render once their transaction commits, so the approval
+ * letter is already in the cache when the society's officials come to download it.
+ */
+@Service
+public class PdfDocumentService {
+
+    private final SocietyRegistrationRepository registrationRepository;
+    private final SocietyRenewalRepository renewalRepository;
+    private final EventPermissionRepository eventRepository;
+    private final PDFService pdfService;
+    private final PdfCacheService pdfCacheService;
+    private final AsyncTaskExecutor pdfExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public PdfDocumentService(SocietyRegistrationRepository registrationRepository,
+                              SocietyRenewalRepository renewalRepository,
+                              EventPermissionRepository eventRepository,
+                              PDFService pdfService,
+                              PdfCacheService pdfCacheService,
+                              @Qualifier(AsyncConfig.PDF_EXECUTOR) AsyncTaskExecutor pdfExecutor,
+                              PlatformTransactionManager transactionManager) {
+        this.registrationRepository = registrationRepository;
+        this.renewalRepository = renewalRepository;
+        this.eventRepository = eventRepository;
+        this.pdfService = pdfService;
+        this.pdfCacheService = pdfCacheService;
+        this.pdfExecutor = pdfExecutor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public LoadedDocument load(PdfCacheService.DocumentType type, Long id) {
+        Object entity = readOnlyTransaction.execute(tx -> find(type, id, false));
+        return new LoadedDocument(type, id, entity, pdfCacheService.versionOf(type, entity));
+    }
+
+    public void write(LoadedDocument document, OutputStream out) throws IOException {
+        write(document, out, true);
+    }
+
+    /** With promote false the document bypasses the cache's memory tier (bulk exports). */
+    public void write(LoadedDocument document, OutputStream out, boolean promote) throws IOException {
+        pdfCacheService.write(document.type, document.id, document.version, pdfOut -> render(document, pdfOut), out, promote);
+    }
+
+    /**
+     * Renders the document into the cache on the pdf pool once the current transaction
+     * commits (immediately if there is none). The entity is re-read after the commit so the
+     * version matches what a later download computes from the database.
+     */
+    public void prerenderAfterCommit(PdfCacheService.DocumentType type, Long id) {
+        Runnable task = () -> {
+            try {
+                LoadedDocument document = load(type, id);
+                pdfCacheService.prerender(type, id, document.version, pdfOut -> render(document, pdfOut));
+            } catch (Exception e) {
+                // Downloads still render on demand
+                System.err.println("Failed to pre-render " + type + " " + id + ": " + e.getMessage());
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pdfExecutor.execute(task);
+                }
+            });
+        } else {
+            pdfExecutor.execute(task);
+        }
+    }
+
+    // Only called on a cache miss, so the member lists are only read when a PDF is rendered
+    private void render(LoadedDocument document, OutputStream out) throws IOException {
+        Object entity = readOnlyTransaction.execute(tx -> find(document.type, document.id, true));
+        renderEntity(entity, out);
+    }
+
+    private Object find(PdfCacheService.DocumentType type, Long id, boolean forRender) {
+        switch (type) {
+            case REGISTRATION:
+                SocietyRegistration registration = registrationRepository.findById(id)
+                        .orElseThrow(() -> new RuntimeException("Registration not found"));
+                if (forRender) {
+                    Hibernate.initialize(registration.getAdvisoryBoard());
+                    Hibernate.initialize(registration.getCommitteeMember());
+                    Hibernate.initialize(registration.getMember());
+                    Hibernate.initialize(registration.getPlanningEvents());
+                }
+                return registration;
+            case RENEWAL:
+                return renewalRepository.findById(id).orElseThrow(() -> new RuntimeException("Renewal not found"));
+            default:
+                return eventRepository.findById(id).orElseThrow(() -> new RuntimeException("Event not found"));
+        }
+    }
+
+    private void renderEntity(Object entity, OutputStream out) throws IOException {
+        if (entity instanceof SocietyRegistration) {
+            pdfService.writeRegistrationPDF((SocietyRegistration) entity, out);
+        } else if (entity instanceof SocietyRenewal) {
+            pdfService.writeRenewalPDF((SocietyRenewal) entity, out);
+        } else {
+            pdfService.writeEventPermissionPDF((EventPermission) entity, out);
+        }
+    }
+
+    public static final class LoadedDocument {
+        private final PdfCacheService.DocumentType type;
+        private final Long id;
+        private final Object entity;
+        private final String version;
+
+        private LoadedDocument(PdfCacheService.DocumentType type, Long id, Object entity, String version) {
+            this.type = type;
+            this.id = id;
+            this.entity = entity;
+            this.version = version;
+        }
+
+        public PdfCacheService.DocumentType getType() {
+            return type;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public String getSocietyName() {
+            if (entity instanceof SocietyRegistration) return ((SocietyRegistration) entity).getSocietyName();
+            if (entity instanceof SocietyRenewal) return ((SocietyRenewal) entity).getSocietyName();
+            return ((EventPermission) entity).getSocietyName();
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package lk.ac.pdn.sms.service;
+
+import lk.ac.pdn.sms.config.AsyncConfig;
+import lk.ac.pdn.sms.dto.PdfPacketRequestDto;
+import lk.ac.pdn.sms.entity.EventPermission;
+import lk.ac.pdn.sms.entity.SocietyRegistration;
+import lk.ac.pdn.sms.entity.SocietyRenewal;
+import lk.ac.pdn.sms.repository.EventPermissionRepository;
+import lk.ac.pdn.sms.repository.SocietyRegistrationRepository;
+import lk.ac.pdn.sms.repository.SocietyRenewalRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Year-end PDF packets: every selected application rendered into one ZIP with a
+ * manifest.csv listing each document's file name, size and SHA-256.
+ *
+ * A job runs in the background on the packet pool. Documents are rendered in parallel on
+ * the pdf pool (through the document cache, so unchanged documents are not re-rendered) into
+ * temporary files, and appended to the ZIP in order by the job thread. Packet renders use
+ * only the cache's disk tier, so they do not evict the documents being downloaded right now. At most
+ * app.pdf-packet.window documents are in flight, so neither heap nor temp space grows with
+ * the size of the packet. The finished ZIP is served as a file, which supports HTTP Range
+ * requests for resuming interrupted downloads.
+ *
+ * Jobs and their ZIPs belong to the instance that ran them: with several instances, the
+ * packet endpoints (/api/admin/export/pdf-packets/**) need a sticky route so progress polls
+ * and downloads reach the same node as the POST that started the job.
+ */
+@Service
+public class PdfPacketService {
+
+    public enum JobState { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private static final List<PdfCacheService.DocumentType> DEFAULT_TYPES =
+            List.of(PdfCacheService.DocumentType.REGISTRATION, PdfCacheService.DocumentType.RENEWAL);
+    private static final String MANIFEST_HEADER = "type,id,society_name,file,bytes,sha256,error\r\n";
+
+    private final SocietyRegistrationRepository registrationRepository;
+    private final SocietyRenewalRepository renewalRepository;
+    private final EventPermissionRepository eventRepository;
+    private final PdfDocumentService pdfDocumentService;
+    private final AsyncTaskExecutor packetExecutor;
+    private final AsyncTaskExecutor pdfExecutor;
+
+    private final Path packetDir;
+    private final int window;
+    private final int maxPendingJobs;
+    private final Duration retention;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    // Queued + running jobs; a slot is reserved before a job is created and freed when it ends
+    private final AtomicInteger activeJobs = new AtomicInteger();
+
+    public PdfPacketService(SocietyRegistrationRepository registrationRepository,
+                            SocietyRenewalRepository renewalRepository,
+                            EventPermissionRepository eventRepository,
+                            PdfDocumentService pdfDocumentService,
+                            @Qualifier(AsyncConfig.PACKET_EXECUTOR) AsyncTaskExecutor packetExecutor,
+                            @Qualifier(AsyncConfig.PDF_EXECUTOR) AsyncTaskExecutor pdfExecutor,
+                            @Value("${app.pdf-packet.dir:archives/pdf-packets}") String packetDir,
+                            @Value("${app.pdf-packet.window:16}") int window,
+                            @Value("${app.pdf-packet.max-pending-jobs:10}") int maxPendingJobs,
+                            @Value("${app.pdf-packet.retention-hours:48}") long retentionHours) {
+        this.registrationRepository = registrationRepository;
+        this.renewalRepository = renewalRepository;
+        this.eventRepository = eventRepository;
+        this.pdfDocumentService = pdfDocumentService;
+        this.packetExecutor = packetExecutor;
+        this.pdfExecutor = pdfExecutor;
+        this.packetDir = Paths.get(packetDir);
+        this.window = Math.max(1, window);
+        this.maxPendingJobs = maxPendingJobs;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    public Map<String, Object> startExport(PdfPacketRequestDto request, String requestedBy) {
+        List<PdfCacheService.DocumentType> types = request.getTypes() == null || request.getTypes().isEmpty()
+                ? DEFAULT_TYPES : request.getTypes();
+        String status = request.getStatus() == null || request.getStatus().isBlank()
+                ? "APPROVED" : request.getStatus().trim().toUpperCase();
+
+        if (activeJobs.incrementAndGet() > maxPendingJobs) {
+            activeJobs.decrementAndGet();
+            throw new RuntimeException("Too many PDF packet exports in progress, try again later");
+        }
+
+        Job job;
+        List<Item> items = new ArrayList<>();
+        try {
+            // Resolve the selection up front so a bad status fails the request, not the job
+            for (PdfCacheService.DocumentType type : types) {
+                for (Long id : findIds(type, status, request.getYear())) {
+                    items.add(new Item(type, id));
+                }
+            }
+
+            job = new Job(UUID.randomUUID().toString(), types, request.getYear(), status, requestedBy, items.size());
+            jobs.put(job.id, job);
+        } catch (RuntimeException e) {
+            activeJobs.decrementAndGet();
+            throw e;
+        }
+
+        try {
+            packetExecutor.execute(() -> {
+                try {
+                    run(job, items);
+                } finally {
+                    activeJobs.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            // Not accepted by the pool: the task never runs, so free its slot here
+            jobs.remove(job.id);
+            activeJobs.decrementAndGet();
+            throw e;
+        }
+        return job.toMap();
+    }
+
+    public Map<String, Object> getJobStatus(String jobId) {
+        return getJob(jobId).toMap();
+    }
+
+    public List<Map<String, Object>> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((Job j) -> j.createdAt).reversed())
+                .map(Job::toMap)
+                .collect(Collectors.toList());
+    }
+
+    public Path getPacketFile(String jobId) {
+        Job job = getJob(jobId);
+        if (job.state != JobState.COMPLETED) {
+            throw new RuntimeException("PDF packet " + jobId + " is not ready (" + job.state + ")");
+        }
+        return job.file;
+    }
+
+    // Forgets finished jobs past the retention period and deletes their files, including
+    // packets left behind by a previous run of the application
+    @Scheduled(cron = "${app.pdf-packet.cleanup-cron:0 20 * * * *}")
+    public void purgeExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+
+        if (!Files.isDirectory(packetDir)) return;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(packetDir, "*.zip")) {
+            for (Path file : files) {
+                String jobId = file.getFileName().toString().replace(".zip", "");
+                if (!jobs.containsKey(jobId) && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to purge PDF packets: " + e.getMessage());
+        }
+    }
+
+    private Job getJob(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) throw new RuntimeException("PDF packet job not found on this instance: " + jobId);
+        return job;
+    }
+
+    private List<Long> findIds(PdfCacheService.DocumentType type, String status, Integer year) {
+        try {
+            switch (type) {
+                case REGISTRATION:
+                    return registrationRepository.findIdsByStatusAndYear(SocietyRegistration.ApprovalStage.valueOf(status), year);
+                case RENEWAL:
+                    return renewalRepository.findIdsByStatusAndYear(SocietyRenewal.RenewalStatus.valueOf(status), year);
+                default:
+                    return eventRepository.findIdsByStatusAndYear(EventPermission.EventStatus.valueOf(status), year);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid status for " + type + ": " + status);
+        }
+    }
+
+    // --- Job execution ---
+
+    private void run(Job job, List<Item> items) {
+        job.state = JobState.RUNNING;
+        job.startedAt = Instant.now();
+        Path workDir = packetDir.resolve(job.id);
+        Path partial = packetDir.resolve(job.id + ".zip.part");
+
+        try {
+            Files.createDirectories(workDir);
+            StringBuilder manifest = new StringBuilder(MANIFEST_HEADER);
+            byte[] buffer = new byte[64 * 1024];
+
+            try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(partial), 64 * 1024))) {
+                Deque<CompletableFuture<Rendered>> inFlight = new ArrayDeque<>();
+                for (Item item : items) {
+                    if (inFlight.size() >= window) {
+                        append(job, zip, inFlight.removeFirst().join(), manifest, buffer);
+                    }
+                    inFlight.addLast(CompletableFuture.supplyAsync(() -> render(item, workDir), pdfExecutor));
+                }
+                while (!inFlight.isEmpty()) {
+                    append(job, zip, inFlight.removeFirst().join(), manifest, buffer);
+                }
+
+                zip.putNextEntry(new ZipEntry("manifest.csv"));
+                zip.write(manifest.toString().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+
+            Path file = packetDir.resolve(job.id + ".zip");
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.file = file;
+            job.bytes = Files.size(file);
+            job.state = JobState.COMPLETED;
+        } catch (Exception e) {
+            System.err.println("PDF packet " + job.id + " failed: " + e.getMessage());
+            job.error = e.getMessage();
+            job.state = JobState.FAILED;
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException ignored) {
+                // Left for manual cleanup; the job already reports the failure
+            }
+        } finally {
+            job.finishedAt = Instant.now();
+            deleteQuietly(workDir);
+        }
+    }
+
+    // Runs on the pdf pool: renders one application into a temp file
+    private Rendered render(Item item, Path workDir) {
+        Rendered rendered = new Rendered(item);
+        try {
+            PdfDocumentService.LoadedDocument document = pdfDocumentService.load(item.type, item.id);
+            rendered.societyName = document.getSocietyName();
+            rendered.file = workDir.resolve(item.type + "-" + item.id + ".pdf");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(rendered.file), 64 * 1024)) {
+                // Packets touch hundreds of cold documents; keep them out of the memory tier
+                pdfDocumentService.write(document, out, false);
+            }
+        } catch (Exception e) {
+            rendered.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+        return rendered;
+    }
+
+    // Runs on the job thread: copies one rendered document into the ZIP and the manifest
+    private void append(Job job, ZipOutputStream zip, Rendered rendered, StringBuilder manifest, byte[] buffer)
+            throws IOException {
+        Item item = rendered.item;
+        String entryName = null;
+        long bytes = 0;
+        String sha256 = null;
+
+        if (rendered.error == null) {
+            entryName = item.type.name().toLowerCase() + "/" + item.id + "_" + fileSafe(rendered.societyName) + ".pdf";
+            MessageDigest digest = sha256();
+            zip.putNextEntry(new ZipEntry(entryName));
+            try (InputStream in = Files.newInputStream(rendered.file)) {
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    zip.write(buffer, 0, n);
+                    digest.update(buffer, 0, n);
+                    bytes += n;
+                }
+            }
+            zip.closeEntry();
+            Files.deleteIfExists(rendered.file);
+            sha256 = HexFormat.of().formatHex(digest.digest());
+            job.completed.incrementAndGet();
+        } else {
+            job.failed.incrementAndGet();
+        }
+        job.bytesWritten.addAndGet(bytes);
+
+        manifest.append(item.type).append(',')
+                .append(item.id).append(',')
+                .append(csv(rendered.societyName)).append(',')
+                .append(csv(entryName)).append(',')
+                .append(bytes).append(',')
+                .append(sha256 != null ? sha256 : "").append(',')
+                .append(csv(rendered.error)).append("\r\n");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String fileSafe(String name) {
+        if (name == null || name.isBlank()) return "untitled";
+        String safe = name.trim().replaceAll("[^A-Za-z0-9._-]+", "_");
+        return safe.length() > 80 ? safe.substring(0, 80) : safe;
+    }
+
+    private static String csv(String value) {
+        if (value == null) return "";
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static void deleteQuietly(Path dir) {
+        if (!Files.isDirectory(dir)) return;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            System.err.println("Failed to clean up " + dir + ": " + e.getMessage());
+        }
+    }
+
+    // --- Job state ---
+
+    private static final class Item {
+        private final PdfCacheService.DocumentType type;
+        private final Long id;
+
+        private Item(PdfCacheService.DocumentType type, Long id) {
+            this.type = type;
+            this.id = id;
+        }
+    }
+
+    private static final class Rendered {
+        private final Item item;
+        private String societyName;
+        private Path file;
+        private String error;
+
+        private Rendered(Item item) {
+            this.item = item;
+        }
+    }
+
+    private static final class Job {
+        private final String id;
+        private final List<PdfCacheService.DocumentType> types;
+        private final Integer year;
+        private final String status;
+        private final String requestedBy;
+        private final int total;
+        private final Instant createdAt = Instant.now();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicLong bytesWritten = new AtomicLong();
+
+        private volatile JobState state = JobState.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile Path file;
+        private volatile long bytes;
+        private volatile String error;
+
+        private Job(String id, List<PdfCacheService.DocumentType> types, Integer year, String status,
+                    String requestedBy, int total) {
+            this.id = id;
+            this.types = types;
+            this.year = year;
+            this.status = status;
+            this.requestedBy = requestedBy;
+            this.total = total;
+        }
+
+        private static LocalDateTime toLocal(Instant instant) {
+            return instant != null ? LocalDateTime.ofInstant(instant, ZoneId.systemDefault()) : null;
+        }
+
+        private Map<String, Object> toMap() {
+            int done = completed.get() + failed.get();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("jobId", id);
+            map.put("state", state);
+            map.put("types", types);
+            map.put("year", year);
+            map.put("status", status);
+            map.put("requestedBy", requestedBy);
+            map.put("total", total);
+            map.put("completed", completed.get());
+            map.put("failed", failed.get());
+            map.put("percent", total > 0 ? done * 100 / total : (state == JobState.COMPLETED ? 100 : 0));
+            map.put("bytesWritten", bytesWritten.get());
+            map.put("zipBytes", state == JobState.COMPLETED ? bytes : null);
+            map.put("createdAt", toLocal(createdAt));
+            map.put("startedAt", toLocal(startedAt));
+            map.put("finishedAt", toLocal(finishedAt));
+            map.put("error", error);
+            return map;
+        }
+    }
+}
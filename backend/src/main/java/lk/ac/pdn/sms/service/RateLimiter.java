@@ -0,0 +1,174 @@
+package lk.ac.pdn.sms.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token-bucket admission control per client and endpoint class, so one client (or a
+ * deadline-day rush on the public forms) cannot take every DB connection from the rest,
+ * approvers included. Admin traffic has its own budget, keyed by the signed-in admin
+ * rather than the address.
+ *
+ * Each bucket is a single AtomicLong holding its "theoretical arrival time" (the GCRA
+ * form of a token bucket): a request is admitted if that time is no more than the burst
+ * tolerance ahead of now, and admitting it moves the time on by one emission interval.
+ * That is one CAS per request with no locks. Buckets are spread over independent stripes
+ * that are swept separately; a bucket that has refilled completely carries no state and
+ * is dropped. When a stripe is full of active buckets, new clients share one overflow
+ * bucket per class, so a flood of distinct addresses is still limited as a whole.
+ */
+@Service
+public class RateLimiter {
+
+    public enum EndpointClass {
+        // Anonymous budgets are per address, and a campus NAT puts a whole faculty behind one,
+        // so they are sized for a lab of students on a deadline day rather than one person.
+        // Form submissions
+        SUBMISSION(60, 120),
+        // Sign-in, token refresh and logout; kept apart so form traffic on a shared address
+        // cannot lock approvers out
+        AUTH(60, 120),
+        // Field and whole-form validation while a form is being filled in
+        VALIDATION(300, 1500),
+        // Other anonymous requests (society lists, public event pages, PDFs)
+        PUBLIC(600, 3000),
+        // Any authenticated request, keyed by the admin
+        ADMIN(300, 1200);
+
+        private final int defaultCapacity;
+        private final int defaultPerMinute;
+
+        EndpointClass(int defaultCapacity, int defaultPerMinute) {
+            this.defaultCapacity = defaultCapacity;
+            this.defaultPerMinute = defaultPerMinute;
+        }
+    }
+
+    private static final int STRIPES = 16;
+
+    private final boolean enabled;
+    private final int maxKeysPerStripe;
+    private final Map<EndpointClass, Budget> budgets = new EnumMap<>(EndpointClass.class);
+    @SuppressWarnings("unchecked")
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes = new ConcurrentHashMap[STRIPES];
+
+    public RateLimiter(Environment env,
+                       @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${app.rate-limit.max-keys:100000}") int maxKeys) {
+        this.enabled = enabled;
+        this.maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ConcurrentHashMap<>();
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String prefix = "app.rate-limit." + endpointClass.name().toLowerCase() + ".";
+            int capacity = env.getProperty(prefix + "capacity", Integer.class, endpointClass.defaultCapacity);
+            int perMinute = env.getProperty(prefix + "per-minute", Integer.class, endpointClass.defaultPerMinute);
+            budgets.put(endpointClass, new Budget(capacity, perMinute));
+        }
+    }
+
+    /** 0 if the request is admitted, otherwise how many nanoseconds until it would be. */
+    public long tryAcquire(EndpointClass endpointClass, String clientKey) {
+        Budget budget = budgets.get(endpointClass);
+        if (!enabled) {
+            budget.allowed.increment();
+            return 0;
+        }
+        long now = System.nanoTime();
+        AtomicLong bucket = bucket(endpointClass, clientKey, now);
+
+        while (true) {
+            long stored = bucket.get();
+            long tat = Math.max(stored, now);
+            if (tat - now > budget.tolerance) {
+                budget.rejected.increment();
+                return tat - budget.tolerance - now;
+            }
+            if (bucket.compareAndSet(stored, tat + budget.interval)) {
+                budget.allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        int keys = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) keys += stripe.size();
+        stats.put("activeBuckets", keys);
+        for (Map.Entry<EndpointClass, Budget> entry : budgets.entrySet()) {
+            Budget budget = entry.getValue();
+            Map<String, Object> b = new LinkedHashMap<>();
+            b.put("capacity", budget.capacity);
+            b.put("perMinute", budget.perMinute);
+            b.put("allowed", budget.allowed.sum());
+            b.put("rejected", budget.rejected.sum());
+            b.put("overflowed", budget.overflowed.sum());
+            stats.put(entry.getKey().name().toLowerCase(), b);
+        }
+        return stats;
+    }
+
+    private AtomicLong bucket(EndpointClass endpointClass, String clientKey, long now) {
+        String key = endpointClass.ordinal() + ":" + clientKey;
+        ConcurrentHashMap<String, AtomicLong> stripe = stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+        AtomicLong bucket = stripe.get(key);
+        if (bucket != null) return bucket;
+
+        if (stripe.size() >= maxKeysPerStripe) {
+            sweep(stripe, now);
+            if (stripe.size() >= maxKeysPerStripe) {
+                Budget budget = budgets.get(endpointClass);
+                budget.overflowed.increment();
+                return budget.overflow;
+            }
+        }
+        // MIN_VALUE: never used, so the bucket starts full
+        return stripe.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+    public void sweepIdle() {
+        long now = System.nanoTime();
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) sweep(stripe, now);
+    }
+
+    // Drops buckets that have refilled completely; they hold nothing a new bucket wouldn't.
+    // A request racing with the removal spends a token from a full bucket, so at most one
+    // extra request gets through.
+    private static void sweep(ConcurrentHashMap<String, AtomicLong> stripe, long now) {
+        Iterator<AtomicLong> it = stripe.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().get() <= now) it.remove();
+        }
+    }
+
+    private static final class Budget {
+        private final int capacity;
+        private final int perMinute;
+        // Nanoseconds per token, and how far ahead of now a bucket may run (capacity - 1 tokens)
+        private final long interval;
+        private final long tolerance;
+        private final AtomicLong overflow = new AtomicLong(Long.MIN_VALUE);
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder overflowed = new LongAdder();
+
+        private Budget(int capacity, int perMinute) {
+            this.capacity = Math.max(1, capacity);
+            this.perMinute = Math.max(1, perMinute);
+            this.interval = 60_000_000_000L / this.perMinute;
+            this.tolerance = interval * (this.capacity - 1);
+        }
+    }
+}
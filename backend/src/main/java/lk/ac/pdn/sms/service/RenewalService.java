@@ -5,16 +5,18 @@ import lk.ac.pdn.sms.dto.ApprovalDto;
 import lk.ac.pdn.sms.entity.*;
 import lk.ac.pdn.sms.repository.SocietyRenewalRepository;
 import lk.ac.pdn.sms.repository.SocietyRepository;
-import lk.ac.pdn.sms.repository.AdminUserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Transactional
@@ -22,11 +24,29 @@ public class RenewalService {
 
     @Autowired private SocietyRenewalRepository renewalRepository;
     @Autowired private SocietyRepository societyRepository;
-    @Autowired private AdminUserRepository adminUserRepository;
     @Autowired private EmailService emailService;
+    @Autowired private AuditTrailService auditTrailService;
+    @Autowired private CurrentAdminService currentAdminService;
+    @Autowired private PDFService pdfService;
+    @Autowired private PdfCacheService pdfCacheService;
+    @Autowired private PdfDocumentService pdfDocumentService;
 
     // --- Submit Renewal ---
     public SocietyRenewal submitRenewal(SocietyRenewalDto dto) {
+        SocietyRenewal renewal = toRenewal(dto);
+
+        renewal.setStatus(SocietyRenewal.RenewalStatus.PENDING_DEAN);
+        renewal = renewalRepository.save(renewal);
+        auditTrailService.record(AuditEvent.Action.RENEWAL_SUBMITTED, AuditEvent.EntityType.RENEWAL, renewal.getId(),
+                null, renewal.getApplicantEmail(), null, renewal);
+
+        try { emailService.sendRenewalConfirmation(renewal); } catch(Exception e) {}
+
+        return renewal;
+    }
+
+    // DTO -> entity mapping shared by submission and the PDF preview
+    private SocietyRenewal toRenewal(SocietyRenewalDto dto) {
         SocietyRenewal renewal = new SocietyRenewal();
 
         // Mapping
@@ -90,11 +110,6 @@ public class RenewalService {
         if(dto.getAgmDate() != null) renewal.setAgmDate(LocalDate.parse(dto.getAgmDate()));
         renewal.setDifficulties(dto.getDifficulties());
 
-        renewal.setStatus(SocietyRenewal.RenewalStatus.PENDING_DEAN);
-        renewal = renewalRepository.save(renewal);
-
-        try { emailService.sendRenewalConfirmation(renewal); } catch(Exception e) {}
-
         return renewal;
     }
 
@@ -102,25 +117,29 @@ public class RenewalService {
     public SocietyRenewal approveRenewal(Long id, ApprovalDto dto, String userEmail) {
         SocietyRenewal renewal = renewalRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Renewal not found"));
-        AdminUser admin = adminUserRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("Admin not found"));
+        AdminUser admin = currentAdminService.resolveByName(userEmail);
+        Map<String, Object> before = auditTrailService.snapshot(renewal);
+        AuditEvent.Action auditAction;
 
         boolean fullyApproved = false;
 
         switch (admin.getRole()) {
             case DEAN:
+                auditAction = AuditEvent.Action.RENEWAL_APPROVED_DEAN;
                 renewal.setStatus(SocietyRenewal.RenewalStatus.PENDING_AR);
                 renewal.setIsDeanApproved(true);
                 renewal.setDeanApprovalDate(LocalDateTime.now());
                 renewal.setDeanComment(dto.getReason()); // Using reason as comment if any
                 break;
             case ASSISTANT_REGISTRAR:
+                auditAction = AuditEvent.Action.RENEWAL_APPROVED_AR;
                 renewal.setStatus(SocietyRenewal.RenewalStatus.PENDING_VC);
                 renewal.setIsArApproved(true);
                 renewal.setArApprovalDate(LocalDateTime.now());
                 renewal.setArComment(dto.getReason());
                 break;
             case VICE_CHANCELLOR:
+                auditAction = AuditEvent.Action.RENEWAL_APPROVED_VC;
                 renewal.setStatus(SocietyRenewal.RenewalStatus.APPROVED);
                 renewal.setIsVcApproved(true);
                 renewal.setVcApprovalDate(LocalDateTime.now());
@@ -133,10 +152,12 @@ public class RenewalService {
         }
 
         renewal = renewalRepository.save(renewal);
+        auditTrailService.record(auditAction, AuditEvent.EntityType.RENEWAL, renewal.getId(), admin, null, before, renewal);
 
         // Update Society Table if fully approved
         if (fullyApproved) {
             updateSocietyTable(renewal);
+            pdfDocumentService.prerenderAfterCommit(PdfCacheService.DocumentType.RENEWAL, renewal.getId());
             try { emailService.sendRenewalStatusUpdate(renewal, "APPROVED", "Vice Chancellor"); } catch(Exception e) {}
         }
 
@@ -201,10 +222,15 @@ public class RenewalService {
 
     public SocietyRenewal rejectRenewal(Long id, ApprovalDto dto, String userEmail) {
         SocietyRenewal renewal = renewalRepository.findById(id).orElseThrow();
+        Map<String, Object> before = auditTrailService.snapshot(renewal);
         renewal.setStatus(SocietyRenewal.RenewalStatus.REJECTED);
         renewal.setRejectionReason(dto.getReason());
         try { emailService.sendRenewalRejection(renewal); } catch(Exception e) {}
-        return renewalRepository.save(renewal);
+        renewal = renewalRepository.save(renewal);
+        AdminUser admin = currentAdminService.resolveByName(userEmail);
+        auditTrailService.record(AuditEvent.Action.RENEWAL_REJECTED, AuditEvent.EntityType.RENEWAL, renewal.getId(),
+                admin, userEmail, before, renewal);
+        return renewal;
     }
 
     public List<SocietyRenewal> getPendingRenewals(String faculty, String status, String userEmail) {
@@ -217,7 +243,17 @@ public class RenewalService {
 
     public SocietyRenewal getRenewalById(Long id) { return renewalRepository.findById(id).orElseThrow(); }
     public SocietyRenewalDto getLatestSocietyData(String societyName) { return new SocietyRenewalDto(); }
-    public byte[] generateRenewalPreviewPDF(SocietyRenewalDto dto) { return new byte[0]; }
-    public byte[] generateRenewalPDF(Long id) { return new byte[0]; }
+    public byte[] generateRenewalPreviewPDF(SocietyRenewalDto dto) {
+        try {
+            SocietyRenewal temp = toRenewal(dto);
+            temp.setStatus(null);
+            return pdfService.generateRenewalPDF(temp);
+        } catch (Exception e) { throw new RuntimeException("Preview Generation Failed"); }
+    }
+    public void writeRenewalPDF(SocietyRenewal renewal, OutputStream out) throws IOException {
+        String version = pdfCacheService.versionOf(PdfCacheService.DocumentType.RENEWAL, renewal);
+        pdfCacheService.write(PdfCacheService.DocumentType.RENEWAL, renewal.getId(), version,
+                pdfOut -> pdfService.writeRenewalPDF(renewal, pdfOut), out);
+    }
     public Object getRenewalStatistics() { return null; }
 }
\ No newline at end of file
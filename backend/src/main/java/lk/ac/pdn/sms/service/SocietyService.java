@@ -5,6 +5,8 @@ import lk.ac.pdn.sms.entity.*;
 import lk.ac.pdn.sms.repository.SocietyRegistrationRepository;
 import lk.ac.pdn.sms.repository.SocietyRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -32,6 +34,18 @@ public class SocietyService {
     @Autowired
     private ActivityLogService activityLogService;
 
+    @Autowired
+    private AuditTrailService auditTrailService;
+
+    // Rows written before the normalized *_key columns existed get them filled in; rows whose
+    // keys are already current are not dirtied, so no UPDATE is issued for them
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOfficialKeys() {
+        for (Society society : societyRepository.findAll()) {
+            society.refreshOfficialKeys();
+        }
+    }
+
     // --- Public Data Access ---
 
     public Page<Society> getAllSocieties(String search, String status, Integer year, Pageable pageable) {
@@ -194,6 +208,8 @@ public class SocietyService {
 
         // Save
         reg = registrationRepository.save(reg);
+        auditTrailService.record(AuditEvent.Action.REGISTRATION_SUBMITTED, AuditEvent.EntityType.REGISTRATION, reg.getId(),
+                null, reg.getApplicantEmail(), null, reg);
 
         // Notify
         emailService.sendRegistrationConfirmation(reg);
@@ -0,0 +1,302 @@
+package lk.ac.pdn.sms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lk.ac.pdn.sms.entity.AdminUser;
+import lk.ac.pdn.sms.repository.AdminUserRepository;
+import lk.ac.pdn.sms.repository.RevokedSessionRepository;
+import lk.ac.pdn.sms.repository.UsedRefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Signed access/refresh tokens for the stateless session mode (app.auth.session-mode=token),
+ * so any backend instance can authenticate any request without a shared session store.
+ *
+ * Tokens are compact HS256 JWTs. Signing keys are derived from app.auth.token.secret and
+ * the current rotation period, so every node that shares the secret rotates to the same key
+ * at the same time with no coordination. A token's "kid" names its period; tokens are
+ * accepted with the current or the previous period's key.
+ *
+ * Each login starts a session id ("sid") shared by its access and refresh tokens. Refresh
+ * tokens are single use: a reused one revokes its whole session. Used refresh tokens and
+ * revoked sessions are stored in the database (used_refresh_tokens, revoked_sessions) until
+ * the tokens they cover would have expired anyway, and are checked on refresh only, so reuse
+ * and logout are seen by every node from the next refresh. Access tokens are still checked
+ * locally: the node that handled a logout rejects the session at once, while other nodes
+ * accept its access token until it expires (at most app.auth.token.access-ttl-minutes).
+ * Deactivating an admin likewise ends their sessions at the next refresh, which reads the
+ * admin row again.
+ */
+@Service
+public class TokenService {
+
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final AdminUserRepository adminUserRepository;
+    private final RevokedSessionRepository revokedSessionRepository;
+    private final UsedRefreshTokenRepository usedRefreshTokenRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean tokenMode;
+    private final byte[] secret;
+    private final Duration accessTtl;
+    private final Duration refreshTtl;
+    private final long rotationMillis;
+
+    // Derived keys by period; only the current and previous period are ever used
+    private final Map<Long, SecretKeySpec> keys = new ConcurrentHashMap<>();
+    // Sessions revoked through this node (or found revoked on refresh): sid -> when its last
+    // refresh token expires. Lets this node reject their access tokens without a query.
+    private final Map<String, Long> revokedSessions = new ConcurrentHashMap<>();
+
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong refreshed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong reuseDetected = new AtomicLong();
+
+    public TokenService(AdminUserRepository adminUserRepository,
+                        RevokedSessionRepository revokedSessionRepository,
+                        UsedRefreshTokenRepository usedRefreshTokenRepository,
+                        ObjectMapper objectMapper,
+                        @Value("${app.auth.session-mode:session}") String sessionMode,
+                        @Value("${app.auth.token.secret:}") String secret,
+                        @Value("${app.auth.token.access-ttl-minutes:15}") long accessTtlMinutes,
+                        @Value("${app.auth.token.refresh-ttl-hours:12}") long refreshTtlHours,
+                        @Value("${app.auth.token.key-rotation-hours:24}") long rotationHours) {
+        this.adminUserRepository = adminUserRepository;
+        this.revokedSessionRepository = revokedSessionRepository;
+        this.usedRefreshTokenRepository = usedRefreshTokenRepository;
+        this.objectMapper = objectMapper;
+        this.tokenMode = "token".equalsIgnoreCase(sessionMode);
+        this.accessTtl = Duration.ofMinutes(accessTtlMinutes);
+        this.refreshTtl = Duration.ofHours(refreshTtlHours);
+        // A refresh token must stay verifiable for its whole life: current or previous period
+        this.rotationMillis = Math.max(Duration.ofHours(rotationHours).toMillis(), refreshTtl.toMillis());
+
+        if (secret == null || secret.isBlank()) {
+            // A per-process key would log everyone out on restart and fail every request routed to another node
+            if (tokenMode) {
+                throw new IllegalStateException("app.auth.token.secret must be set when app.auth.session-mode=token");
+            }
+            // Session mode never issues tokens; with no key none can be verified either
+            this.secret = null;
+        } else {
+            this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /** Starts a new token session for the admin: {accessToken, refreshToken, expiresIn, tokenType}. */
+    public Map<String, Object> issue(AdminUser admin) {
+        issued.incrementAndGet();
+        return pair(admin, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for a new pair in the same session. The admin row is read
+     * again, so deactivation and role changes apply from the next refresh at the latest.
+     */
+    public Map<String, Object> refresh(String refreshToken) {
+        Map<String, Object> claims = verify(refreshToken, REFRESH);
+        if (claims == null) throw new TokenException("Invalid or expired refresh token");
+
+        String jti = (String) claims.get("jti");
+        String sid = (String) claims.get("sid");
+        long exp = ((Number) claims.get("exp")).longValue() * 1000;
+        if (revokedSessionRepository.existsById(sid)) {
+            // Revoked on any node (logout or reuse); remember it for this node's access checks
+            revokedSessions.put(sid, System.currentTimeMillis() + refreshTtl.toMillis());
+            rejected.incrementAndGet();
+            throw new TokenException("Invalid or expired refresh token");
+        }
+        if (usedRefreshTokenRepository.markUsed(jti, sid, toDateTime(exp)) == 0) {
+            // Someone else has this token: end the session for both holders
+            reuseDetected.incrementAndGet();
+            revokeSession(sid);
+            throw new TokenException("Refresh token was already used");
+        }
+
+        Long adminId = Long.valueOf((String) claims.get("sub"));
+        AdminUser admin = adminUserRepository.findById(adminId)
+                .filter(a -> Boolean.TRUE.equals(a.getIsActive()))
+                .orElseThrow(() -> new TokenException("Account is inactive"));
+        refreshed.incrementAndGet();
+        return pair(admin, sid);
+    }
+
+    /** Claims of a valid, unrevoked token of the given type, or null. */
+    public Map<String, Object> verify(String token, String type) {
+        Map<String, Object> claims = decode(token);
+        if (claims == null
+                || !type.equals(claims.get("typ"))
+                || !(claims.get("exp") instanceof Number)
+                || ((Number) claims.get("exp")).longValue() * 1000 <= System.currentTimeMillis()
+                || revokedSessions.containsKey(String.valueOf(claims.get("sid")))) {
+            rejected.incrementAndGet();
+            return null;
+        }
+        return claims;
+    }
+
+    /** Revokes the session a token (access or refresh) belongs to; invalid tokens are ignored. */
+    public void revoke(String token) {
+        Map<String, Object> claims = decode(token);
+        if (claims == null || claims.get("sid") == null) return;
+        revokeSession(String.valueOf(claims.get("sid")));
+    }
+
+    private void revokeSession(String sid) {
+        long expiry = System.currentTimeMillis() + refreshTtl.toMillis();
+        revokedSessions.put(sid, expiry);
+        revokedSessionRepository.revoke(sid, toDateTime(expiry));
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.token.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedSessions.values().removeIf(expiry -> expiry <= now);
+        if (tokenMode) {
+            LocalDateTime cutoff = toDateTime(now);
+            revokedSessionRepository.deleteExpired(cutoff);
+            usedRefreshTokenRepository.deleteExpired(cutoff);
+        }
+        long period = now / rotationMillis;
+        keys.keySet().removeIf(kid -> kid < period - 1);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("keyId", System.currentTimeMillis() / rotationMillis);
+        stats.put("issued", issued.get());
+        stats.put("refreshed", refreshed.get());
+        stats.put("rejected", rejected.get());
+        stats.put("reuseDetected", reuseDetected.get());
+        stats.put("revokedSessionsLocal", revokedSessions.size());
+        stats.put("revokedSessions", revokedSessionRepository.count());
+        stats.put("usedRefreshTokens", usedRefreshTokenRepository.count());
+        return stats;
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private Map<String, Object> pair(AdminUser admin, String sid) {
+        long now = System.currentTimeMillis();
+
+        Map<String, Object> access = new LinkedHashMap<>();
+        access.put("sub", String.valueOf(admin.getId()));
+        access.put("typ", ACCESS);
+        access.put("sid", sid);
+        access.put("email", admin.getEmail());
+        access.put("name", admin.getName());
+        access.put("role", admin.getRole().name());
+        access.put("faculty", admin.getFaculty());
+        access.put("iat", now / 1000);
+        access.put("exp", (now + accessTtl.toMillis()) / 1000);
+
+        Map<String, Object> refresh = new LinkedHashMap<>();
+        refresh.put("sub", String.valueOf(admin.getId()));
+        refresh.put("typ", REFRESH);
+        refresh.put("sid", sid);
+        refresh.put("jti", UUID.randomUUID().toString());
+        refresh.put("iat", now / 1000);
+        refresh.put("exp", (now + refreshTtl.toMillis()) / 1000);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("tokenType", "Bearer");
+        result.put("accessToken", sign(access, now));
+        result.put("expiresIn", accessTtl.toSeconds());
+        result.put("refreshToken", sign(refresh, now));
+        result.put("refreshExpiresIn", refreshTtl.toSeconds());
+        return result;
+    }
+
+    private String sign(Map<String, Object> claims, long now) {
+        long kid = now / rotationMillis;
+        try {
+            String header = ENCODER.encodeToString(("{\"alg\":\"HS256\",\"typ\":\"JWT\",\"kid\":\"" + kid + "\"}")
+                    .getBytes(StandardCharsets.UTF_8));
+            String payload = ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            String signingInput = header + "." + payload;
+            return signingInput + "." + ENCODER.encodeToString(mac(kid, signingInput));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to sign token", e);
+        }
+    }
+
+    // Claims of a well-formed token signed with a current or previous key; expiry not checked
+    private Map<String, Object> decode(String token) {
+        if (token == null || secret == null) return null;
+        int first = token.indexOf('.');
+        int second = token.indexOf('.', first + 1);
+        if (first < 0 || second < 0 || token.indexOf('.', second + 1) >= 0) return null;
+        try {
+            Map<String, Object> header = objectMapper.readValue(DECODER.decode(token.substring(0, first)),
+                    new TypeReference<Map<String, Object>>() {});
+            if (!"HS256".equals(header.get("alg"))) return null;
+            long kid = Long.parseLong(String.valueOf(header.get("kid")));
+            long period = System.currentTimeMillis() / rotationMillis;
+            if (kid != period && kid != period - 1) return null;
+
+            byte[] expected = mac(kid, token.substring(0, second));
+            byte[] actual = DECODER.decode(token.substring(second + 1));
+            if (!MessageDigest.isEqual(expected, actual)) return null;
+
+            return objectMapper.readValue(DECODER.decode(token.substring(first + 1, second)),
+                    new TypeReference<Map<String, Object>>() {});
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    private byte[] mac(long kid, String input) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(keys.computeIfAbsent(kid, this::deriveKey));
+            return mac.doFinal(input.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    private SecretKeySpec deriveKey(long kid) {
+        if (secret == null) throw new TokenException("Token sessions are not configured");
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            byte[] key = mac.doFinal(("sms-token-key:" + kid).getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(key, "HmacSHA256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    public static class TokenException extends RuntimeException {
+        public TokenException(String message) {
+            super(message);
+        }
+    }
+}
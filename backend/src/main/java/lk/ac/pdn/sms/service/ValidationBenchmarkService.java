@@ -0,0 +1,177 @@
+package lk.ac.pdn.sms.service;
+
+import com.sun.management.ThreadMXBean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the hand-written validators in EmailValidationService with the regular
+ * expressions they replaced. A seeded random corpus (mutations of valid values plus fully
+ * random strings over an alphabet heavy in edge cases: whitespace, line terminators,
+ * separators, non-ASCII letters and surrogate pairs) is first checked for identical
+ * accept/reject results, then both implementations are timed over it. Only available
+ * under the "perf" profile.
+ */
+@Service
+@Profile("perf")
+public class ValidationBenchmarkService {
+
+    // The patterns EmailValidationService used before; kept here as the reference
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$");
+    private static final Pattern MOBILE_PATTERN = Pattern.compile("^(\\+94|0)?[7][0-9]{8}$");
+    private static final Pattern REG_NO_PATTERN = Pattern.compile("^(?=.*[a-zA-Z])(?=.*[0-9]).{5,}$");
+
+    private static final String[] SEEDS = {
+            "student@pdn.ac.lk", "a.b-c_d%e+f@sci.pdn.ac.lk", "x@y.co", "name@gmail.com",
+            "0771234567", "771234567", "+94771234567", "077 123 4567", "+94 77 123 4567",
+            "S/20/001", "E/19/123", "AG2020", "12345", "abcde", "s20001"
+    };
+    private static final String ALPHABET = "abzAZ0179@.+-_%/ \t\n\r\u000B\f\u0085\u2028\u00e9\u0660";
+    private static final String SURROGATE_PAIR = "\uD835\uDC00";
+    private static final int MAX_REPORTED_MISMATCHES = 20;
+
+    private final EmailValidationService validationService;
+
+    public ValidationBenchmarkService(EmailValidationService validationService) {
+        this.validationService = validationService;
+    }
+
+    public Map<String, Object> runValidationBenchmark(int corpusSize, long seed, int iterations) {
+        List<String> corpus = corpus(corpusSize, seed);
+
+        List<Map<String, Object>> mismatches = new ArrayList<>();
+        for (String input : corpus) {
+            compare("email", input, EMAIL_PATTERN.matcher(input).matches(), validationService.isValidEmail(input), mismatches);
+            boolean mobileRegex = MOBILE_PATTERN.matcher(input.replaceAll("\\s", "")).matches();
+            compare("mobile", input, mobileRegex, validationService.isValidMobile(input), mismatches);
+            compare("regNo", input, REG_NO_PATTERN.matcher(input).matches(), validationService.isValidRegistrationNumber(input), mismatches);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", "validation");
+        result.put("corpusSize", corpus.size());
+        result.put("seed", seed);
+        result.put("iterations", iterations);
+        result.put("equivalent", mismatches.isEmpty());
+        result.put("mismatches", mismatches);
+        result.put("email", time(corpus, iterations,
+                s -> EMAIL_PATTERN.matcher(s).matches(), validationService::isValidEmail));
+        result.put("mobile", time(corpus, iterations,
+                s -> MOBILE_PATTERN.matcher(s.replaceAll("\\s", "")).matches(), validationService::isValidMobile));
+        result.put("regNo", time(corpus, iterations,
+                s -> REG_NO_PATTERN.matcher(s).matches(), validationService::isValidRegistrationNumber));
+        return result;
+    }
+
+    private static void compare(String validator, String input, boolean expected, boolean actual,
+                                List<Map<String, Object>> mismatches) {
+        if (expected == actual || mismatches.size() >= MAX_REPORTED_MISMATCHES) return;
+        Map<String, Object> mismatch = new LinkedHashMap<>();
+        mismatch.put("validator", validator);
+        mismatch.put("input", input);
+        mismatch.put("regex", expected);
+        mismatch.put("scanner", actual);
+        mismatches.add(mismatch);
+    }
+
+    private static Map<String, Object> time(List<String> corpus, int iterations,
+                                            Predicate<String> regex, Predicate<String> scanner) {
+        // Warm both up before measuring
+        run(corpus, Math.max(1, iterations / 10), regex);
+        run(corpus, Math.max(1, iterations / 10), scanner);
+
+        Map<String, Object> timing = new LinkedHashMap<>();
+        measure("regex", corpus, iterations, regex, timing);
+        measure("scanner", corpus, iterations, scanner, timing);
+        return timing;
+    }
+
+    private static void measure(String name, List<String> corpus, int iterations, Predicate<String> check,
+                                Map<String, Object> timing) {
+        long ops = (long) corpus.size() * iterations;
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long accepted = run(corpus, iterations, check);
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        timing.put(name + "NanosPerOp", ops > 0 ? (double) elapsed / ops : 0);
+        timing.put(name + "AllocatedBytesPerOp", allocated >= 0 && ops > 0 ? (double) allocated / ops : -1);
+        timing.put(name + "Accepted", accepted / Math.max(1, iterations));
+    }
+
+    // The accepted count is returned so the JIT cannot drop the calls
+    private static long run(List<String> corpus, int iterations, Predicate<String> check) {
+        long accepted = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (String s : corpus) {
+                if (check.test(s)) accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    private static List<String> corpus(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String> corpus = new ArrayList<>(size + SEEDS.length);
+        corpus.addAll(List.of(SEEDS));
+        StringBuilder sb = new StringBuilder();
+        while (corpus.size() < size) {
+            sb.setLength(0);
+            if (random.nextInt(4) == 0) {
+                int length = random.nextInt(17);
+                for (int i = 0; i < length; i++) appendRandom(sb, random);
+            } else {
+                sb.append(SEEDS[random.nextInt(SEEDS.length)]);
+                int edits = 1 + random.nextInt(3);
+                for (int e = 0; e < edits; e++) mutate(sb, random);
+            }
+            corpus.add(sb.toString());
+        }
+        return corpus;
+    }
+
+    private static void mutate(StringBuilder sb, SplittableRandom random) {
+        int op = random.nextInt(3);
+        if (op == 0 || sb.length() == 0) {
+            // Insert
+            int at = random.nextInt(sb.length() + 1);
+            StringBuilder piece = new StringBuilder(2);
+            appendRandom(piece, random);
+            sb.insert(at, piece);
+        } else if (op == 1) {
+            sb.deleteCharAt(random.nextInt(sb.length()));
+        } else {
+            sb.setCharAt(random.nextInt(sb.length()), ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+    }
+
+    private static void appendRandom(StringBuilder sb, SplittableRandom random) {
+        if (random.nextInt(20) == 0) {
+            sb.append(SURROGATE_PAIR);
+        } else {
+            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+    }
+
+    // -1 when the JVM does not expose per-thread allocation counters
+    private static long allocatedBytes() {
+        Object bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof ThreadMXBean) {
+            ThreadMXBean hotspot = (ThreadMXBean) bean;
+            if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
@@ -8,11 +8,13 @@ USE sms_uop2;
 CREATE TABLE IF NOT EXISTS admin_users (
                                            id BIGINT AUTO_INCREMENT PRIMARY KEY,
                                            email VARCHAR(255) NOT NULL UNIQUE,
+                                           canonical_email VARCHAR(255) UNIQUE, -- trimmed, lower case, googlemail.com -> gmail.com; set by the application
                                            name VARCHAR(255) NOT NULL,
                                            password VARCHAR(255), -- Nullable if using OAuth only
                                            role VARCHAR(50) NOT NULL, -- 'DEAN', 'ASSISTANT_REGISTRAR', 'VICE_CHANCELLOR', 'PREMISES_OFFICER', 'STUDENT_SERVICE'
                                            faculty VARCHAR(100), -- Nullable, only for DEAN
                                            is_active BOOLEAN DEFAULT TRUE,
+                                           notification_digest VARCHAR(20) DEFAULT 'IMMEDIATE', -- 'IMMEDIATE', 'HOURLY', 'DAILY'
                                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
                                            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
 );
@@ -68,6 +70,21 @@ CREATE TABLE IF NOT EXISTS societies (
                                          senior_treasurer_name VARCHAR(255),
                                          senior_treasurer_email VARCHAR(255),
 
+    -- Normalized officials' reg no / email (upper case without spaces and '/', lower-cased email),
+    -- written by the application on every save; applicant verification matches on these
+                                         president_reg_no_key VARCHAR(50),
+                                         president_email_key VARCHAR(255),
+                                         vice_president_reg_no_key VARCHAR(50),
+                                         vice_president_email_key VARCHAR(255),
+                                         secretary_reg_no_key VARCHAR(50),
+                                         secretary_email_key VARCHAR(255),
+                                         joint_secretary_reg_no_key VARCHAR(50),
+                                         joint_secretary_email_key VARCHAR(255),
+                                         junior_treasurer_reg_no_key VARCHAR(50),
+                                         junior_treasurer_email_key VARCHAR(255),
+                                         editor_reg_no_key VARCHAR(50),
+                                         editor_email_key VARCHAR(255),
+
                                          registered_date DATE,
                                          updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
 
@@ -154,7 +171,8 @@ CREATE TABLE IF NOT EXISTS society_registration_applications (
 
                                                                  rejection_reason TEXT,
                                                                  submitted_date DATETIME DEFAULT CURRENT_TIMESTAMP,
-                                                                 approved_date DATETIME
+                                                                 approved_date DATETIME,
+                                                                 row_version BIGINT NOT NULL DEFAULT 0
 );
 
 -- ==========================================
@@ -195,7 +213,8 @@ CREATE TABLE IF NOT EXISTS society_renewals (
 
                                                 rejection_reason TEXT,
                                                 submitted_date DATETIME DEFAULT CURRENT_TIMESTAMP,
-                                                approved_date DATETIME
+                                                approved_date DATETIME,
+                                                row_version BIGINT NOT NULL DEFAULT 0
 );
 
 -- ==========================================
@@ -253,20 +272,82 @@ CREATE TABLE IF NOT EXISTS event_permissions (
 
                                                  rejection_reason TEXT,
                                                  submitted_date DATETIME DEFAULT CURRENT_TIMESTAMP,
-                                                 approved_date DATETIME
+                                                 approved_date DATETIME,
+                                                 row_version BIGINT NOT NULL DEFAULT 0
 );
 
 -- ==========================================
 -- 6. SUPPORTING TABLES (Lists)
 -- ==========================================
 
+-- Partitioned by month on TO_DAYS(timestamp); MySQL requires the partitioning column in
+-- the primary key. The table starts with p_future only: at startup and nightly,
+-- ActivityLogArchiveService splits p_future into p_YYYYMM partitions for the current and
+-- coming months, and exports expired months to gzipped NDJSON before dropping them.
+-- An existing unpartitioned activity_logs is converted by the same nightly job; the
+-- equivalent manual migration is at the end of this file.
 CREATE TABLE IF NOT EXISTS activity_logs (
-                                             id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                             id BIGINT AUTO_INCREMENT,
                                              action VARCHAR(255) NOT NULL,
                                              target VARCHAR(255),
                                              user_id VARCHAR(50),
                                              user_name VARCHAR(255),
-                                             timestamp DATETIME DEFAULT CURRENT_TIMESTAMP
+                                             timestamp DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                             PRIMARY KEY (id, timestamp),
+    -- Audit search is keyset-paged on (timestamp, id) newest first; each filter has its
+    -- own composite index ending in (timestamp, id) so filter + order + cursor is one range scan
+                                             INDEX idx_logs_ts_id (timestamp, id),
+                                             INDEX idx_logs_action_ts_id (action, timestamp, id),
+                                             INDEX idx_logs_user_id_ts_id (user_id, timestamp, id),
+                                             INDEX idx_logs_user_name_ts_id (user_name, timestamp, id)
+)
+    PARTITION BY RANGE (TO_DAYS(timestamp)) (
+        PARTITION p_future VALUES LESS THAN MAXVALUE
+    );
+
+-- Structured audit trail. action_code / entity_type are dictionary codes from
+-- AuditEvent.Action / AuditEvent.EntityType; changes holds only the changed fields as
+-- {"field":[old,new]} JSON
+CREATE TABLE IF NOT EXISTS audit_events (
+                                            id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                            action_code SMALLINT NOT NULL,
+                                            entity_type TINYINT NOT NULL,
+                                            entity_id BIGINT,
+                                            actor_id BIGINT,
+                                            actor_name VARCHAR(255),
+                                            changes TEXT,
+                                            created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                            INDEX idx_audit_entity (entity_type, entity_id, created_at),
+                                            INDEX idx_audit_action (action_code, created_at)
+);
+
+-- Buffered "Action Required" emails for approvers on hourly/daily digests
+CREATE TABLE IF NOT EXISTS pending_notifications (
+                                                     id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                                     recipient_email VARCHAR(255) NOT NULL,
+                                                     recipient_name VARCHAR(255),
+                                                     digest_mode VARCHAR(20) NOT NULL,
+                                                     subject VARCHAR(255) NOT NULL,
+                                                     summary TEXT NOT NULL,
+                                                     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+                                                     claimed_by VARCHAR(36),
+                                                     claimed_at DATETIME,
+                                                     INDEX idx_pending_mode_recipient (digest_mode, recipient_email, created_at),
+                                                     INDEX idx_pending_claimed_by (claimed_by)
+);
+
+-- Token sessions (app.auth.session-mode=token): shared by every instance, checked on refresh
+CREATE TABLE IF NOT EXISTS revoked_sessions (
+                                                sid VARCHAR(36) PRIMARY KEY,
+                                                expires_at DATETIME NOT NULL,
+                                                INDEX idx_revoked_sessions_expires (expires_at)
+);
+
+CREATE TABLE IF NOT EXISTS used_refresh_tokens (
+                                                   jti VARCHAR(36) PRIMARY KEY,
+                                                   sid VARCHAR(36) NOT NULL,
+                                                   expires_at DATETIME NOT NULL,
+                                                   INDEX idx_used_refresh_expires (expires_at)
 );
 
 -- Registration Lists
@@ -329,4 +410,22 @@ INSERT IGNORE INTO admin_users (email, name, role, faculty, is_active) VALUES
                                                                            ('s20369@sci.pdn.ac.lk', 'Dean Science', 'DEAN', 'Faculty of Science', TRUE),
                                                                            ('dean.vet@pdn.ac.lk', 'Dean Veterinary', 'DEAN', 'Faculty of Veterinary Medicine and Animal Science', TRUE),
                                                                            ('dean.ahs@pdn.ac.lk', 'Dean Allied Health', 'DEAN', 'Faculty of Allied Health Sciences', TRUE),
-                                                                           ('dean.mgt@pdn.ac.lk', 'Dean Management', 'DEAN', 'Faculty of Management', TRUE);
\ No newline at end of file
+                                                                           ('dean.mgt@pdn.ac.lk', 'Dean Management', 'DEAN', 'Faculty of Management', TRUE);
+-- ==========================================
+-- 8. MIGRATION: partition an existing activity_logs
+-- ==========================================
+-- Installs created before activity_logs was partitioned are converted by the nightly
+-- ActivityLogArchiveService job (app.activity-log.auto-partition=true, the default),
+-- which also drops any foreign keys and gives every month since the oldest entry its own
+-- partition. To convert by hand instead, drop the table's foreign keys (partitioned InnoDB
+-- tables cannot have them), then run the statement below with one PARTITION line per month
+-- from the oldest entry to a few months ahead. It rebuilds the table.
+--
+-- ALTER TABLE activity_logs
+--     MODIFY timestamp DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+--     DROP PRIMARY KEY, ADD PRIMARY KEY (id, timestamp)
+--     PARTITION BY RANGE (TO_DAYS(timestamp)) (
+--         PARTITION p202601 VALUES LESS THAN (TO_DAYS('2026-02-01')),
+--         PARTITION p202602 VALUES LESS THAN (TO_DAYS('2026-03-01')),
+--         PARTITION p_future VALUES LESS THAN MAXVALUE
+--     );